@@ -0,0 +1,108 @@
+package com.github.ynverxe.data.benchmark;
+
+import com.github.ynverxe.data.DataBinding;
+import com.github.ynverxe.data.DataNode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures mapping an object to a node and back through its binding,
+ * compared to the hand-written mapping.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BindingBenchmark {
+
+    private final DataBinding<Profile> binding = DataBinding.of(Profile.class);
+    private Profile profile;
+    private DataNode dataNode;
+
+    @Setup
+    public void setUp() {
+        profile = new Profile();
+        profile.setName("Steve");
+        profile.setLevel(12);
+        profile.setBalance(1500.25);
+        profile.setFriends(Arrays.asList("Alex", "Notch"));
+
+        dataNode = binding.toNode(profile);
+    }
+
+    @Benchmark
+    public DataNode bindingToNode() {
+        return binding.toNode(profile);
+    }
+
+    @Benchmark
+    public DataNode manualToNode() {
+        DataNode dataNode = new DataNode();
+        dataNode.put("name", profile.getName());
+        dataNode.putInt("level", profile.getLevel());
+        dataNode.putDouble("balance", profile.getBalance());
+        dataNode.put("friends", profile.getFriends());
+
+        return dataNode;
+    }
+
+    @Benchmark
+    public Profile bindingFromNode() {
+        return binding.fromNode(dataNode);
+    }
+
+    @Benchmark
+    public Profile manualFromNode() {
+        Profile profile = new Profile();
+        profile.setName(dataNode.getString("name"));
+        profile.setLevel(dataNode.getIntValue("level", 0));
+        profile.setBalance(((Number) dataNode.get("balance")).doubleValue());
+        profile.setFriends(dataNode.listOf("friends", String.class));
+
+        return profile;
+    }
+
+    public static class Profile {
+        private String name;
+        private int level;
+        private double balance;
+        private List<String> friends;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public void setLevel(int level) {
+            this.level = level;
+        }
+
+        public double getBalance() {
+            return balance;
+        }
+
+        public void setBalance(double balance) {
+            this.balance = balance;
+        }
+
+        public List<String> getFriends() {
+            return friends;
+        }
+
+        public void setFriends(List<String> friends) {
+            this.friends = friends;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.ynverxe.data.benchmark;
+
+import com.github.ynverxe.data.BinaryCodec;
+import com.github.ynverxe.data.DataNode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the binary codec against {@code simplify()}, the map that
+ * would otherwise be handed to a text serializer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    @Param({"2", "4"})
+    public int depth;
+
+    @Param({"8", "64"})
+    public int width;
+
+    @Param({"false", "true"})
+    public boolean keyDictionary;
+
+    private DataNode tree;
+    private BinaryCodec codec;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        tree = TreeFixtures.tree(depth, width);
+        codec = new BinaryCodec(keyDictionary);
+        encoded = codec.toByteArray(tree);
+    }
+
+    @Benchmark
+    public Map<String, Object> simplify() {
+        return tree.simplify();
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return codec.toByteArray(tree);
+    }
+
+    @Benchmark
+    public DataNode decode() {
+        return codec.read(encoded);
+    }
+}
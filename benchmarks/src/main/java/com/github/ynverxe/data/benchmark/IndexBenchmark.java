@@ -0,0 +1,81 @@
+package com.github.ynverxe.data.benchmark;
+
+import com.github.ynverxe.data.DataNode;
+import com.github.ynverxe.data.DataPath;
+import com.github.ynverxe.data.NodeIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures finding the child of a node by the value of a field, scanning
+ * every child compared to a hash index, and the cost of keeping the
+ * indexes updated on writes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndexBenchmark {
+
+    @Param({"100", "10000"})
+    public int children;
+
+    private DataNode dataNode;
+    private DataNode indexedNode;
+    private NodeIndex hashIndex;
+    private NodeIndex sortedIndex;
+    private DataPath[] ownerPaths;
+    private String owner;
+    private int counter;
+
+    @Setup
+    public void setUp() {
+        dataNode = new DataNode();
+        ownerPaths = new DataPath[children];
+
+        for (int i = 0; i < children; i++) {
+            ownerPaths[i] = DataPath.of("house" + i, "owner");
+            dataNode.put(ownerPaths[i], "player" + i);
+            dataNode.putInt("house" + i + ".size", i);
+        }
+
+        indexedNode = dataNode.clone();
+        hashIndex = NodeIndex.hash(indexedNode, "owner");
+        sortedIndex = NodeIndex.sorted(indexedNode, "size");
+        owner = "player" + (children / 2);
+    }
+
+    @Benchmark
+    public String scan() {
+        for (int i = 0; i < ownerPaths.length; i++) {
+            if (owner.equals(dataNode.getString(ownerPaths[i]))) return ownerPaths[i].segment(0);
+        }
+
+        return null;
+    }
+
+    @Benchmark
+    public Set<String> find() {
+        return hashIndex.find(owner);
+    }
+
+    @Benchmark
+    public List<String> range() {
+        return sortedIndex.range(children / 2, true, children / 2 + 10, false);
+    }
+
+    @Benchmark
+    public boolean putIndexed() {
+        return indexedNode.putInt("house0.size", counter++);
+    }
+
+    @Benchmark
+    public boolean putUnindexed() {
+        return dataNode.putInt("house0.size", counter++);
+    }
+}
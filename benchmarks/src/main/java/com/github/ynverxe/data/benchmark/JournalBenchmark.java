@@ -0,0 +1,73 @@
+package com.github.ynverxe.data.benchmark;
+
+import com.github.ynverxe.data.DataJournal;
+import com.github.ynverxe.data.DataNode;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures writes on a journaled node, the disk is written by the journal
+ * thread so the writes must stay close to the writes of a plain node, and
+ * the cost of waiting until every write is forced to the disk.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JournalBenchmark {
+
+    @Param({"false", "true"})
+    public boolean journaled;
+
+    private Path directory;
+    private DataNode dataNode;
+    private DataJournal journal;
+    private String path;
+    private int counter;
+
+    @Setup
+    public void setUp() throws IOException {
+        path = TreeFixtures.deepPath(4);
+        dataNode = TreeFixtures.tree(2, 8);
+        directory = Files.createTempDirectory("journal");
+
+        if (journaled) {
+            journal = DataJournal.attach(dataNode, directory);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public boolean put() {
+        return dataNode.put(path, counter++);
+    }
+
+    @Benchmark
+    public boolean putAndFlush() throws IOException {
+        boolean stored = dataNode.put(path, counter++);
+
+        if (journal != null) {
+            journal.flush();
+        }
+
+        return stored;
+    }
+}
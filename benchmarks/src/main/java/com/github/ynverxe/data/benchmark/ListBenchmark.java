@@ -0,0 +1,63 @@
+package com.github.ynverxe.data.benchmark;
+
+import com.github.ynverxe.data.DataNode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code addToList} and {@code removeFromList} on large lists.
+ *
+ * Every invocation of {@link #addThenRemove()} appends and removes the
+ * same element, so the list keeps its size along the whole run, while
+ * {@link #append()} grows a list that is recreated on every iteration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListBenchmark {
+
+    private static final String PATH = "holder.list";
+
+    @Param({"100", "10000", "50000"})
+    public int size;
+
+    private DataNode dataNode;
+    private DataNode appendNode;
+
+    @Setup
+    public void setUp() {
+        dataNode = new DataNode();
+        dataNode.put(PATH, TreeFixtures.list(size));
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpAppend() {
+        appendNode = new DataNode();
+        appendNode.put(PATH, TreeFixtures.list(size));
+    }
+
+    @Benchmark
+    public boolean append() {
+        return appendNode.addToList(PATH, false, -1);
+    }
+
+    @Benchmark
+    public boolean addThenRemove() {
+        dataNode.addToList(PATH, false, -1);
+        return dataNode.removeFromList(PATH, false, -1);
+    }
+
+    @Benchmark
+    public boolean removeAbsent() {
+        return dataNode.removeFromList(PATH, false, -1);
+    }
+
+    @Benchmark
+    public Object getList() {
+        return dataNode.getList(PATH);
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.ynverxe.data.benchmark;
+
+import com.github.ynverxe.data.DataMetrics;
+import com.github.ynverxe.data.DataNode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the instrumented operations with the metrics disabled and
+ * enabled, the disabled results must match the other benchmarks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    @Param({"false", "true"})
+    public boolean enabled;
+
+    private DataNode dataNode;
+    private DataNode tree;
+    private String path;
+    private int counter;
+
+    @Setup
+    public void setUp() {
+        path = TreeFixtures.deepPath(4);
+        dataNode = new DataNode();
+        dataNode.put(path, 0);
+        tree = TreeFixtures.tree(2, 8);
+
+        if (enabled) {
+            DataMetrics.enable();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        DataMetrics.disable();
+        DataMetrics.reset();
+    }
+
+    @Benchmark
+    public Object get() {
+        return dataNode.get(path);
+    }
+
+    @Benchmark
+    public boolean put() {
+        return dataNode.put(path, counter++);
+    }
+
+    @Benchmark
+    public DataNode cloneTree() {
+        return tree.clone();
+    }
+
+    @Benchmark
+    public Map<String, Object> simplify() {
+        return tree.simplify();
+    }
+}
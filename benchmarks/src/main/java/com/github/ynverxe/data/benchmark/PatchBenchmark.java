@@ -0,0 +1,65 @@
+package com.github.ynverxe.data.benchmark;
+
+import com.github.ynverxe.data.DataNode;
+import com.github.ynverxe.data.DataPatch;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures diffing a tree against a clone with a single modified leaf,
+ * and against an equal tree built separately, which must be fully
+ * compared, and applying the patch compared to consuming the tree.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatchBenchmark {
+
+    @Param({"3", "5"})
+    public int depth;
+
+    private DataNode source;
+    private DataNode modified;
+    private DataNode rebuilt;
+    private DataPatch patch;
+
+    @Setup
+    public void setUp() {
+        source = TreeFixtures.tree(depth, 16);
+        modified = source.clone();
+        modified.put("child0.int0", -1);
+        modified.addToList("child1.list", false, 16);
+        rebuilt = TreeFixtures.tree(depth, 16);
+        patch = DataPatch.diff(source, modified);
+    }
+
+    @Benchmark
+    public DataPatch diffClone() {
+        return DataPatch.diff(source, modified);
+    }
+
+    @Benchmark
+    public DataPatch diffRebuilt() {
+        return DataPatch.diff(source, rebuilt);
+    }
+
+    @Benchmark
+    public DataNode apply() {
+        DataNode target = source.clone();
+        patch.apply(target);
+
+        return target;
+    }
+
+    @Benchmark
+    public DataNode consume() {
+        DataNode target = source.clone();
+        target.consume(modified);
+
+        return target;
+    }
+}
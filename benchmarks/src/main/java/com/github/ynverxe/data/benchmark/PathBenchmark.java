@@ -0,0 +1,84 @@
+package com.github.ynverxe.data.benchmark;
+
+import com.github.ynverxe.data.DataNode;
+import com.github.ynverxe.data.DataPath;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code put}, {@code get} and {@code has} on dotted paths of
+ * increasing depth, both with plain strings and compiled paths.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathBenchmark {
+
+    @Param({"1", "4", "8", "16"})
+    public int depth;
+
+    private DataNode dataNode;
+    private String path;
+    private DataPath compiledPath;
+    private String missingPath;
+    private int counter;
+
+    @Setup
+    public void setUp() {
+        path = TreeFixtures.deepPath(depth);
+        compiledPath = DataPath.of(path);
+        missingPath = path + "-missing";
+
+        dataNode = new DataNode();
+        dataNode.put(path, 0);
+    }
+
+    @Benchmark
+    public boolean put() {
+        return dataNode.put(path, counter++);
+    }
+
+    @Benchmark
+    public boolean putCompiled() {
+        return dataNode.put(compiledPath, counter++);
+    }
+
+    @Benchmark
+    public boolean putIntCompiled() {
+        return dataNode.putInt(compiledPath, counter++);
+    }
+
+    @Benchmark
+    public Object get() {
+        return dataNode.get(path);
+    }
+
+    @Benchmark
+    public Object getCompiled() {
+        return dataNode.get(compiledPath);
+    }
+
+    @Benchmark
+    public int getIntValueCompiled() {
+        return dataNode.getIntValue(compiledPath, 0);
+    }
+
+    @Benchmark
+    public boolean has() {
+        return dataNode.has(path);
+    }
+
+    @Benchmark
+    public boolean hasCompiled() {
+        return dataNode.has(compiledPath);
+    }
+
+    @Benchmark
+    public boolean hasMissing() {
+        return dataNode.has(missingPath);
+    }
+}
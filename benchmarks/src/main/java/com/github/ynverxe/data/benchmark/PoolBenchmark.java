@@ -0,0 +1,67 @@
+package com.github.ynverxe.data.benchmark;
+
+import com.github.ynverxe.data.DataNode;
+import com.github.ynverxe.data.DataNodePool;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building and discarding short-lived nodes, allocating them
+ * or taking them from a pool, and emptying a node with {@code clear()}
+ * compared to {@code reset()}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PoolBenchmark {
+
+    private static final String[] KEYS = {"id", "name", "level", "balance", "online", "world"};
+
+    private final DataNodePool pool = new DataNodePool(16);
+    private final DataNode reused = new DataNode();
+
+    @Benchmark
+    public int allocate() {
+        DataNode dataNode = new DataNode();
+        fill(dataNode);
+
+        return dataNode.getEntryCount();
+    }
+
+    @Benchmark
+    public int pooled() {
+        DataNode dataNode = pool.acquire();
+        fill(dataNode);
+
+        int entries = dataNode.getEntryCount();
+        pool.release(dataNode);
+
+        return entries;
+    }
+
+    @Benchmark
+    public Map<String, Object> clear() {
+        fill(reused);
+
+        return reused.clear();
+    }
+
+    @Benchmark
+    public int reset() {
+        fill(reused);
+        reused.reset();
+
+        return reused.getEntryCount();
+    }
+
+    private static void fill(DataNode dataNode) {
+        for (int i = 0; i < KEYS.length; i++) {
+            dataNode.putInt(KEYS[i], i);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.ynverxe.data.benchmark;
+
+import com.github.ynverxe.data.DataNode;
+import com.github.ynverxe.data.DataQuery;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a filtered wildcard query over {@code guilds} guilds of 100
+ * members, evaluated sequentially and in parallel.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBenchmark {
+
+    private static final DataQuery QUERY = DataQuery.compile("guilds.*.members.*[rank >= 5].rank");
+
+    @Param({"10", "1000"})
+    public int guilds;
+
+    private DataNode dataNode;
+
+    @Setup
+    public void setUp() {
+        dataNode = new DataNode();
+
+        for (int i = 0; i < guilds; i++) {
+            for (int j = 0; j < 100; j++) {
+                dataNode.putInt("guilds.guild" + i + ".members.member" + j + ".rank", j % 10);
+            }
+        }
+    }
+
+    @Benchmark
+    public long query() {
+        return QUERY.stream(dataNode).count();
+    }
+
+    @Benchmark
+    public long parallelQuery() {
+        return QUERY.parallelStream(dataNode).count();
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.ynverxe.data.benchmark;
+
+import com.github.ynverxe.data.DataMetrics;
+import com.github.ynverxe.data.DataNode;
+import com.github.ynverxe.data.NodeQuota;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the writes on a nested node while its ancestors keep their
+ * footprint up to date, with and without quotas on the way, and the
+ * walk that finds the hot spots of a tree.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuotaBenchmark {
+
+    @Param({"false", "true"})
+    public boolean quotas;
+
+    private DataNode tree;
+    private DataNode leaf;
+    private int counter;
+
+    @Setup
+    public void setUp() {
+        tree = TreeFixtures.tree(4, 8);
+        leaf = tree.getNode("child0.child0.child0");
+
+        if (quotas) {
+            tree.setQuota(NodeQuota.unlimited().withMaxBytes(Long.MAX_VALUE - 1).withMaxDepth(16));
+            tree.getNode("child0").setQuota(NodeQuota.unlimited().withMaxEntries(Integer.MAX_VALUE - 1));
+        }
+    }
+
+    @Benchmark
+    public boolean putString() {
+        return leaf.put("string", (counter++ & 1) == 0 ? "value" : "other value");
+    }
+
+    @Benchmark
+    public boolean putNode() {
+        return leaf.put("node.value", counter++);
+    }
+
+    @Benchmark
+    public List<DataMetrics.HotSpot> hotSpots() {
+        return DataMetrics.getHotSpots(tree, 10);
+    }
+}
@@ -0,0 +1,111 @@
+package com.github.ynverxe.data.benchmark;
+
+import com.github.ynverxe.data.DataNode;
+import com.github.ynverxe.data.DataSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the operations that walk a whole tree: {@code clone()},
+ * {@code snapshot()}, {@code simplify()}, {@code fromMap}, {@code consume} and bulk puts of
+ * dotted paths, and the parallel variants on the common pool.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeBenchmark {
+
+    @Param({"2", "4"})
+    public int depth;
+
+    @Param({"8", "64"})
+    public int width;
+
+    private DataNode tree;
+    private Map<String, Object> map;
+    private Map<String, Object> paths;
+    private int counter;
+
+    @Setup
+    public void setUp() {
+        tree = TreeFixtures.tree(depth, width);
+        map = TreeFixtures.map(depth, width);
+        paths = TreeFixtures.paths(depth, width);
+    }
+
+    @Benchmark
+    public DataNode cloneTree() {
+        return tree.clone();
+    }
+
+    /**
+     * Takes a snapshot and writes a leaf, the write copies the modified path.
+     */
+    @Benchmark
+    public DataSnapshot snapshotAndWrite() {
+        DataSnapshot snapshot = tree.snapshot();
+        tree.putInt("child0.int0", counter++);
+
+        return snapshot;
+    }
+
+    @Benchmark
+    public Map<String, Object> simplify() {
+        return tree.simplify();
+    }
+
+    @Benchmark
+    public DataNode deepClone() {
+        return tree.deepClone();
+    }
+
+    @Benchmark
+    public DataNode parallelDeepClone() {
+        return tree.deepClone(ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public Map<String, Object> parallelSimplify() {
+        return tree.simplify(ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public DataNode fromMap() {
+        return DataNode.fromMap(map);
+    }
+
+    @Benchmark
+    public DataNode parallelFromMap() {
+        return DataNode.fromMap(map, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public DataNode consume() {
+        DataNode dataNode = new DataNode();
+        dataNode.consume(tree);
+
+        return dataNode;
+    }
+
+    @Benchmark
+    public DataNode putEach() {
+        DataNode dataNode = new DataNode();
+        paths.forEach(dataNode::put);
+
+        return dataNode;
+    }
+
+    @Benchmark
+    public DataNode putAll() {
+        DataNode dataNode = new DataNode();
+        dataNode.putAll(paths);
+
+        return dataNode;
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.ynverxe.data.benchmark;
+
+import com.github.ynverxe.data.DataNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the trees shared by the benchmarks.
+ */
+final class TreeFixtures {
+
+    private TreeFixtures() {
+    }
+
+    /**
+     * @param depth - The amount of segments of the path
+     * @return a dotted path like "node0.node1.value".
+     */
+    static String deepPath(int depth) {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < depth - 1; i++) {
+            builder.append("node").append(i).append('.');
+        }
+
+        return builder.append("value").toString();
+    }
+
+    /**
+     * Creates a tree where every node has {@code width} leaves and
+     * {@code min(width, 4)} child nodes, until {@code depth} is reached.
+     *
+     * @param depth - The tree depth
+     * @param width - The amount of leaves per node
+     * @return the created tree.
+     */
+    static DataNode tree(int depth, int width) {
+        return DataNode.fromMap(map(depth, width));
+    }
+
+    /**
+     * @param depth - The tree depth
+     * @param width - The amount of leaves per node
+     * @return the same tree as {@link #tree(int, int)}, as plain maps.
+     */
+    static Map<String, Object> map(int depth, int width) {
+        Map<String, Object> map = new HashMap<>();
+
+        for (int i = 0; i < width; i++) {
+            map.put("int" + i, i);
+            map.put("text" + i, "value" + i);
+        }
+
+        map.put("list", list(width));
+
+        if (depth > 1) {
+            int children = Math.min(width, 4);
+
+            for (int i = 0; i < children; i++) {
+                map.put("child" + i, map(depth - 1, width));
+            }
+        }
+
+        return map;
+    }
+
+    /**
+     * @param depth - The tree depth
+     * @param width - The amount of leaves per node
+     * @return the leaves of the same tree as {@link #tree(int, int)}, by dotted path.
+     */
+    static Map<String, Object> paths(int depth, int width) {
+        Map<String, Object> paths = new HashMap<>();
+        flatten("", map(depth, width), paths);
+
+        return paths;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void flatten(String prefix, Map<String, Object> map, Map<String, Object> paths) {
+        map.forEach((key, value) -> {
+            if (value instanceof Map) {
+                flatten(prefix + key + ".", (Map<String, Object>) value, paths);
+            } else {
+                paths.put(prefix + key, value);
+            }
+        });
+    }
+
+    static List<Object> list(int size) {
+        List<Object> list = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+
+        return list;
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.ynverxe.data.benchmark;
+
+import com.github.ynverxe.data.DataNode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the validation and normalization walk that every
+ * {@code put} of a composite value runs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    @Param({"2", "4"})
+    public int depth;
+
+    @Param({"8", "64"})
+    public int width;
+
+    private DataNode dataNode;
+    private Map<String, Object> map;
+    private List<Object> nestedList;
+    private DataNode node;
+
+    @Setup
+    public void setUp() {
+        dataNode = new DataNode();
+        map = TreeFixtures.map(depth, width);
+        node = TreeFixtures.tree(depth, width);
+        nestedList = nestedList(depth, width);
+    }
+
+    @Benchmark
+    public boolean putMap() {
+        return dataNode.put("value", map);
+    }
+
+    @Benchmark
+    public boolean putNode() {
+        return dataNode.put("value", node);
+    }
+
+    @Benchmark
+    public boolean putNestedList() {
+        return dataNode.put("value", nestedList);
+    }
+
+    private static List<Object> nestedList(int depth, int width) {
+        List<Object> list = TreeFixtures.list(width);
+
+        if (depth > 1) {
+            List<Object> withChild = new ArrayList<>(list);
+            withChild.add(nestedList(depth - 1, width));
+
+            return withChild;
+        }
+
+        return list;
+    }
+}
@@ -0,0 +1,808 @@
+package com.github.ynverxe.data;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A compact binary format for nodes.
+ *
+ * Nodes are written straight from their entries and read straight into
+ * new nodes, without building intermediate maps. Numbers are stored as
+ * varints and, optionally, every key is written once in a dictionary
+ * and referenced by index afterwards.
+ */
+@SuppressWarnings("rawtypes")
+public final class BinaryCodec {
+
+    static final byte TAG_NULL = 0;
+    static final byte TAG_FALSE = 1;
+    static final byte TAG_TRUE = 2;
+    static final byte TAG_BYTE = 3;
+    static final byte TAG_SHORT = 4;
+    static final byte TAG_CHAR = 5;
+    static final byte TAG_INT = 6;
+    static final byte TAG_LONG = 7;
+    static final byte TAG_FLOAT = 8;
+    static final byte TAG_DOUBLE = 9;
+    static final byte TAG_STRING = 10;
+    static final byte TAG_NODE = 11;
+    static final byte TAG_LIST = 12;
+
+    /**
+     * The default max amount of nested nodes and lists.
+     */
+    public static final int DEFAULT_MAX_DEPTH = 512;
+
+    private static final byte MAGIC_0 = 'D';
+    private static final byte MAGIC_1 = 'N';
+    private static final byte VERSION = 1;
+    private static final int FLAG_KEY_DICTIONARY = 1;
+
+    private final boolean keyDictionary;
+    private final int maxDepth;
+
+    /**
+     * Creates a codec that writes keys inline and reads up to
+     * {@link #DEFAULT_MAX_DEPTH} nested nodes and lists.
+     */
+    public BinaryCodec() {
+        this(false);
+    }
+
+    /**
+     * Creates a codec that reads up to {@link #DEFAULT_MAX_DEPTH} nested nodes and lists.
+     *
+     * @param keyDictionary - Define if the keys are written once in a dictionary,
+     *                      recommended when many nodes share the same keys.
+     */
+    public BinaryCodec(boolean keyDictionary) {
+        this(keyDictionary, DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * @param keyDictionary - Define if the keys are written once in a dictionary,
+     *                      recommended when many nodes share the same keys.
+     * @param maxDepth - The max amount of nested nodes and lists of the read data
+     * @throws IllegalArgumentException - If the depth is lower than 1
+     */
+    public BinaryCodec(boolean keyDictionary, int maxDepth) throws IllegalArgumentException {
+        if (maxDepth < 1) throw new IllegalArgumentException("max depth lower than 1: " + maxDepth);
+
+        this.keyDictionary = keyDictionary;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Writes a node into a stream.
+     *
+     * @param dataNode - The node to write
+     * @param outputStream - The target stream, it will not be closed
+     * @throws IOException - If the stream fails
+     * @throws IllegalArgumentException - If the node holds a non-serializable value
+     */
+    public void write(@NotNull DataNode dataNode, @NotNull OutputStream outputStream) throws IOException {
+        StreamOutput output = new StreamOutput(outputStream);
+        encode(dataNode, output);
+        output.flush();
+    }
+
+    /**
+     * Writes a node into a buffer, starting at its current position.
+     *
+     * @param dataNode - The node to write
+     * @param buffer - The target buffer
+     * @throws BufferOverflowException - If the buffer has not enough space
+     * @throws IllegalArgumentException - If the node holds a non-serializable value
+     */
+    public void write(@NotNull DataNode dataNode, @NotNull ByteBuffer buffer) throws BufferOverflowException {
+        try {
+            encode(dataNode, new BufferOutput(buffer));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param dataNode - The node to write
+     * @return the encoded node.
+     */
+    public byte @NotNull [] toByteArray(@NotNull DataNode dataNode) {
+        ArrayOutput output = new ArrayOutput();
+
+        try {
+            encode(dataNode, output);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        return output.toByteArray();
+    }
+
+    /**
+     * Reads a node from a stream.
+     *
+     * Both dictionary and inline keys are accepted, regardless of how
+     * this codec writes.
+     *
+     * The stream is read ahead in blocks. If it supports
+     * {@link InputStream#mark(int)}, like a {@link java.io.BufferedInputStream},
+     * the bytes read past the node are given back, so more values can be
+     * read from the stream afterwards. Otherwise, the bytes that follow the
+     * node may be consumed.
+     *
+     * @param inputStream - The source stream, it will not be closed
+     * @throws IOException - If the stream fails or the data is malformed
+     * @return The read node.
+     */
+    public @NotNull DataNode read(@NotNull InputStream inputStream) throws IOException {
+        StreamInput input = new StreamInput(inputStream);
+        DataNode dataNode = decode(input);
+        input.giveBack();
+
+        return dataNode;
+    }
+
+    /**
+     * Reads a node from a buffer, starting at its current position.
+     *
+     * @param buffer - The source buffer
+     * @throws IllegalArgumentException - If the data is malformed
+     * @return The read node.
+     */
+    public @NotNull DataNode read(@NotNull ByteBuffer buffer) throws IllegalArgumentException {
+        try {
+            return decode(new BufferInput(buffer));
+        } catch (IOException | BufferUnderflowException e) {
+            throw new IllegalArgumentException("Malformed data", e);
+        }
+    }
+
+    /**
+     * @param bytes - The encoded node
+     * @throws IllegalArgumentException - If the data is malformed
+     * @return The read node.
+     */
+    public @NotNull DataNode read(byte @NotNull [] bytes) throws IllegalArgumentException {
+        return read(ByteBuffer.wrap(bytes));
+    }
+
+    private void encode(DataNode dataNode, Output output) throws IOException {
+        output.writeByte(MAGIC_0);
+        output.writeByte(MAGIC_1);
+        output.writeByte(VERSION);
+
+        if (keyDictionary) {
+            Map<String, Integer> dictionary = new LinkedHashMap<>();
+            collectKeys(dataNode, dictionary);
+
+            output.writeByte(FLAG_KEY_DICTIONARY);
+            output.writeVarInt(dictionary.size());
+
+            for (String key : dictionary.keySet()) {
+                output.writeString(key);
+            }
+
+            new Encoder(output, dictionary).writeNode(dataNode);
+        } else {
+            output.writeByte(0);
+            new Encoder(output, null).writeNode(dataNode);
+        }
+    }
+
+    private DataNode decode(Input input) throws IOException {
+        if (input.readByte() != MAGIC_0 || input.readByte() != MAGIC_1)
+            throw new IOException("Not an encoded node");
+
+        byte version = input.readByte();
+
+        if (version != VERSION)
+            throw new IOException("Unsupported version: " + version);
+
+        String[] dictionary = null;
+
+        if ((input.readByte() & FLAG_KEY_DICTIONARY) != 0) {
+            int size = input.readLength();
+            List<String> keys = new ArrayList<>(Math.min(size, 1024));
+
+            for (int i = 0; i < size; i++) {
+                keys.add(input.readString());
+            }
+
+            dictionary = keys.toArray(new String[0]);
+        }
+
+        return new Decoder(input, dictionary, maxDepth).readNode();
+    }
+
+    private static void collectKeys(Object value, Map<String, Integer> dictionary) {
+        if (value instanceof DataNode) {
+            for (Map.Entry<String, Object> entry : ((DataNode) value).entries().entrySet()) {
+                dictionary.putIfAbsent(entry.getKey(), dictionary.size());
+                collectKeys(DataNode.unwrap(entry.getValue()), dictionary);
+            }
+        } else if (value instanceof Collection) {
+            for (Object o : (Collection) value) {
+                collectKeys(o, dictionary);
+            }
+        }
+    }
+
+    private static final class Encoder {
+        private final Output output;
+        private final Map<String, Integer> dictionary;
+
+        private Encoder(Output output, Map<String, Integer> dictionary) {
+            this.output = output;
+            this.dictionary = dictionary;
+        }
+
+        private void writeNode(DataNode dataNode) throws IOException {
+            Map<String, Object> entries = dataNode.entries();
+            output.writeVarInt(entries.size());
+
+            for (Map.Entry<String, Object> entry : entries.entrySet()) {
+                if (dictionary != null) {
+                    output.writeVarInt(dictionary.get(entry.getKey()));
+                } else {
+                    output.writeString(entry.getKey());
+                }
+
+                writeValue(DataNode.unwrap(entry.getValue()));
+            }
+        }
+
+        private void writeValue(Object value) throws IOException {
+            if (value instanceof DataNode) {
+                output.writeByte(TAG_NODE);
+                writeNode((DataNode) value);
+            } else if (value instanceof ValueList && ((ValueList) value).kind() != ValueList.OBJECT) {
+                writeUnboxed((ValueList) value);
+            } else if (value instanceof Collection) {
+                Collection collection = (Collection) value;
+
+                output.writeByte(TAG_LIST);
+                output.writeVarInt(collection.size());
+
+                for (Object o : collection) {
+                    writeValue(o);
+                }
+            } else {
+                writeScalar(value, output);
+            }
+        }
+
+        private void writeUnboxed(ValueList list) throws IOException {
+            output.writeByte(TAG_LIST);
+            output.writeVarInt(list.size());
+
+            for (int i = 0; i < list.size(); i++) {
+                switch (list.kind()) {
+                    case ValueList.INT:
+                        output.writeByte(TAG_INT);
+                        output.writeVarLong(zigZag(list.getInt(i)));
+                        break;
+                    case ValueList.LONG:
+                        output.writeByte(TAG_LONG);
+                        output.writeVarLong(zigZag(list.getLong(i)));
+                        break;
+                    default:
+                        output.writeByte(TAG_DOUBLE);
+                        output.writeFixedLong(Double.doubleToRawLongBits(list.getDouble(i)));
+                }
+            }
+        }
+    }
+
+    private static final class Decoder {
+        private final Input input;
+        private final String[] dictionary;
+        private final int maxDepth;
+        private int depth;
+
+        private Decoder(Input input, String[] dictionary, int maxDepth) {
+            this.input = input;
+            this.dictionary = dictionary;
+            this.maxDepth = maxDepth;
+        }
+
+        private DataNode readNode() throws IOException {
+            enter();
+
+            DataNode dataNode = new DataNode();
+            int size = input.readLength();
+
+            for (int i = 0; i < size; i++) {
+                String key = readKey();
+                dataNode.putTrusted(key, readValue());
+            }
+
+            depth--;
+
+            return dataNode;
+        }
+
+        private String readKey() throws IOException {
+            String key;
+
+            if (dictionary == null) {
+                key = input.readString();
+            } else {
+                int index = input.readVarInt();
+
+                if (index >= dictionary.length)
+                    throw new IOException("Unknown key index: " + index);
+
+                key = dictionary[index];
+            }
+
+            // the keys are stored as they are, so they must be single path segments
+            if (key.isEmpty() || key.indexOf('.') != -1)
+                throw new IOException("Invalid key \"" + key + "\"");
+
+            return key;
+        }
+
+        private Object readValue() throws IOException {
+            byte tag = input.readByte();
+
+            switch (tag) {
+                case TAG_NODE:
+                    return readNode();
+                case TAG_LIST:
+                    enter();
+
+                    int size = input.readLength();
+                    List<Object> list = new ArrayList<>(Math.min(size, 1024));
+
+                    for (int i = 0; i < size; i++) {
+                        list.add(readValue());
+                    }
+
+                    depth--;
+
+                    return ValueList.of(list);
+                default:
+                    return readScalar(tag, input);
+            }
+        }
+
+        private void enter() throws IOException {
+            if (++depth > maxDepth)
+                throw new IOException("Nesting deeper than " + maxDepth);
+        }
+    }
+
+    /**
+     * Writes any value with its tag, nested nodes are written with inline keys.
+     *
+     * @throws IllegalArgumentException - If the value is not serializable
+     */
+    static void writeValue(Object value, Output output) throws IOException {
+        new Encoder(output, null).writeValue(value);
+    }
+
+    /**
+     * Reads a value written by {@link #writeValue(Object, Output)}.
+     */
+    static Object readValue(Input input) throws IOException {
+        return new Decoder(input, null, DEFAULT_MAX_DEPTH).readValue();
+    }
+
+    /**
+     * Writes a value that is neither a node nor a collection, with its tag.
+     *
+     * @throws IllegalArgumentException - If the value is not serializable
+     */
+    static void writeScalar(Object value, Output output) throws IOException {
+        if (value == null) {
+            output.writeByte(TAG_NULL);
+        } else if (value instanceof String) {
+            output.writeByte(TAG_STRING);
+            output.writeString((String) value);
+        } else if (value instanceof Integer) {
+            output.writeByte(TAG_INT);
+            output.writeVarLong(zigZag((Integer) value));
+        } else if (value instanceof Long) {
+            output.writeByte(TAG_LONG);
+            output.writeVarLong(zigZag((Long) value));
+        } else if (value instanceof Double) {
+            output.writeByte(TAG_DOUBLE);
+            output.writeFixedLong(Double.doubleToRawLongBits((Double) value));
+        } else if (value instanceof Float) {
+            output.writeByte(TAG_FLOAT);
+            output.writeFixedInt(Float.floatToRawIntBits((Float) value));
+        } else if (value instanceof Boolean) {
+            output.writeByte((Boolean) value ? TAG_TRUE : TAG_FALSE);
+        } else if (value instanceof Byte) {
+            output.writeByte(TAG_BYTE);
+            output.writeByte((Byte) value);
+        } else if (value instanceof Short) {
+            output.writeByte(TAG_SHORT);
+            output.writeVarLong(zigZag((Short) value));
+        } else if (value instanceof Character) {
+            output.writeByte(TAG_CHAR);
+            output.writeVarInt((Character) value);
+        } else {
+            throw new IllegalArgumentException(value + " is not apt for serialization");
+        }
+    }
+
+    /**
+     * Reads a value that is neither a node nor a list, after its tag.
+     */
+    static Object readScalar(byte tag, Input input) throws IOException {
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_FALSE:
+                return false;
+            case TAG_TRUE:
+                return true;
+            case TAG_BYTE:
+                return input.readByte();
+            case TAG_SHORT:
+                return (short) unZigZag(input.readVarLong());
+            case TAG_CHAR:
+                return (char) input.readVarInt();
+            case TAG_INT:
+                return (int) unZigZag(input.readVarLong());
+            case TAG_LONG:
+                return unZigZag(input.readVarLong());
+            case TAG_FLOAT:
+                return Float.intBitsToFloat(input.readFixedInt());
+            case TAG_DOUBLE:
+                return Double.longBitsToDouble(input.readFixedLong());
+            case TAG_STRING:
+                return input.readString();
+            default:
+                throw new IOException("Unknown value tag: " + tag);
+        }
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    abstract static class Output {
+
+        abstract void writeByte(int b) throws IOException;
+
+        abstract void write(byte[] bytes, int offset, int length) throws IOException;
+
+        final void writeVarInt(int value) throws IOException {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        final void writeVarLong(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+
+            writeByte((int) value);
+        }
+
+        final void writeFixedInt(int value) throws IOException {
+            writeByte(value >>> 24);
+            writeByte(value >>> 16);
+            writeByte(value >>> 8);
+            writeByte(value);
+        }
+
+        final void writeFixedLong(long value) throws IOException {
+            writeFixedInt((int) (value >>> 32));
+            writeFixedInt((int) value);
+        }
+
+        final void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+            writeVarInt(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+    }
+
+    abstract static class Input {
+
+        /**
+         * The strings are read in blocks of this size at most, so a length
+         * read from malformed data never allocates more than the data read.
+         */
+        private static final int BLOCK_SIZE = 8192;
+
+        abstract byte readByte() throws IOException;
+
+        abstract void readFully(byte[] bytes, int offset, int length) throws IOException;
+
+        /**
+         * @return the amount of bytes left, or {@link Integer#MAX_VALUE} if it is unknown.
+         */
+        int remaining() {
+            return Integer.MAX_VALUE;
+        }
+
+        final int readVarInt() throws IOException {
+            long value = readVarLong();
+
+            if (value < 0 || value > Integer.MAX_VALUE)
+                throw new IOException("Malformed varint");
+
+            return (int) value;
+        }
+
+        /**
+         * Reads the length of a string or the amount of items of a node or
+         * a list, every item takes a byte at least.
+         */
+        final int readLength() throws IOException {
+            int length = readVarInt();
+
+            if (length > remaining())
+                throw new IOException("Length exceeds the remaining data: " + length);
+
+            return length;
+        }
+
+        final long readVarLong() throws IOException {
+            long value = 0;
+
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+
+                if ((b & 0x80) == 0) return value;
+            }
+
+            throw new IOException("Malformed varint");
+        }
+
+        final int readFixedInt() throws IOException {
+            return (readByte() & 0xFF) << 24
+                    | (readByte() & 0xFF) << 16
+                    | (readByte() & 0xFF) << 8
+                    | (readByte() & 0xFF);
+        }
+
+        final long readFixedLong() throws IOException {
+            return ((long) readFixedInt() << 32) | (readFixedInt() & 0xFFFFFFFFL);
+        }
+
+        String readString() throws IOException {
+            int length = readLength();
+            byte[] bytes = new byte[Math.min(length, BLOCK_SIZE)];
+            readFully(bytes, 0, bytes.length);
+
+            while (bytes.length < length) {
+                int offset = bytes.length;
+
+                bytes = Arrays.copyOf(bytes, (int) Math.min(length, offset * 2L));
+                readFully(bytes, offset, bytes.length - offset);
+            }
+
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    static final class StreamOutput extends Output {
+        private final OutputStream outputStream;
+        private final byte[] buffer = new byte[8192];
+        private int position;
+
+        StreamOutput(OutputStream outputStream) {
+            this.outputStream = outputStream;
+        }
+
+        @Override
+        void writeByte(int b) throws IOException {
+            if (position == buffer.length) flush();
+
+            buffer[position++] = (byte) b;
+        }
+
+        @Override
+        void write(byte[] bytes, int offset, int length) throws IOException {
+            if (length > buffer.length - position) {
+                flush();
+
+                if (length > buffer.length) {
+                    outputStream.write(bytes, offset, length);
+                    return;
+                }
+            }
+
+            System.arraycopy(bytes, offset, buffer, position, length);
+            position += length;
+        }
+
+        void flush() throws IOException {
+            outputStream.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    static final class BufferOutput extends Output {
+        private final ByteBuffer buffer;
+
+        BufferOutput(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        void writeByte(int b) {
+            buffer.put((byte) b);
+        }
+
+        @Override
+        void write(byte[] bytes, int offset, int length) {
+            buffer.put(bytes, offset, length);
+        }
+    }
+
+    static final class ArrayOutput extends Output {
+        private byte[] bytes = new byte[256];
+        private int position;
+
+        @Override
+        void writeByte(int b) {
+            if (position == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length << 1);
+            }
+
+            bytes[position++] = (byte) b;
+        }
+
+        @Override
+        void write(byte[] source, int offset, int length) {
+            if (position + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length << 1, position + length));
+            }
+
+            System.arraycopy(source, offset, bytes, position, length);
+            position += length;
+        }
+
+        int size() {
+            return position;
+        }
+
+        /**
+         * @return the backing array, only the first {@link #size()} bytes are written.
+         */
+        byte[] array() {
+            return bytes;
+        }
+
+        void reset() {
+            position = 0;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, position);
+        }
+    }
+
+    static final class StreamInput extends Input {
+        private final InputStream inputStream;
+        private final byte[] buffer = new byte[8192];
+        private int position;
+        private int limit;
+
+        StreamInput(InputStream inputStream) {
+            this.inputStream = inputStream;
+        }
+
+        @Override
+        byte readByte() throws IOException {
+            if (position == limit) fill();
+
+            return buffer[position++];
+        }
+
+        @Override
+        void readFully(byte[] bytes, int offset, int length) throws IOException {
+            int end = offset + length;
+
+            while (offset < end) {
+                if (position == limit) fill();
+
+                int read = Math.min(limit - position, end - offset);
+                System.arraycopy(buffer, position, bytes, offset, read);
+
+                position += read;
+                offset += read;
+            }
+        }
+
+        private void fill() throws IOException {
+            if (inputStream.markSupported()) {
+                inputStream.mark(buffer.length);
+            }
+
+            int read = inputStream.read(buffer);
+
+            if (read <= 0)
+                throw new EOFException();
+
+            position = 0;
+            limit = read;
+        }
+
+        /**
+         * Gives back the bytes that were read ahead but not used, if the
+         * stream supports it.
+         */
+        void giveBack() throws IOException {
+            if (position == limit || !inputStream.markSupported()) return;
+
+            inputStream.reset();
+
+            for (long skipped = 0; skipped < position; ) {
+                long count = inputStream.skip(position - skipped);
+
+                if (count <= 0) {
+                    if (inputStream.read() == -1) throw new EOFException();
+
+                    count = 1;
+                }
+
+                skipped += count;
+            }
+
+            position = limit = 0;
+        }
+    }
+
+    static final class BufferInput extends Input {
+        private final ByteBuffer buffer;
+
+        BufferInput(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        byte readByte() {
+            return buffer.get();
+        }
+
+        @Override
+        void readFully(byte[] bytes, int offset, int length) {
+            buffer.get(bytes, offset, length);
+        }
+
+        @Override
+        int remaining() {
+            return buffer.remaining();
+        }
+
+        @Override
+        String readString() throws IOException {
+            int length = readLength();
+
+            if (buffer.hasArray()) {
+                int position = buffer.position();
+                String value = new String(buffer.array(), buffer.arrayOffset() + position, length, StandardCharsets.UTF_8);
+                buffer.position(position + length);
+
+                return value;
+            }
+
+            byte[] bytes = new byte[length];
+            readFully(bytes, 0, length);
+
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package com.github.ynverxe.data;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+
+/**
+ * Delivers the changes made on a node and its nested nodes to the
+ * listeners subscribed to a path.
+ *
+ * A listener subscribed to {@code "player.stats"} receives the changes
+ * made on that path, under it, and on its ancestors, since replacing
+ * {@code "player"} also replaces its stats. A {@code "*"} segment matches
+ * any single key, so {@code "players.*.health"} matches the health of
+ * every player. Subscriptions are indexed in a trie of path segments,
+ * so dispatching a change only visits the subscriptions that match it,
+ * and the changes that no subscription matches are not even queued.
+ *
+ * Changes are queued and coalesced by path, every listener receives the
+ * changes that match it once per batch. Without an executor, a batch is
+ * delivered on the writing thread after every write, or at the end of
+ * {@link #batch(Runnable)}. With an executor, the batch is delivered by
+ * the executor, collecting every change made until it runs.
+ *
+ * The values of a change are copies, modifying them doesn't modify the
+ * observed node.
+ */
+public final class ChangeDispatcher {
+
+    private static final String WILDCARD = "*";
+
+    private final DataNode dataNode;
+    private final @Nullable Executor executor;
+    private final Trie root = new Trie(null, null);
+    private final NodeObserver observer = this::record;
+
+    private Map<String, Change> pending = new LinkedHashMap<>();
+    private boolean scheduled;
+    private int batchDepth;
+
+    private ChangeDispatcher(DataNode dataNode, Executor executor) {
+        this.dataNode = dataNode;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts dispatching the changes of a node on the writing thread.
+     *
+     * @param dataNode - The node to observe
+     * @return The dispatcher.
+     */
+    public static @NotNull ChangeDispatcher attach(@NotNull DataNode dataNode) {
+        return attach(dataNode, null);
+    }
+
+    /**
+     * Starts dispatching the changes of a node through an executor.
+     *
+     * @param dataNode - The node to observe
+     * @param executor - The executor that delivers the batches, or null to deliver them on the writing thread
+     * @return The dispatcher.
+     */
+    public static @NotNull ChangeDispatcher attach(@NotNull DataNode dataNode, @Nullable Executor executor) {
+        ChangeDispatcher dispatcher = new ChangeDispatcher(dataNode, executor);
+        dataNode.addObserver(dispatcher.observer);
+
+        return dispatcher;
+    }
+
+    /**
+     * Stops observing the node, the queued changes are discarded.
+     */
+    public void detach() {
+        dataNode.removeObserver(observer);
+
+        synchronized (this) {
+            pending = new LinkedHashMap<>();
+        }
+    }
+
+    /**
+     * Subscribes a listener to a path.
+     *
+     * @param pattern - The dotted path, where a "*" segment matches any key
+     * @param listener - The listener
+     * @throws IllegalArgumentException - If the path is empty or malformed
+     * @return The subscription, used to unsubscribe the listener.
+     */
+    public @NotNull Subscription subscribe(@NotNull String pattern, @NotNull ChangeListener listener)
+            throws IllegalArgumentException {
+        DataPath path = DataPath.of(pattern);
+
+        synchronized (this) {
+            Trie trie = root;
+
+            for (int i = 0; i < path.length(); i++) {
+                trie = trie.child(path.segment(i));
+            }
+
+            Subscription subscription = new Subscription(trie, listener);
+            trie.subscriptions.add(subscription);
+
+            return subscription;
+        }
+    }
+
+    /**
+     * Runs an action delivering the changes it makes as a single batch
+     * when it ends. Nested batches are delivered with the outermost one.
+     *
+     * @param action - The action that modifies the node
+     */
+    public void batch(@NotNull Runnable action) {
+        synchronized (this) {
+            batchDepth++;
+        }
+
+        try {
+            action.run();
+        } finally {
+            boolean deliver;
+
+            synchronized (this) {
+                deliver = --batchDepth == 0 && !pending.isEmpty();
+            }
+
+            if (deliver) schedule();
+        }
+    }
+
+    /**
+     * Delivers the queued changes right now, on the calling thread.
+     */
+    public void flush() {
+        Map<String, Change> changes;
+
+        synchronized (this) {
+            changes = pending;
+            pending = new LinkedHashMap<>();
+            scheduled = false;
+        }
+
+        if (changes.isEmpty()) return;
+
+        Map<Subscription, List<Change>> batches = new LinkedHashMap<>();
+
+        synchronized (this) {
+            for (Change change : changes.values()) {
+                String[] segments = change.path.split("\\.");
+
+                collect(root, segments, 0, change, batches);
+            }
+        }
+
+        batches.forEach((subscription, batch) -> subscription.listener.changed(Collections.unmodifiableList(batch)));
+    }
+
+    private void record(String path, Object previous, Object value, boolean removal) {
+        boolean deliver;
+
+        synchronized (this) {
+            // the values of the unmatched changes are not copied
+            if (!matches(root, path.split("\\."), 0)) return;
+
+            Change change = pending.get(path);
+
+            if (change != null) {
+                // the batch reports the value before its first change
+                previous = change.previous;
+            } else {
+                previous = copy(previous);
+            }
+
+            pending.put(path, new Change(path, previous, copy(value), removal));
+
+            deliver = batchDepth == 0 && !scheduled;
+        }
+
+        if (deliver) schedule();
+    }
+
+    /**
+     * Copies a changed value, so the listeners can't modify the node
+     * through it. The batches delivered by the executor are read on
+     * another thread, their values don't share anything with the node.
+     */
+    private Object copy(Object value) {
+        return executor == null ? DataNode.copyValue(value) : DataNode.detachValue(value);
+    }
+
+    private void schedule() {
+        if (executor == null) {
+            flush();
+            return;
+        }
+
+        synchronized (this) {
+            if (scheduled) return;
+
+            scheduled = true;
+        }
+
+        executor.execute(this::flush);
+    }
+
+    /**
+     * @return true if {@link #collect(Trie, String[], int, Change, Map)} would find a subscription.
+     */
+    private static boolean matches(Trie trie, String[] segments, int index) {
+        if (!trie.subscriptions.isEmpty()) return true;
+
+        // the branches are pruned, so every trie under it holds a subscription
+        if (index == segments.length) return !trie.children.isEmpty();
+
+        Trie child = trie.children.get(segments[index]);
+
+        if (child != null && matches(child, segments, index + 1)) return true;
+
+        if (!WILDCARD.equals(segments[index])) {
+            Trie wildcard = trie.children.get(WILDCARD);
+
+            return wildcard != null && matches(wildcard, segments, index + 1);
+        }
+
+        return false;
+    }
+
+    private static void collect(Trie trie, String[] segments, int index, Change change,
+                                Map<Subscription, List<Change>> batches) {
+        add(trie, change, batches);
+
+        if (index == segments.length) {
+            // the change replaced every subscribed path under it
+            for (Trie child : trie.children.values()) {
+                collectAll(child, change, batches);
+            }
+
+            return;
+        }
+
+        Trie child = trie.children.get(segments[index]);
+
+        if (child != null) {
+            collect(child, segments, index + 1, change, batches);
+        }
+
+        if (!WILDCARD.equals(segments[index])) {
+            Trie wildcard = trie.children.get(WILDCARD);
+
+            if (wildcard != null) {
+                collect(wildcard, segments, index + 1, change, batches);
+            }
+        }
+    }
+
+    private static void collectAll(Trie trie, Change change, Map<Subscription, List<Change>> batches) {
+        add(trie, change, batches);
+
+        for (Trie child : trie.children.values()) {
+            collectAll(child, change, batches);
+        }
+    }
+
+    private static void add(Trie trie, Change change, Map<Subscription, List<Change>> batches) {
+        for (Subscription subscription : trie.subscriptions) {
+            batches.computeIfAbsent(subscription, s -> new ArrayList<>()).add(change);
+        }
+    }
+
+    /**
+     * A subscribed listener.
+     */
+    public final class Subscription {
+        private final Trie trie;
+        private final ChangeListener listener;
+
+        private Subscription(Trie trie, ChangeListener listener) {
+            this.trie = trie;
+            this.listener = listener;
+        }
+
+        /**
+         * Unsubscribes the listener, it will not receive any other batch.
+         */
+        public void cancel() {
+            synchronized (ChangeDispatcher.this) {
+                if (!trie.subscriptions.remove(this)) return;
+
+                // prune the branches that no longer hold subscriptions
+                for (Trie current = trie; current.parent != null && current.isEmpty(); current = current.parent) {
+                    current.parent.children.remove(current.segment);
+                }
+            }
+        }
+    }
+
+    /**
+     * A change made on a path.
+     */
+    public static final class Change {
+        private final String path;
+        private final Object previous;
+        private final Object value;
+        private final boolean removal;
+
+        private Change(String path, Object previous, Object value, boolean removal) {
+            this.path = path;
+            this.previous = previous;
+            this.value = value;
+            this.removal = removal;
+        }
+
+        /**
+         * @return the changed path, relative to the observed node.
+         */
+        public @NotNull String getPath() {
+            return path;
+        }
+
+        /**
+         * @return the value held by the path before the batch.
+         */
+        public @Nullable Object getPrevious() {
+            return previous;
+        }
+
+        /**
+         * @return the value held by the path after the batch.
+         */
+        public @Nullable Object getValue() {
+            return value;
+        }
+
+        /**
+         * @return true if the value was removed rather than replaced.
+         */
+        public boolean isRemoval() {
+            return removal;
+        }
+
+        @Override
+        public String toString() {
+            return path + ": " + previous + " -> " + (removal ? "removed" : value);
+        }
+    }
+
+    private static final class Trie {
+        private final Trie parent;
+        private final String segment;
+        private final Map<String, Trie> children = new HashMap<>();
+        private final List<Subscription> subscriptions = new ArrayList<>();
+
+        private Trie(Trie parent, String segment) {
+            this.parent = parent;
+            this.segment = segment;
+        }
+
+        private Trie child(String segment) {
+            return children.computeIfAbsent(segment, s -> new Trie(this, s));
+        }
+
+        private boolean isEmpty() {
+            return children.isEmpty() && subscriptions.isEmpty();
+        }
+    }
+}
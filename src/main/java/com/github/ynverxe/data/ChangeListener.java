@@ -0,0 +1,19 @@
+package com.github.ynverxe.data;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Receives the changes made under a subscribed path.
+ *
+ * @see ChangeDispatcher#subscribe(String, ChangeListener)
+ */
+@FunctionalInterface
+public interface ChangeListener {
+
+    /**
+     * @param changes - The coalesced changes of the batch, in the order they were made
+     */
+    void changed(@NotNull List<ChangeDispatcher.Change> changes);
+}
@@ -0,0 +1,176 @@
+package com.github.ynverxe.data;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Records the paths of a node that were modified or removed since the
+ * last checkpoint, including the changes made on nested nodes, so only
+ * those paths need to be persisted.
+ *
+ * The delta is exported as a node with two lists: {@code "set"}, with a
+ * node holding the {@code "path"} and {@code "value"} of every modified
+ * path, and {@code "removed"}, with the removed paths. A modified path
+ * hides the changes made under it.
+ */
+public final class ChangeTracker {
+
+    public static final String SET_KEY = "set";
+    public static final String REMOVED_KEY = "removed";
+    public static final String PATH_KEY = "path";
+    public static final String VALUE_KEY = "value";
+
+    private final DataNode dataNode;
+    private final Map<String, Boolean> changes = new LinkedHashMap<>();
+    private final NodeObserver observer = (path, previous, value, removal) -> record(path, removal);
+
+    private ChangeTracker(DataNode dataNode) {
+        this.dataNode = dataNode;
+    }
+
+    /**
+     * Starts tracking the changes of a node.
+     *
+     * @param dataNode - The node to track
+     * @return The tracker, with no recorded changes.
+     */
+    public static @NotNull ChangeTracker track(@NotNull DataNode dataNode) {
+        ChangeTracker changeTracker = new ChangeTracker(dataNode);
+        dataNode.addObserver(changeTracker.observer);
+
+        return changeTracker;
+    }
+
+    /**
+     * Stops tracking the node.
+     */
+    public void stop() {
+        dataNode.removeObserver(observer);
+    }
+
+    /**
+     * @return true if there are changes since the last checkpoint.
+     */
+    public boolean hasChanges() {
+        return !changes.isEmpty();
+    }
+
+    /**
+     * @return the paths modified since the last checkpoint.
+     */
+    public @NotNull Set<String> modifiedPaths() {
+        return paths(false);
+    }
+
+    /**
+     * @return the paths removed since the last checkpoint.
+     */
+    public @NotNull Set<String> removedPaths() {
+        return paths(true);
+    }
+
+    /**
+     * Exports the changes made since the last checkpoint, the modified
+     * paths hold the current value of the node.
+     *
+     * @return The delta.
+     */
+    public @NotNull DataNode exportDelta() {
+        List<DataNode> set = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+
+        for (Map.Entry<String, Boolean> entry : changes.entrySet()) {
+            String path = entry.getKey();
+
+            if (hasChangedAncestor(path)) continue;
+
+            if (entry.getValue()) {
+                removed.add(path);
+            } else {
+                DataNode change = new DataNode();
+                change.putTrusted(PATH_KEY, path);
+                change.put(VALUE_KEY, dataNode.find(path));
+
+                set.add(change);
+            }
+        }
+
+        DataNode delta = new DataNode();
+        delta.put(SET_KEY, set);
+        delta.put(REMOVED_KEY, removed);
+
+        return delta;
+    }
+
+    /**
+     * Forgets the recorded changes.
+     */
+    public void checkpoint() {
+        changes.clear();
+    }
+
+    /**
+     * Exports the delta and forgets the recorded changes.
+     *
+     * @return The delta.
+     * @see #exportDelta()
+     */
+    public @NotNull DataNode exportDeltaAndCheckpoint() {
+        DataNode delta = exportDelta();
+        checkpoint();
+
+        return delta;
+    }
+
+    /**
+     * Applies a delta exported by a tracker.
+     *
+     * @param target - The node to modify
+     * @param delta - The delta
+     */
+    public static void applyDelta(@NotNull DataNode target, @NotNull DataNode delta) {
+        List<DataNode> set = delta.listOf(SET_KEY, DataNode.class);
+        List<String> removed = delta.listOf(REMOVED_KEY, String.class);
+
+        if (removed != null) {
+            for (String path : removed) {
+                target.put(path, null);
+            }
+        }
+
+        if (set != null) {
+            for (DataNode change : set) {
+                target.put(change.getString(PATH_KEY), change.get(VALUE_KEY));
+            }
+        }
+    }
+
+    private void record(String path, boolean removal) {
+        // re-insert, so the order follows the latest change
+        changes.remove(path);
+        changes.put(path, removal);
+    }
+
+    private boolean hasChangedAncestor(String path) {
+        int i = path.indexOf('.');
+
+        while (i != -1) {
+            if (changes.containsKey(path.substring(0, i))) return true;
+
+            i = path.indexOf('.', i + 1);
+        }
+
+        return false;
+    }
+
+    private Set<String> paths(boolean removed) {
+        Set<String> paths = new LinkedHashSet<>();
+
+        changes.forEach((path, removal) -> {
+            if (removal == removed) paths.add(path);
+        });
+
+        return Collections.unmodifiableSet(paths);
+    }
+}
@@ -0,0 +1,454 @@
+package com.github.ynverxe.data;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A thread-safe node.
+ *
+ * Reads never lock, writes only lock the entry they modify and
+ * intermediate nodes are created atomically, so concurrent writers never
+ * lose updates. Protected values are checked and replaced inside the
+ * same atomic operation.
+ *
+ * Nested nodes are stored as concurrent nodes too, and stored lists are
+ * immutable.
+ */
+@SuppressWarnings("unchecked, rawtypes")
+public class ConcurrentDataNode implements FunctionalDataContainer<String> {
+
+    private static final Object NULL = new Object();
+    private static final Object KEEP = new Object();
+
+    private final ConcurrentHashMap<String, Object> data = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new node.
+     */
+    public ConcurrentDataNode() {
+    }
+
+    /**
+     * Creates a new node with the content of another node.
+     *
+     * @param dataNode - The node to copy
+     */
+    public ConcurrentDataNode(@NotNull DataNode dataNode) {
+        dataNode.entries().forEach((key, value) -> data.put(key, store(normalize(value))));
+    }
+
+    /**
+     * Puts a new value into the node.
+     *
+     * @param path - The value path
+     * @param value - The value to store
+     * @throws IllegalArgumentException - If the value is not serializable
+     * @return true, if the value has successfully added to the node, false if otherwise.
+     * @see DataNode#put(String, Object)
+     */
+    public boolean put(@NotNull String path, @Nullable Object value) throws IllegalArgumentException {
+        Object normalized = normalize(value);
+
+        return write(path, current -> normalized);
+    }
+
+    /**
+     * @see #put(String, Object)
+     */
+    public boolean put(@NotNull DataPath path, @Nullable Object value) throws IllegalArgumentException {
+        Object normalized = normalize(value);
+
+        return write(path, current -> normalized);
+    }
+
+    /**
+     * Atomically puts a value if the path has no value.
+     *
+     * @param path - The value path
+     * @param value - The value to store
+     * @throws IllegalArgumentException - If the value is not serializable
+     * @return true if the value was stored, false if there was already a value or it was rejected.
+     */
+    public boolean putIfAbsent(@NotNull String path, @Nullable Object value) throws IllegalArgumentException {
+        Object normalized = normalize(value);
+
+        return write(path, current -> current == null ? normalized : KEEP);
+    }
+
+    /**
+     * Atomically computes a new value from the current one.
+     *
+     * The function may be called while the entry is locked, so it must
+     * be short and must not modify this node.
+     *
+     * @param path - The value path
+     * @param remappingFunction - The function that receives the current value and returns the new one
+     * @throws IllegalArgumentException - If the computed value is not serializable
+     * @return The value held by the path after the operation.
+     */
+    public @Nullable Object compute(@NotNull String path, @NotNull Function<@Nullable Object, @Nullable Object> remappingFunction)
+            throws IllegalArgumentException {
+        Object[] result = new Object[1];
+        write(path, current -> normalize(remappingFunction.apply(current)), result);
+
+        return result[0];
+    }
+
+    /**
+     * Atomically merges a value with the current one.
+     *
+     * If there is no current value, the provided value is stored as is.
+     *
+     * @param path - The value path
+     * @param value - The value to merge
+     * @param mergeFunction - The function that merges the current value and the provided one
+     * @throws IllegalArgumentException - If the merged value is not serializable
+     * @return The value held by the path after the operation.
+     */
+    public @Nullable Object merge(@NotNull String path, @Nullable Object value,
+                                  @NotNull BiFunction<@NotNull Object, @Nullable Object, @Nullable Object> mergeFunction)
+            throws IllegalArgumentException {
+        Object[] result = new Object[1];
+        write(path, current -> normalize(current == null ? value : mergeFunction.apply(current, value)), result);
+
+        return result[0];
+    }
+
+    /**
+     * @param path - The node path
+     * @return The concurrent node at the provided path, or null if there is no node.
+     */
+    public @Nullable ConcurrentDataNode getChild(@NotNull String path) {
+        Object found = get(path);
+
+        return found instanceof ConcurrentDataNode ? (ConcurrentDataNode) found : null;
+    }
+
+    /**
+     * Nested nodes are stored as concurrent nodes, so the returned node
+     * is a detached copy of the current content.
+     *
+     * @param path - The node path
+     * @return A copy of the node at the provided path.
+     */
+    @Override
+    public @Nullable DataNode getNode(@NotNull String path) {
+        ConcurrentDataNode child = getChild(path);
+
+        return child != null ? child.toDataNode() : null;
+    }
+
+    @Override
+    public @Nullable Object get(@NotNull String path) {
+        return unwrap(search(path));
+    }
+
+    @Override
+    public @Nullable Object get(@NotNull DataPath path) {
+        return unwrap(search(path));
+    }
+
+    @Override
+    public boolean has(@NotNull String path) {
+        return search(path) != null;
+    }
+
+    @Override
+    public boolean has(@NotNull DataPath path) {
+        return search(path) != null;
+    }
+
+    @Override
+    public boolean identify(String path, Class<?> expectedType) {
+        return expectedType.isInstance(get(path));
+    }
+
+    /**
+     * @return A map with the simplified values.
+     * @see DataNode#simplify()
+     */
+    public @NotNull Map<String, Object> simplify() {
+        Map<String, Object> objectMap = new HashMap<>();
+
+        data.forEach((key, value) -> objectMap.put(key, simplify(unwrap(value))));
+
+        return objectMap;
+    }
+
+    /**
+     * @return A regular node with a copy of the current content.
+     */
+    public @NotNull DataNode toDataNode() {
+        DataNode dataNode = new DataNode();
+
+        data.forEach((key, value) -> dataNode.putTrusted(key, toDataNodeValue(value)));
+
+        return dataNode;
+    }
+
+    @Override
+    public String toString() {
+        return simplify().toString();
+    }
+
+    /**
+     * Nested nodes are stored as concurrent nodes, so nodes must be
+     * protected using {@link ConcurrentDataNode} as class.
+     *
+     * @see DataNode#protectValue(String, Class, Object, boolean)
+     */
+    protected final <S, T extends S> void protectValue(String path, Class<S> clazz, T value, boolean nullable) {
+        Object normalized = normalize(value);
+
+        write(path, current -> new TypeProtectedValue(clazz, nullable, normalized));
+    }
+
+    /**
+     * Walks the path creating the missing nodes and atomically replaces
+     * the final value with the one returned by the function. The function
+     * may return {@link #KEEP} to leave the current value untouched.
+     */
+    private boolean write(String path, Function<Object, Object> function) {
+        return write(path, function, null);
+    }
+
+    /**
+     * @param result - An array that receives the value held by the path
+     *               after the operation, read inside the atomic section, or null
+     */
+    private boolean write(String path, Function<Object, Object> function, Object[] result) {
+        ConcurrentDataNode dataNode = this;
+        int start = 0;
+        int i;
+
+        while ((i = path.indexOf('.', start)) != -1) {
+            checkSegment(start, i);
+
+            dataNode = dataNode.childForWrite(path.substring(start, i));
+
+            if (dataNode == null) return false;
+
+            start = i + 1;
+        }
+
+        checkSegment(start, path.length());
+
+        return dataNode.writeEntry(start == 0 ? path : path.substring(start), function, result);
+    }
+
+    private boolean write(DataPath path, Function<Object, Object> function) {
+        ConcurrentDataNode dataNode = this;
+        int last = path.length() - 1;
+
+        for (int i = 0; i < last && dataNode != null; i++) {
+            dataNode = dataNode.childForWrite(path.segment(i));
+        }
+
+        return dataNode != null && dataNode.writeEntry(path.lastSegment(), function, null);
+    }
+
+    private boolean writeEntry(String key, Function<Object, Object> function, Object[] result) {
+        boolean[] written = new boolean[1];
+
+        Object stored = data.compute(key, (k, current) -> {
+            Object value = function.apply(unwrap(current));
+
+            if (value == KEEP) return current;
+
+            if (value instanceof TypeProtectedValue) {
+                written[0] = true;
+                return value;
+            }
+
+            if (current instanceof TypeProtectedValue) {
+                TypeProtectedValue typeProtectedValue = (TypeProtectedValue) current;
+
+                if (!typeProtectedValue.offer(value)) return current;
+
+                written[0] = true;
+                return typeProtectedValue.clone(value);
+            }
+
+            written[0] = true;
+            return store(value);
+        });
+
+        if (result != null) {
+            result[0] = unwrap(stored);
+        }
+
+        return written[0];
+    }
+
+    private ConcurrentDataNode childForWrite(String key) {
+        Object found = unwrap(data.get(key));
+
+        if (found instanceof ConcurrentDataNode) return (ConcurrentDataNode) found;
+
+        Object stored = data.compute(key, (k, current) -> {
+            Object value = unwrap(current);
+
+            if (value instanceof ConcurrentDataNode) return current;
+
+            ConcurrentDataNode created = new ConcurrentDataNode();
+
+            if (current instanceof TypeProtectedValue) {
+                TypeProtectedValue typeProtectedValue = (TypeProtectedValue) current;
+
+                return typeProtectedValue.offer(created) ? typeProtectedValue.clone(created) : current;
+            }
+
+            return created;
+        });
+
+        found = unwrap(stored);
+
+        return found instanceof ConcurrentDataNode ? (ConcurrentDataNode) found : null;
+    }
+
+    private Object search(String path) {
+        ConcurrentDataNode dataNode = this;
+        int start = 0;
+        int i;
+
+        while ((i = path.indexOf('.', start)) != -1) {
+            checkSegment(start, i);
+
+            Object found = unwrap(dataNode.data.get(path.substring(start, i)));
+
+            if (!(found instanceof ConcurrentDataNode)) return null;
+
+            dataNode = (ConcurrentDataNode) found;
+            start = i + 1;
+        }
+
+        checkSegment(start, path.length());
+
+        return dataNode.data.get(start == 0 ? path : path.substring(start));
+    }
+
+    private Object search(DataPath path) {
+        ConcurrentDataNode dataNode = this;
+        int last = path.length() - 1;
+
+        for (int i = 0; i < last; i++) {
+            Object found = unwrap(dataNode.data.get(path.segment(i)));
+
+            if (!(found instanceof ConcurrentDataNode)) return null;
+
+            dataNode = (ConcurrentDataNode) found;
+        }
+
+        return dataNode.data.get(path.lastSegment());
+    }
+
+    private static void checkSegment(int start, int end) {
+        if (start == end)
+            throw new IllegalArgumentException("Malformed key path");
+    }
+
+    private static Object store(Object value) {
+        return value == null ? NULL : value;
+    }
+
+    private static Object unwrap(Object stored) {
+        if (stored == NULL) return null;
+
+        if (stored instanceof TypeProtectedValue) {
+            return ((TypeProtectedValue) stored).getValue();
+        }
+
+        return stored;
+    }
+
+    /**
+     * Validates and converts a value to the stored form, nodes and maps
+     * become concurrent nodes and collections become immutable lists.
+     */
+    private static Object normalize(Object value) {
+        if (value instanceof Fragmented) {
+            value = ((Fragmented) value).defragment();
+        }
+
+        if (value instanceof LazyValue) {
+            value = ((LazyValue) value).get();
+        }
+
+        if (value instanceof NumberSlot) {
+            return ((NumberSlot) value).box();
+        } else if (value instanceof TypeProtectedValue) {
+            TypeProtectedValue typeProtectedValue = (TypeProtectedValue) value;
+
+            return typeProtectedValue.clone(normalize(typeProtectedValue.getValue()));
+        } else if (value instanceof ConcurrentDataNode) {
+            return new ConcurrentDataNode(((ConcurrentDataNode) value).toDataNode());
+        } else if (value instanceof DataNode) {
+            return new ConcurrentDataNode((DataNode) value);
+        } else if (value instanceof Map) {
+            ConcurrentDataNode dataNode = new ConcurrentDataNode();
+            ((Map<String, ?>) value).forEach(dataNode::put);
+
+            return dataNode;
+        } else if (value instanceof Collection) {
+            Object[] elements = ((Collection) value).toArray();
+
+            for (int i = 0; i < elements.length; i++) {
+                elements[i] = normalize(elements[i]);
+            }
+
+            return ValueList.of(elements, elements.length);
+        }
+
+        switch (SerializableTypes.kind(value)) {
+            case VALUE:
+                return value;
+            case CONVERTED:
+                return normalize(SerializableTypes.convert(value));
+            default:
+                throw new IllegalArgumentException(value + " is not apt for serialization");
+        }
+    }
+
+    private static Object simplify(Object value) {
+        if (value instanceof ConcurrentDataNode) {
+            return ((ConcurrentDataNode) value).simplify();
+        } else if (value instanceof List) {
+            List list = new ArrayList(((List) value).size());
+
+            for (Object o : (List) value) {
+                list.add(simplify(o));
+            }
+
+            return list;
+        }
+
+        return value;
+    }
+
+    private static Object toDataNodeValue(Object stored) {
+        Object value = unwrap(stored);
+
+        if (value instanceof ConcurrentDataNode) {
+            value = ((ConcurrentDataNode) value).toDataNode();
+        } else if (value instanceof List) {
+            List list = new ArrayList(((List) value).size());
+
+            for (Object o : (List) value) {
+                list.add(toDataNodeValue(o));
+            }
+
+            value = ValueList.of(list);
+        }
+
+        if (stored instanceof TypeProtectedValue) {
+            return ((TypeProtectedValue) stored).clone(value);
+        }
+
+        return value;
+    }
+}
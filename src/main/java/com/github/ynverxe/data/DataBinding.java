@@ -0,0 +1,782 @@
+package com.github.ynverxe.data;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.function.*;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Maps the objects of a class to nodes and back, without reflection.
+ *
+ * The properties of a class are found the first time its binding is
+ * requested, and an accessor is generated for every one of them, so
+ * mapping an object only calls the generated accessors. The binding of
+ * every class is created once and cached.
+ *
+ * The properties of a record are its components. The properties of any
+ * other class are its non-static and non-transient fields, including the
+ * inherited ones, read through their public getter and written through
+ * their public setter, or through the field itself if there is none. Those
+ * classes need a constructor without parameters.
+ *
+ * Every property is stored in the key named as it. Primitive numbers are
+ * kept unboxed, enums are stored by name, collections are stored as lists
+ * and the objects of classes that nodes don't support are stored as nested
+ * nodes, through the binding of their declared class. Properties with a
+ * primitive type, or annotated with a runtime annotation named
+ * {@code NotNull}, {@code NonNull} or {@code Nonnull}, can't be null: such a
+ * property can't be written nor read if it is null.
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+public final class DataBinding<T> {
+
+    private static final byte INT = 0;
+    private static final byte LONG = 1;
+    private static final byte FLOAT = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte VALUE = 4;
+    private static final byte ENUM = 5;
+    private static final byte BOUND = 6;
+    private static final byte LIST = 7;
+    private static final byte MAP = 8;
+    private static final byte OTHER = 9;
+
+    private static final Set<String> NON_NULL_ANNOTATIONS = new HashSet<>(Arrays.asList("NotNull", "NonNull", "Nonnull"));
+    private static final Set<Class<?>> VALUES = new HashSet<>(Arrays.asList(
+            String.class, Boolean.class, Character.class, Byte.class, Short.class,
+            Integer.class, Long.class, Float.class, Double.class
+    ));
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * {@code Class.getRecordComponents()}, null on runtimes without records.
+     */
+    private static final Method RECORD_COMPONENTS = method(Class.class, "getRecordComponents");
+    private static final Method COMPONENT_NAME = method(componentClass(), "getName");
+    private static final Method COMPONENT_ACCESSOR = method(componentClass(), "getAccessor");
+
+    private static final ClassValue<DataBinding<?>> BINDINGS = new ClassValue<DataBinding<?>>() {
+        @Override
+        protected DataBinding<?> computeValue(Class<?> type) {
+            return new DataBinding<>(type);
+        }
+    };
+
+    private final Class<T> type;
+    private final Property[] properties;
+
+    /**
+     * Creates the objects of a class that is not a record.
+     */
+    private final Supplier<Object> factory;
+
+    /**
+     * Creates a record from its components.
+     */
+    private final Function<Object[], Object> constructor;
+
+    private DataBinding(Class<T> type) {
+        if (type.isPrimitive() || type.isArray() || type.isInterface() || Modifier.isAbstract(type.getModifiers()))
+            throw new IllegalArgumentException(type.getName() + " can't be bound");
+
+        this.type = type;
+
+        Object[] components = recordComponents(type);
+
+        if (components != null) {
+            this.properties = recordProperties(type, components);
+            this.factory = null;
+            this.constructor = recordConstructor(type, properties);
+        } else {
+            this.properties = beanProperties(type);
+            this.factory = factory(type);
+            this.constructor = null;
+        }
+    }
+
+    /**
+     * @param type - The class to bind
+     * @param <T> - The class type
+     * @throws IllegalArgumentException - If the class can't be bound
+     * @return the binding of the class.
+     */
+    public static <T> @NotNull DataBinding<T> of(@NotNull Class<T> type) throws IllegalArgumentException {
+        return (DataBinding<T>) BINDINGS.get(type);
+    }
+
+    public @NotNull Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * @param object - The object to map
+     * @throws IllegalArgumentException - If a non-null property is null or a value is not serializable
+     * @return A new node with the properties of the object.
+     */
+    public @NotNull DataNode toNode(@NotNull T object) throws IllegalArgumentException {
+        DataNode dataNode = new DataNode();
+        write(object, dataNode);
+
+        return dataNode;
+    }
+
+    /**
+     * Stores the properties of an object in a node, straight into its
+     * entries, skipping the path parsing and the validation of the values
+     * that are already supported by nodes.
+     *
+     * The properties are stored in order, if a property can't be written
+     * the previous ones are kept.
+     *
+     * @param object - The object to map
+     * @param target - The node to write
+     * @throws IllegalArgumentException - If a non-null property is null or a value is not serializable
+     * @return true if every property was stored, false if a {@link TypeProtectedValue} rejected any.
+     */
+    public boolean write(@NotNull T object, @NotNull DataNode target) throws IllegalArgumentException {
+        boolean stored = true;
+
+        for (Property property : properties) {
+            stored &= property.write(object, target);
+        }
+
+        return stored;
+    }
+
+    /**
+     * Creates an object with the properties stored in a node.
+     *
+     * The properties that the node doesn't hold keep the value assigned
+     * by the constructor, or are null for records. Numbers are converted
+     * to the type of the property.
+     *
+     * @param dataNode - The node to read
+     * @throws IllegalArgumentException - If a non-null property is missing or a value doesn't match its property
+     * @return The created object.
+     */
+    public @NotNull T fromNode(@NotNull DataNode dataNode) throws IllegalArgumentException {
+        if (constructor != null) {
+            Object[] arguments = new Object[properties.length];
+
+            for (int i = 0; i < properties.length; i++) {
+                arguments[i] = properties[i].read(dataNode);
+            }
+
+            return (T) constructor.apply(arguments);
+        }
+
+        Object object = factory.get();
+
+        for (Property property : properties) {
+            Object value = property.read(dataNode);
+
+            if (value != null) {
+                property.setter.accept(object, value);
+            }
+        }
+
+        return (T) object;
+    }
+
+    /**
+     * @param object - The object to map
+     * @return a fragmented value that maps the object when it is defragmented.
+     */
+    public @NotNull Fragmented fragment(@NotNull T object) {
+        return () -> toNode(object);
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "DataBinding{" + type.getName() + ": ", "}");
+
+        for (Property property : properties) {
+            joiner.add(property.name);
+        }
+
+        return joiner.toString();
+    }
+
+    private static Property[] recordProperties(Class<?> type, Object[] components) {
+        Property[] properties = new Property[components.length];
+
+        for (int i = 0; i < components.length; i++) {
+            String name = (String) invoke(COMPONENT_NAME, components[i]);
+            Method accessor = (Method) invoke(COMPONENT_ACCESSOR, components[i]);
+            Field field;
+
+            try {
+                field = type.getDeclaredField(name);
+            } catch (NoSuchFieldException e) {
+                throw new IllegalArgumentException("Missing field of component " + name, e);
+            }
+
+            ValueType valueType = ValueType.classify(field.getType(), field.getGenericType());
+
+            properties[i] = new Property(name, valueType, nonNull(field, accessor), getter(accessor, field, valueType.kind), null);
+        }
+
+        return properties;
+    }
+
+    private static Property[] beanProperties(Class<?> type) {
+        Deque<Class<?>> hierarchy = new ArrayDeque<>();
+
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            hierarchy.push(current);
+        }
+
+        List<Property> properties = new ArrayList<>();
+
+        for (Class<?> declaring : hierarchy) {
+            for (Field field : declaring.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) continue;
+
+                String name = field.getName();
+                String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+                Method getter = publicMethod(type, "get" + capitalized, field.getType());
+
+                if (getter == null && field.getType() == boolean.class) {
+                    getter = publicMethod(type, "is" + capitalized, field.getType());
+                }
+
+                Method setter = publicMethod(type, "set" + capitalized, null, field.getType());
+
+                if (setter == null && Modifier.isFinal(modifiers))
+                    throw new IllegalArgumentException("Final field " + name + " of " + type.getName() + " has no setter");
+
+                ValueType valueType = ValueType.classify(field.getType(), field.getGenericType());
+
+                properties.add(new Property(name, valueType, nonNull(field, getter),
+                        getter(getter, field, valueType.kind), setter(setter, field)));
+            }
+        }
+
+        return properties.toArray(new Property[0]);
+    }
+
+    /**
+     * @param returnType - The required return type, or null if any is accepted
+     * @return the public instance method, or null if there is none.
+     */
+    private static Method publicMethod(Class<?> type, String name, Class<?> returnType, Class<?>... parameterTypes) {
+        try {
+            Method method = type.getMethod(name, parameterTypes);
+
+            if (Modifier.isStatic(method.getModifiers())) return null;
+            if (returnType != null && method.getReturnType() != returnType) return null;
+
+            return method;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static boolean nonNull(Field field, Method accessor) {
+        if (field.getType().isPrimitive()) return true;
+
+        return hasNonNullAnnotation(field.getAnnotations())
+                || accessor != null && hasNonNullAnnotation(accessor.getAnnotations());
+    }
+
+    private static boolean hasNonNullAnnotation(Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (NON_NULL_ANNOTATIONS.contains(annotation.annotationType().getSimpleName())) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Generates the accessor that reads a property, a lambda that calls
+     * the getter when it is reachable from this class, otherwise a method
+     * handle.
+     *
+     * @param method - The getter, or null to read the field
+     * @return a {@link ToIntFunction}, {@link ToLongFunction} or {@link ToDoubleFunction}
+     * for the primitive numbers, or a {@link Function}.
+     */
+    private static Object getter(Method method, Field field, byte kind) {
+        if (method != null && linkable(method)) {
+            Class<?> owner = method.getDeclaringClass();
+            Object lambda;
+
+            try {
+                MethodHandle handle = LOOKUP.unreflect(method);
+
+                switch (kind) {
+                    case INT:
+                        lambda = lambda(ToIntFunction.class, "applyAsInt", methodType(int.class, Object.class), methodType(int.class, owner), handle);
+                        break;
+                    case LONG:
+                        lambda = lambda(ToLongFunction.class, "applyAsLong", methodType(long.class, Object.class), methodType(long.class, owner), handle);
+                        break;
+                    case FLOAT:
+                    case DOUBLE:
+                        lambda = lambda(ToDoubleFunction.class, "applyAsDouble", methodType(double.class, Object.class), methodType(double.class, owner), handle);
+                        break;
+                    default:
+                        lambda = lambda(Function.class, "apply", methodType(Object.class, Object.class), methodType(Object.class, owner), handle);
+                }
+            } catch (IllegalAccessException e) {
+                lambda = null;
+            }
+
+            if (lambda != null) return lambda;
+        }
+
+        MethodHandle handle;
+
+        try {
+            handle = method != null ? LOOKUP.unreflect(accessible(method)) : LOOKUP.unreflectGetter(accessible(field));
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalArgumentException("Can't read " + field, e);
+        }
+
+        switch (kind) {
+            case INT: {
+                MethodHandle typed = handle.asType(methodType(int.class, Object.class));
+
+                return (ToIntFunction<Object>) object -> {
+                    try {
+                        return (int) typed.invokeExact(object);
+                    } catch (Throwable t) {
+                        throw rethrow(t);
+                    }
+                };
+            }
+            case LONG: {
+                MethodHandle typed = handle.asType(methodType(long.class, Object.class));
+
+                return (ToLongFunction<Object>) object -> {
+                    try {
+                        return (long) typed.invokeExact(object);
+                    } catch (Throwable t) {
+                        throw rethrow(t);
+                    }
+                };
+            }
+            case FLOAT:
+            case DOUBLE: {
+                MethodHandle typed = handle.asType(methodType(double.class, Object.class));
+
+                return (ToDoubleFunction<Object>) object -> {
+                    try {
+                        return (double) typed.invokeExact(object);
+                    } catch (Throwable t) {
+                        throw rethrow(t);
+                    }
+                };
+            }
+            default: {
+                MethodHandle typed = handle.asType(methodType(Object.class, Object.class));
+
+                return (Function<Object, Object>) object -> {
+                    try {
+                        return (Object) typed.invokeExact(object);
+                    } catch (Throwable t) {
+                        throw rethrow(t);
+                    }
+                };
+            }
+        }
+    }
+
+    /**
+     * Generates the accessor that writes a property, the value is boxed
+     * and must match the type of the property.
+     *
+     * @param method - The setter, or null to write the field
+     */
+    private static BiConsumer<Object, Object> setter(Method method, Field field) {
+        if (method != null && linkable(method)) {
+            Class<?> parameter = method.getParameterTypes()[0];
+
+            try {
+                Object lambda = lambda(BiConsumer.class, "accept", methodType(void.class, Object.class, Object.class),
+                        methodType(void.class, method.getDeclaringClass(), box(parameter)), LOOKUP.unreflect(method));
+
+                if (lambda != null) return (BiConsumer<Object, Object>) lambda;
+            } catch (IllegalAccessException ignored) {
+            }
+        }
+
+        MethodHandle handle;
+
+        try {
+            handle = method != null ? LOOKUP.unreflect(accessible(method)) : LOOKUP.unreflectSetter(accessible(field));
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalArgumentException("Can't write " + field, e);
+        }
+
+        MethodHandle typed = handle.asType(methodType(void.class, Object.class, Object.class));
+
+        return (object, value) -> {
+            try {
+                typed.invokeExact(object, value);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        };
+    }
+
+    private static Supplier<Object> factory(Class<?> type) {
+        Constructor<?> constructor;
+
+        try {
+            constructor = type.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(type.getName() + " has no constructor without parameters", e);
+        }
+
+        if (Modifier.isPublic(constructor.getModifiers()) && Modifier.isPublic(type.getModifiers()) && visible(type)) {
+            try {
+                Object lambda = lambda(Supplier.class, "get", methodType(Object.class), methodType(type),
+                        LOOKUP.unreflectConstructor(constructor));
+
+                if (lambda != null) return (Supplier<Object>) lambda;
+            } catch (IllegalAccessException ignored) {
+            }
+        }
+
+        MethodHandle typed;
+
+        try {
+            typed = LOOKUP.unreflectConstructor(accessible(constructor)).asType(methodType(Object.class));
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalArgumentException("Can't create " + type.getName(), e);
+        }
+
+        return () -> {
+            try {
+                return (Object) typed.invokeExact();
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        };
+    }
+
+    private static Function<Object[], Object> recordConstructor(Class<?> type, Property[] properties) {
+        Class<?>[] parameterTypes = new Class<?>[properties.length];
+
+        try {
+            for (int i = 0; i < properties.length; i++) {
+                parameterTypes[i] = type.getDeclaredField(properties[i].name).getType();
+            }
+
+            MethodHandle typed = LOOKUP.unreflectConstructor(accessible(type.getDeclaredConstructor(parameterTypes)))
+                    .asType(MethodType.genericMethodType(parameterTypes.length))
+                    .asSpreader(Object[].class, parameterTypes.length);
+
+            return arguments -> {
+                try {
+                    return (Object) typed.invokeExact(arguments);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            };
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalArgumentException("Can't create " + type.getName(), e);
+        }
+    }
+
+    /**
+     * @return the lambda, or null if it can't be generated.
+     */
+    private static Object lambda(Class<?> functionalInterface, String name, MethodType erased,
+                                 MethodType instantiated, MethodHandle implementation) {
+        try {
+            CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, name, methodType(functionalInterface),
+                    erased, implementation, instantiated);
+
+            return callSite.getTarget().invoke();
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the lambdas generated for this class can call the method.
+     */
+    private static boolean linkable(Method method) {
+        if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(method.getDeclaringClass().getModifiers()))
+            return false;
+
+        for (Class<?> parameter : method.getParameterTypes()) {
+            if (!visible(parameter)) return false;
+        }
+
+        return visible(method.getDeclaringClass());
+    }
+
+    /**
+     * @return true if the class is the one that this class resolves by its name.
+     */
+    private static boolean visible(Class<?> type) {
+        if (type.isPrimitive()) return true;
+        if (type.isArray()) return visible(type.getComponentType());
+
+        try {
+            return Class.forName(type.getName(), false, DataBinding.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static <A extends AccessibleObject> A accessible(A object) {
+        object.setAccessible(true);
+        return object;
+    }
+
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof Error) throw (Error) t;
+        if (t instanceof RuntimeException) return (RuntimeException) t;
+
+        return new IllegalStateException(t);
+    }
+
+    private static Class<?> box(Class<?> type) {
+        if (!type.isPrimitive()) return type;
+
+        return methodType(type).wrap().returnType();
+    }
+
+    private static Object[] recordComponents(Class<?> type) {
+        return RECORD_COMPONENTS != null ? (Object[]) invoke(RECORD_COMPONENTS, type) : null;
+    }
+
+    private static Object invoke(Method method, Object target) {
+        try {
+            return method.invoke(target);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Class<?> componentClass() {
+        try {
+            return Class.forName("java.lang.reflect.RecordComponent");
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static Method method(Class<?> type, String name) {
+        if (type == null) return null;
+
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * How the values of a property, or of the elements of a collection
+     * property, are stored and read.
+     */
+    private static final class ValueType {
+        private final byte kind;
+
+        /**
+         * The type of the values, primitive types are boxed.
+         */
+        private final Class<?> type;
+
+        /**
+         * The type of the elements of a collection.
+         */
+        private final ValueType element;
+
+        private ValueType(byte kind, Class<?> type, ValueType element) {
+            this.kind = kind;
+            this.type = type;
+            this.element = element;
+        }
+
+        private static ValueType classify(Class<?> type, Type genericType) {
+            if (type == int.class) return new ValueType(INT, Integer.class, null);
+            if (type == long.class) return new ValueType(LONG, Long.class, null);
+            if (type == float.class) return new ValueType(FLOAT, Float.class, null);
+            if (type == double.class) return new ValueType(DOUBLE, Double.class, null);
+            if (type.isPrimitive() || VALUES.contains(type)) return new ValueType(VALUE, box(type), null);
+            if (type.isEnum()) return new ValueType(ENUM, type, null);
+
+            if (Collection.class.isAssignableFrom(type)) {
+                if (!type.isAssignableFrom(ArrayList.class) && !type.isAssignableFrom(LinkedHashSet.class))
+                    throw new IllegalArgumentException("Unsupported collection type: " + type.getName());
+
+                Type elementType = Object.class;
+
+                if (genericType instanceof ParameterizedType) {
+                    elementType = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+                }
+
+                return new ValueType(LIST, type, classify(rawType(elementType), elementType));
+            }
+
+            if (Map.class.isAssignableFrom(type)) return new ValueType(MAP, type, null);
+
+            if (type == Object.class || type.isInterface() || type.isArray() || Modifier.isAbstract(type.getModifiers())
+                    || SerializableTypes.isSupported(type))
+                return new ValueType(OTHER, type, null);
+
+            // bound when it's first used, so classes can hold themselves
+            return new ValueType(BOUND, type, null);
+        }
+
+        private static Class<?> rawType(Type type) {
+            if (type instanceof Class) return (Class<?>) type;
+            if (type instanceof ParameterizedType) return rawType(((ParameterizedType) type).getRawType());
+            if (type instanceof WildcardType) return rawType(((WildcardType) type).getUpperBounds()[0]);
+
+            return Object.class;
+        }
+
+        /**
+         * @return the normalized value to store.
+         */
+        private Object store(Object value) {
+            if (value == null) return null;
+
+            switch (kind) {
+                case VALUE:
+                    return value;
+                case ENUM:
+                    return ((Enum<?>) value).name();
+                case BOUND:
+                    return DataBinding.of((Class<Object>) type).toNode(value);
+                case LIST:
+                    Object[] elements = ((Collection<?>) value).toArray();
+
+                    for (int i = 0; i < elements.length; i++) {
+                        elements[i] = element.store(elements[i]);
+                    }
+
+                    return ValueList.of(elements, elements.length);
+                default:
+                    return DataNode.normalize(value);
+            }
+        }
+
+        /**
+         * @param found - The stored value
+         * @param name - The property name, to report mismatches
+         * @return the value of the property.
+         */
+        private Object load(Object found, String name) {
+            if (found == null) return null;
+
+            switch (kind) {
+                case ENUM:
+                    if (found instanceof String) return Enum.valueOf((Class) type, (String) found);
+                    break;
+                case BOUND:
+                    if (found instanceof DataNode) return DataBinding.of(type).fromNode((DataNode) found);
+                    break;
+                case LIST:
+                    if (found instanceof Collection) {
+                        Collection<Object> collection = type.isAssignableFrom(ArrayList.class)
+                                ? new ArrayList<>(((Collection<?>) found).size())
+                                : new LinkedHashSet<>();
+
+                        for (Object o : (Collection<?>) found) {
+                            collection.add(element.load(o, name));
+                        }
+
+                        return collection;
+                    }
+                    break;
+                case MAP:
+                    if (found instanceof DataNode) {
+                        Map<String, Object> map = ((DataNode) found).simplify();
+
+                        if (type.isInstance(map)) return map;
+                    }
+                    break;
+                default:
+                    if (found instanceof Number && Number.class.isAssignableFrom(type) && !type.isInstance(found)) {
+                        Object number = convert((Number) found, type);
+
+                        if (number != null) return number;
+                    }
+
+                    if (type.isInstance(found)) return DataNode.copyValue(found);
+            }
+
+            throw new IllegalArgumentException(name + " holds " + found.getClass().getName() + ", expected " + type.getName());
+        }
+
+        private static Object convert(Number number, Class<?> type) {
+            if (type == Integer.class) return number.intValue();
+            if (type == Long.class) return number.longValue();
+            if (type == Double.class) return number.doubleValue();
+            if (type == Float.class) return number.floatValue();
+            if (type == Short.class) return number.shortValue();
+            if (type == Byte.class) return number.byteValue();
+
+            return null;
+        }
+    }
+
+    private static final class Property {
+        private final String name;
+        private final ValueType valueType;
+        private final boolean nonNull;
+        private final Object getter;
+        private final BiConsumer<Object, Object> setter;
+
+        private Property(String name, ValueType valueType, boolean nonNull, Object getter, BiConsumer<Object, Object> setter) {
+            this.name = name;
+            this.valueType = valueType;
+            this.nonNull = nonNull;
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        private boolean write(Object object, DataNode target) {
+            switch (valueType.kind) {
+                case INT:
+                    return target.putNumberTrusted(name, NumberSlot.INT, ((ToIntFunction<Object>) getter).applyAsInt(object));
+                case LONG:
+                    return target.putNumberTrusted(name, NumberSlot.LONG, ((ToLongFunction<Object>) getter).applyAsLong(object));
+                case FLOAT:
+                    float floatValue = (float) ((ToDoubleFunction<Object>) getter).applyAsDouble(object);
+
+                    return target.putNumberTrusted(name, NumberSlot.FLOAT, Float.floatToRawIntBits(floatValue));
+                case DOUBLE:
+                    double doubleValue = ((ToDoubleFunction<Object>) getter).applyAsDouble(object);
+
+                    return target.putNumberTrusted(name, NumberSlot.DOUBLE, Double.doubleToRawLongBits(doubleValue));
+                default:
+                    Object value = ((Function<Object, Object>) getter).apply(object);
+
+                    if (value == null && nonNull)
+                        throw new IllegalArgumentException(name + " can't be null");
+
+                    return target.putTrusted(name, valueType.store(value));
+            }
+        }
+
+        private Object read(DataNode dataNode) {
+            Object value = valueType.load(dataNode.find(name), name);
+
+            if (value == null && nonNull)
+                throw new IllegalArgumentException("Missing value of " + name);
+
+            return value;
+        }
+    }
+}
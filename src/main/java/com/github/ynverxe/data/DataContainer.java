@@ -14,6 +14,51 @@ public interface DataContainer<K> {
 
     boolean identify(K key, Class<?> expectedType);
 
+    /**
+     * Finds a value using a compiled path.
+     *
+     * By default the first segment is looked up as a key of this container,
+     * and every following segment as a key of the {@link DataNode} found
+     * before it, so containers keyed by other types than strings must
+     * override this method. Since this method overloads {@link #get(Object)},
+     * a call with a {@code null} literal must cast it to the key type.
+     *
+     * @param path - The value path
+     * @return The found value, or null if there is no value at the path.
+     */
+    default @Nullable Object get(@NotNull DataPath path) {
+        Object found = get((K) path.segment(0));
+
+        for (int i = 1; i < path.length(); i++) {
+            if (!(found instanceof DataNode)) return null;
+
+            found = ((DataNode) found).get(path.segment(i));
+        }
+
+        return found;
+    }
+
+    /**
+     * Checks if a compiled path holds a value, the path is resolved as
+     * {@link #get(DataPath)} does.
+     *
+     * @param path - The value path
+     * @return true if the path holds a value, false otherwise.
+     */
+    default boolean has(@NotNull DataPath path) {
+        if (path.length() == 1) return has((K) path.segment(0));
+
+        Object parent = get((K) path.segment(0));
+
+        for (int i = 1; i < path.length() - 1; i++) {
+            if (!(parent instanceof DataNode)) return false;
+
+            parent = ((DataNode) parent).get(path.segment(i));
+        }
+
+        return parent instanceof DataNode && ((DataNode) parent).has(path.lastSegment());
+    }
+
     default @Nullable DataNode getNode(K key) {
         Object found = get(key);
 
@@ -111,4 +156,150 @@ public interface DataContainer<K> {
     default @NotNull Byte getByte(K key) {
         return getByte(key, (byte) 0);
     }
+
+    default int getIntValue(K key, int def) {
+        Number found = (Number) get(key);
+
+        return found != null ? found.intValue() : def;
+    }
+
+    default long getLongValue(K key, long def) {
+        Number found = (Number) get(key);
+
+        return found != null ? found.longValue() : def;
+    }
+
+    default float getFloatValue(K key, float def) {
+        Number found = (Number) get(key);
+
+        return found != null ? found.floatValue() : def;
+    }
+
+    default double getDoubleValue(K key, double def) {
+        Number found = (Number) get(key);
+
+        return found != null ? found.doubleValue() : def;
+    }
+
+    default @Nullable DataNode getNode(@NotNull DataPath path) {
+        Object found = get(path);
+
+        return (DataNode) found;
+    }
+
+    default <T> @Nullable List<T> getList(@NotNull DataPath path) {
+        Object found = get(path);
+
+        if (found instanceof List) {
+            return (List<T>) found;
+        }
+
+        return null;
+    }
+
+    default @Nullable Number getNumber(@NotNull DataPath path, Number def) {
+        Object found = get(path);
+
+        if (found != null) {
+            return (Number) found;
+        }
+
+        return def;
+    }
+
+    default @Nullable Number getNumber(@NotNull DataPath path) {
+        return getNumber(path, null);
+    }
+
+    default @Nullable String getString(@NotNull DataPath path, String def) {
+        Object found = get(path);
+
+        if (found != null) {
+            return (String) found;
+        }
+
+        return def;
+    }
+
+    default @Nullable String getString(@NotNull DataPath path) {
+        return getString(path, null);
+    }
+
+    default @Nullable Boolean getBoolean(@NotNull DataPath path, Boolean def) {
+        Object found = get(path);
+
+        if (found != null) {
+            return (Boolean) found;
+        }
+
+        return def;
+    }
+
+    default @NotNull Boolean getBoolean(@NotNull DataPath path) {
+        return getBoolean(path, false);
+    }
+
+    default @NotNull Integer getInt(@NotNull DataPath path, Integer def) {
+        return getNumber(path, def).intValue();
+    }
+
+    default @NotNull Integer getInt(@NotNull DataPath path) {
+        return getInt(path, 0);
+    }
+
+    default @NotNull Double getDouble(@NotNull DataPath path, Double def) {
+        return getNumber(path, def).doubleValue();
+    }
+
+    default @NotNull Double getDouble(@NotNull DataPath path) {
+        return getDouble(path, 0.0);
+    }
+
+    default @NotNull Float getFloat(@NotNull DataPath path, Float def) {
+        return getNumber(path, def).floatValue();
+    }
+
+    default @NotNull Float getFloat(@NotNull DataPath path) {
+        return getFloat(path, 0f);
+    }
+
+    default @NotNull Long getLong(@NotNull DataPath path, Long def) {
+        return getNumber(path, def).longValue();
+    }
+
+    default @NotNull Long getLong(@NotNull DataPath path) {
+        return getLong(path, (long) 0);
+    }
+
+    default @NotNull Byte getByte(@NotNull DataPath path, Byte def) {
+        return getNumber(path, def).byteValue();
+    }
+
+    default @NotNull Byte getByte(@NotNull DataPath path) {
+        return getByte(path, (byte) 0);
+    }
+
+    default int getIntValue(@NotNull DataPath path, int def) {
+        Number found = (Number) get(path);
+
+        return found != null ? found.intValue() : def;
+    }
+
+    default long getLongValue(@NotNull DataPath path, long def) {
+        Number found = (Number) get(path);
+
+        return found != null ? found.longValue() : def;
+    }
+
+    default float getFloatValue(@NotNull DataPath path, float def) {
+        Number found = (Number) get(path);
+
+        return found != null ? found.floatValue() : def;
+    }
+
+    default double getDoubleValue(@NotNull DataPath path, double def) {
+        Number found = (Number) get(path);
+
+        return found != null ? found.doubleValue() : def;
+    }
 }
\ No newline at end of file
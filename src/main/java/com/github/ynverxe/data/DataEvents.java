@@ -0,0 +1,72 @@
+package com.github.ynverxe.data;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The Flight Recorder events reported by {@link DataMetrics}, only
+ * loaded when the running JVM provides the Flight Recorder.
+ */
+final class DataEvents {
+
+    private static final EventType[] TYPES = {
+            EventType.getEventType(NormalizeEvent.class),
+            EventType.getEventType(CloneEvent.class),
+            EventType.getEventType(SimplifyEvent.class)
+    };
+
+    private DataEvents() {
+    }
+
+    /**
+     * @return the started event, or null if no recording enables it.
+     */
+    static Object begin(byte operation) {
+        if (!TYPES[operation].isEnabled()) return null;
+
+        Event event;
+
+        switch (operation) {
+            case DataMetrics.NORMALIZE:
+                event = new NormalizeEvent();
+                break;
+            case DataMetrics.CLONE:
+                event = new CloneEvent();
+                break;
+            default:
+                event = new SimplifyEvent();
+        }
+
+        event.begin();
+
+        return event;
+    }
+
+    static void commit(Object event) {
+        ((Event) event).commit();
+    }
+
+    @Name("com.github.ynverxe.data.Normalize")
+    @Label("Normalize Value")
+    @Category("Data Node")
+    @Description("Validates and converts a value provided to be stored in a node")
+    static final class NormalizeEvent extends Event {
+    }
+
+    @Name("com.github.ynverxe.data.Clone")
+    @Label("Clone Node")
+    @Category("Data Node")
+    static final class CloneEvent extends Event {
+    }
+
+    @Name("com.github.ynverxe.data.Simplify")
+    @Label("Simplify Node")
+    @Category("Data Node")
+    @Description("Converts a node and its nested nodes to maps")
+    static final class SimplifyEvent extends Event {
+    }
+}
@@ -0,0 +1,593 @@
+package com.github.ynverxe.data;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+
+/**
+ * Persists a node by appending every change made on it, or on its nested
+ * nodes, to a log on disk.
+ *
+ * The changes are captured as they are stored and written by a background
+ * thread, that appends them in batches and forces every batch to the disk
+ * before taking the next one, so a write never waits for the disk. When
+ * the log grows past the compaction threshold it is rotated, and another
+ * background thread rewrites the previous snapshot and the rotated logs
+ * into a fresh snapshot while the new log keeps being appended. If that
+ * compaction fails the log keeps being appended, and the failure is
+ * thrown by the next {@link #flush()}, {@link #compact()} or {@link #close()}.
+ *
+ * The directory holds {@code snapshot-<generation>.dat} files, encoded by
+ * {@link BinaryCodec}, and {@code journal-<generation>.log} files, with the
+ * changes made after the snapshot of the same or a previous generation.
+ * {@link #recover(Path)} replays the latest snapshot and the logs that
+ * follow it, a change that was only partially written by a crash is
+ * discarded with the changes after it.
+ *
+ * Like the other observers of a node, the journal must be attached and
+ * closed by the thread that writes the node, or while holding the lock
+ * that guards the writes.
+ */
+public final class DataJournal implements Closeable {
+
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 16 << 20;
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".dat";
+    private static final String LOG_PREFIX = "journal-";
+    private static final String LOG_SUFFIX = ".log";
+    private static final int MAX_BATCH = 4096;
+
+    private static final byte SET = 0;
+    private static final byte REMOVE = 1;
+
+    private final DataNode dataNode;
+    private final Path directory;
+    private final long compactionThreshold;
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final NodeObserver observer = (path, previous, value, removal) -> record(path, value, removal);
+    private final Object compactionLock = new Object();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private final AtomicReference<IOException> compactionFailure = new AtomicReference<>();
+    private final Thread writer;
+
+    // only accessed by the writer thread
+    private FileChannel log;
+    private long generation;
+    private long logSize;
+
+    private volatile IOException failure;
+    // written while holding the queue lock, read by the compaction thread
+    private volatile boolean closed;
+
+    private DataJournal(DataNode dataNode, Path directory, long compactionThreshold, long generation) throws IOException {
+        this.dataNode = dataNode;
+        this.directory = directory;
+        this.compactionThreshold = compactionThreshold;
+        this.generation = generation;
+        this.log = openLog(directory, generation);
+        this.writer = new Thread(this::run, "DataJournal-" + directory.getFileName());
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * @see #attach(DataNode, Path, long)
+     */
+    public static @NotNull DataJournal attach(@NotNull DataNode dataNode, @NotNull Path directory) throws IOException {
+        return attach(dataNode, directory, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Starts journaling the changes of a node.
+     *
+     * The current content of the node is written first as a new snapshot,
+     * replacing whatever the directory held, so this method blocks until
+     * the node is written.
+     *
+     * @param dataNode - The node to persist
+     * @param directory - The directory of the journal, created if it doesn't exist
+     * @param compactionThreshold - The size in bytes of the log that triggers a compaction
+     * @throws IOException - If the directory or the snapshot can't be written
+     * @throws IllegalArgumentException - If the threshold is not positive or the node holds a non-serializable value
+     * @return The journal.
+     */
+    public static @NotNull DataJournal attach(@NotNull DataNode dataNode, @NotNull Path directory, long compactionThreshold)
+            throws IOException, IllegalArgumentException {
+        if (compactionThreshold <= 0)
+            throw new IllegalArgumentException("Compaction threshold must be positive: " + compactionThreshold);
+
+        Files.createDirectories(directory);
+
+        long generation = latestGeneration(directory) + 1;
+        writeSnapshot(directory, dataNode, generation);
+        deleteBefore(directory, generation);
+
+        DataJournal journal = new DataJournal(dataNode, directory, compactionThreshold, generation);
+        dataNode.addObserver(journal.observer);
+        journal.writer.start();
+
+        return journal;
+    }
+
+    /**
+     * Rebuilds the node persisted in a directory.
+     *
+     * @param directory - The directory of the journal
+     * @throws IOException - If the files can't be read or are corrupted
+     * @return A new node with the persisted content, empty if nothing was persisted.
+     */
+    public static @NotNull DataNode recover(@NotNull Path directory) throws IOException {
+        return recover(directory, new DataNode());
+    }
+
+    /**
+     * Replays the node persisted in a directory into a node, useful to
+     * recover nodes that protect their values.
+     *
+     * @param directory - The directory of the journal
+     * @param target - The node that receives the persisted content
+     * @throws IOException - If the files can't be read or are corrupted
+     * @return The target node.
+     */
+    public static @NotNull DataNode recover(@NotNull Path directory, @NotNull DataNode target) throws IOException {
+        if (Files.isDirectory(directory)) {
+            load(directory, Long.MAX_VALUE, target);
+        }
+
+        return target;
+    }
+
+    /**
+     * Blocks until every change made before this call is forced to the disk.
+     *
+     * @throws IOException - If the journal failed to write or is closed, or a background compaction failed
+     */
+    public void flush() throws IOException {
+        await(barrier(false, false));
+        reportCompactionFailure();
+    }
+
+    /**
+     * Rotates the log and rewrites the previous snapshot and logs into a
+     * new snapshot, blocking until it is written. The changes keep being
+     * appended meanwhile.
+     *
+     * @throws IOException - If the journal failed to write or is closed, or a background compaction failed
+     */
+    public void compact() throws IOException {
+        rewrite();
+        reportCompactionFailure();
+    }
+
+    private void rewrite() throws IOException {
+        synchronized (compactionLock) {
+            long generation = await(barrier(true, false));
+
+            DataNode state = new DataNode();
+            load(directory, generation, state);
+
+            writeSnapshot(directory, state, generation);
+            deleteBefore(directory, generation);
+        }
+    }
+
+    /**
+     * Stops journaling the node, after forcing the pending changes to the disk.
+     *
+     * @throws IOException - If the journal failed to write, or a background compaction failed
+     */
+    @Override
+    public void close() throws IOException {
+        dataNode.removeObserver(observer);
+
+        // an ongoing compaction finishes first
+        synchronized (compactionLock) {
+            CompletableFuture<Long> barrier;
+
+            synchronized (queue) {
+                if (closed) return;
+
+                barrier = barrier(false, true);
+                closed = true;
+            }
+
+            await(barrier);
+        }
+
+        reportCompactionFailure();
+    }
+
+    private void record(String path, Object value, boolean removal) {
+        if (failure != null) return;
+
+        if (removal) {
+            queue.add(new Change(REMOVE, path, null));
+            return;
+        }
+
+        if (value instanceof Fragmented) {
+            value = ((Fragmented) value).defragment();
+        }
+
+        // nodes are copied on write, so the writer thread reads them as they are now
+        queue.add(new Change(SET, path, DataNode.copyValue(value)));
+    }
+
+    private CompletableFuture<Long> barrier(boolean rotate, boolean close) throws IOException {
+        synchronized (queue) {
+            if (closed)
+                throw new IOException("The journal is closed");
+
+            Barrier barrier = new Barrier(rotate, close);
+            queue.add(barrier);
+
+            return barrier.future;
+        }
+    }
+
+    private long await(CompletableFuture<Long> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            throw new IOException("The journal failed to write", e.getCause());
+        }
+    }
+
+    /**
+     * Throws the failure of a background compaction that finished since
+     * the previous call, only once.
+     */
+    private void reportCompactionFailure() throws IOException {
+        IOException compactionFailure = this.compactionFailure.getAndSet(null);
+
+        if (compactionFailure != null)
+            throw new IOException("The journal failed to compact", compactionFailure);
+    }
+
+    private void run() {
+        List<Object> batch = new ArrayList<>();
+        BinaryCodec.ArrayOutput output = new BinaryCodec.ArrayOutput();
+        BinaryCodec.ArrayOutput payload = new BinaryCodec.ArrayOutput();
+        CRC32 crc = new CRC32();
+        boolean running = true;
+
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+
+            queue.drainTo(batch, MAX_BATCH);
+
+            for (Object item : batch) {
+                if (item instanceof Change) {
+                    if (failure == null) {
+                        encode((Change) item, output, payload, crc);
+                    }
+
+                    continue;
+                }
+
+                Barrier barrier = (Barrier) item;
+
+                if (failure == null) {
+                    append(output);
+
+                    if (barrier.rotate) {
+                        rotate();
+                    }
+                }
+
+                if (failure != null) {
+                    barrier.future.completeExceptionally(failure);
+                } else {
+                    barrier.future.complete(generation);
+                }
+
+                if (barrier.close) {
+                    running = false;
+                    closeLog();
+                }
+            }
+
+            batch.clear();
+
+            if (running && failure == null) {
+                append(output);
+                scheduleCompaction();
+            }
+        }
+    }
+
+    private void encode(Change change, BinaryCodec.ArrayOutput output, BinaryCodec.ArrayOutput payload, CRC32 crc) {
+        try {
+            payload.reset();
+            payload.writeByte(change.type);
+            payload.writeString(change.path);
+
+            if (change.type == SET) {
+                BinaryCodec.writeValue(change.value, payload);
+            }
+
+            crc.reset();
+            crc.update(payload.array(), 0, payload.size());
+
+            output.writeVarInt(payload.size());
+            output.write(payload.array(), 0, payload.size());
+            output.writeFixedInt((int) crc.getValue());
+        } catch (IOException | IllegalArgumentException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Writes the encoded changes and forces them to the disk.
+     */
+    private void append(BinaryCodec.ArrayOutput output) {
+        if (output.size() == 0) return;
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(output.array(), 0, output.size());
+
+            while (buffer.hasRemaining()) {
+                log.write(buffer);
+            }
+
+            log.force(false);
+            logSize += output.size();
+        } catch (IOException e) {
+            fail(e);
+        }
+
+        output.reset();
+    }
+
+    private void rotate() {
+        try {
+            FileChannel next = openLog(directory, generation + 1);
+            log.close();
+
+            log = next;
+            logSize = 0;
+            generation++;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void scheduleCompaction() {
+        if (logSize < compactionThreshold || !compactionScheduled.compareAndSet(false, true)) return;
+
+        Thread compactor = new Thread(() -> {
+            try {
+                synchronized (compactionLock) {
+                    if (!closed) {
+                        rewrite();
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                compactionFailure.set(e instanceof IOException ? (IOException) e : new IOException(e));
+            } finally {
+                compactionScheduled.set(false);
+            }
+        }, writer.getName() + "-compaction");
+
+        compactor.setDaemon(true);
+        compactor.start();
+    }
+
+    private void fail(Exception e) {
+        failure = e instanceof IOException ? (IOException) e : new IOException(e);
+        closeLog();
+    }
+
+    private void closeLog() {
+        try {
+            log.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static FileChannel openLog(Path directory, long generation) throws IOException {
+        return FileChannel.open(directory.resolve(LOG_PREFIX + generation + LOG_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Writes a snapshot into a temporary file, that is renamed once it is
+     * complete so a crash never leaves a partial snapshot.
+     */
+    private static void writeSnapshot(Path directory, DataNode dataNode, long generation) throws IOException {
+        Path file = directory.resolve(SNAPSHOT_PREFIX + generation + SNAPSHOT_SUFFIX);
+        Path temporary = directory.resolve(file.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            new BinaryCodec(true).write(dataNode, Channels.newOutputStream(channel));
+            channel.force(false);
+        }
+
+        try {
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Replays into a node the latest snapshot and the logs that follow it,
+     * with a generation below the limit.
+     */
+    private static void load(Path directory, long limit, DataNode target) throws IOException {
+        long snapshot = -1;
+        List<Long> logs = new ArrayList<>();
+
+        for (Path file : files(directory)) {
+            String name = file.getFileName().toString();
+            long generation;
+
+            if ((generation = generation(name, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) != -1) {
+                if (generation < limit) snapshot = Math.max(snapshot, generation);
+            } else if ((generation = generation(name, LOG_PREFIX, LOG_SUFFIX)) != -1) {
+                if (generation < limit) logs.add(generation);
+            }
+        }
+
+        if (snapshot != -1) {
+            DataNode dataNode;
+
+            try (InputStream inputStream = Files.newInputStream(directory.resolve(SNAPSHOT_PREFIX + snapshot + SNAPSHOT_SUFFIX))) {
+                dataNode = new BinaryCodec().read(inputStream);
+            }
+
+            for (Map.Entry<String, Object> entry : dataNode.entries().entrySet()) {
+                target.putTrusted(entry.getKey(), entry.getValue());
+            }
+        }
+
+        Collections.sort(logs);
+
+        for (int i = 0; i < logs.size(); i++) {
+            long generation = logs.get(i);
+
+            if (generation < snapshot) continue;
+
+            replay(directory.resolve(LOG_PREFIX + generation + LOG_SUFFIX), target, i == logs.size() - 1);
+        }
+    }
+
+    /**
+     * @param last - Define if the log may end with a partially written change
+     */
+    private static void replay(Path file, DataNode target, boolean last) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        BinaryCodec.BufferInput input = new BinaryCodec.BufferInput(buffer);
+        CRC32 crc = new CRC32();
+
+        while (buffer.hasRemaining()) {
+            try {
+                int length = input.readVarInt();
+
+                if (length > buffer.remaining() - 4)
+                    throw new EOFException();
+
+                int start = buffer.position();
+                crc.reset();
+                crc.update(buffer.array(), start, length);
+
+                buffer.position(start + length);
+
+                if (input.readFixedInt() != (int) crc.getValue())
+                    throw new IOException("Checksum mismatch");
+
+                buffer.position(start);
+
+                byte type = input.readByte();
+                String path = input.readString();
+
+                if (type == REMOVE) {
+                    target.remove(DataPath.of(path));
+                } else {
+                    target.put(path, BinaryCodec.readValue(input));
+                }
+
+                buffer.position(start + length + 4);
+            } catch (IOException | RuntimeException e) {
+                if (last) return;
+
+                throw new IOException("Corrupted journal " + file.getFileName(), e);
+            }
+        }
+    }
+
+    private static void deleteBefore(Path directory, long generation) throws IOException {
+        for (Path file : files(directory)) {
+            String name = file.getFileName().toString();
+            long fileGeneration = generation(name, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+
+            if (fileGeneration == -1) {
+                fileGeneration = generation(name, LOG_PREFIX, LOG_SUFFIX);
+            }
+
+            if (fileGeneration != -1 && fileGeneration < generation) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static long latestGeneration(Path directory) throws IOException {
+        long latest = 0;
+
+        for (Path file : files(directory)) {
+            String name = file.getFileName().toString();
+            latest = Math.max(latest, generation(name, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX));
+            latest = Math.max(latest, generation(name, LOG_PREFIX, LOG_SUFFIX));
+        }
+
+        return latest;
+    }
+
+    private static List<Path> files(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+
+        return files;
+    }
+
+    /**
+     * @return the generation in a file name, or -1 if it is not a file of the journal.
+     */
+    private static long generation(String name, String prefix, String suffix) {
+        if (!name.startsWith(prefix) || !name.endsWith(suffix)) return -1;
+
+        try {
+            return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static final class Change {
+        private final byte type;
+        private final String path;
+        private final Object value;
+
+        private Change(byte type, String path, Object value) {
+            this.type = type;
+            this.path = path;
+            this.value = value;
+        }
+    }
+
+    private static final class Barrier {
+        private final boolean rotate;
+        private final boolean close;
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+
+        private Barrier(boolean rotate, boolean close) {
+            this.rotate = rotate;
+            this.close = close;
+        }
+    }
+}
@@ -0,0 +1,443 @@
+package com.github.ynverxe.data;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in instrumentation of the nodes of this library.
+ *
+ * Once enabled, every {@link DataNode} counts its lookups, its writes and
+ * the writes rejected by protected values or quotas, records the depth of the looked
+ * up paths, and records in histograms the latency of the normalization of
+ * the values provided to be stored, {@link DataNode#clone()} and
+ * {@link DataNode#simplify()}. When the running JVM provides the JDK Flight
+ * Recorder, those operations are also reported as Flight Recorder events.
+ *
+ * While disabled every instrumented operation only reads a flag, nothing
+ * is counted nor allocated. The counters are shared by every node.
+ */
+public final class DataMetrics {
+
+    static final byte NORMALIZE = 0;
+    static final byte CLONE = 1;
+    static final byte SIMPLIFY = 2;
+
+    /**
+     * The depth histogram holds a bucket for every depth up to this one,
+     * the last bucket counts the deeper paths too.
+     */
+    public static final int MAX_DEPTH = 16;
+
+    private static final boolean FLIGHT_RECORDER = flightRecorderAvailable();
+
+    private static final LongAdder LOOKUPS = new LongAdder();
+    private static final LongAdder WRITES = new LongAdder();
+    private static final LongAdder REJECTIONS = new LongAdder();
+    private static final LongAdder[] DEPTHS = adders(MAX_DEPTH + 1);
+    private static final Recorder[] RECORDERS = {new Recorder(), new Recorder(), new Recorder()};
+
+    static volatile boolean enabled;
+
+    private DataMetrics() {
+    }
+
+    /**
+     * Starts recording.
+     */
+    public static void enable() {
+        enabled = true;
+    }
+
+    /**
+     * Stops recording, the recorded values are kept.
+     */
+    public static void disable() {
+        enabled = false;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return true if the operations are also reported as Flight Recorder events.
+     */
+    public static boolean isFlightRecorderAvailable() {
+        return FLIGHT_RECORDER;
+    }
+
+    /**
+     * Forgets every recorded value.
+     */
+    public static void reset() {
+        LOOKUPS.reset();
+        WRITES.reset();
+        REJECTIONS.reset();
+
+        for (LongAdder depth : DEPTHS) {
+            depth.reset();
+        }
+
+        for (Recorder recorder : RECORDERS) {
+            recorder.reset();
+        }
+    }
+
+    /**
+     * @return the amount of path lookups.
+     */
+    public static long getLookups() {
+        return LOOKUPS.sum();
+    }
+
+    /**
+     * @return the amount of values stored in any node.
+     */
+    public static long getWrites() {
+        return WRITES.sum();
+    }
+
+    /**
+     * @return the amount of writes rejected by a {@link TypeProtectedValue} or a {@link NodeQuota}.
+     */
+    public static long getRejections() {
+        return REJECTIONS.sum();
+    }
+
+    /**
+     * @return the rejected writes per attempted write, or 0 if there was no write.
+     */
+    public static double getRejectionRate() {
+        long rejections = REJECTIONS.sum();
+        long attempts = WRITES.sum() + rejections;
+
+        return attempts == 0 ? 0 : (double) rejections / attempts;
+    }
+
+    /**
+     * @return the amount of lookups by the amount of segments of their
+     * path, the index {@link #MAX_DEPTH} counts the deeper paths too.
+     */
+    public static long @NotNull [] getDepthHistogram() {
+        long[] histogram = new long[DEPTHS.length];
+
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = DEPTHS[i].sum();
+        }
+
+        return histogram;
+    }
+
+    /**
+     * @return the latency of the normalization of the values provided to be stored.
+     */
+    public static @NotNull Histogram getNormalizeLatency() {
+        return RECORDERS[NORMALIZE].snapshot();
+    }
+
+    /**
+     * @return the latency of {@link DataNode#clone()}.
+     */
+    public static @NotNull Histogram getCloneLatency() {
+        return RECORDERS[CLONE].snapshot();
+    }
+
+    /**
+     * @return the latency of {@link DataNode#simplify()}.
+     */
+    public static @NotNull Histogram getSimplifyLatency() {
+        return RECORDERS[SIMPLIFY].snapshot();
+    }
+
+    /**
+     * Finds the nodes of a tree that retain the most data by themselves,
+     * without counting their nested nodes. This walks the whole tree, so
+     * it's meant for diagnostics, and must be called by the thread that
+     * writes the tree. This method doesn't require the metrics to be enabled.
+     *
+     * @param dataNode - The root of the tree
+     * @param limit - The max amount of nodes to return
+     * @throws IllegalArgumentException - If the limit is negative
+     * @return The nodes by their own bytes, from the highest. The nodes held
+     * by lists are identified by the key of the list and their index, like {@code items[2]}.
+     */
+    public static @NotNull List<HotSpot> getHotSpots(@NotNull DataNode dataNode, int limit) throws IllegalArgumentException {
+        if (limit < 0) throw new IllegalArgumentException("negative limit: " + limit);
+
+        List<HotSpot> hotSpots = new ArrayList<>();
+        collectHotSpots("", dataNode, hotSpots);
+        hotSpots.sort(Comparator.comparingLong(HotSpot::getOwnBytes).reversed());
+
+        return hotSpots.size() > limit ? new ArrayList<>(hotSpots.subList(0, limit)) : hotSpots;
+    }
+
+    private static void collectHotSpots(String path, DataNode dataNode, List<HotSpot> hotSpots) {
+        long ownBytes = dataNode.footprint();
+        String prefix = path.isEmpty() ? "" : path + ".";
+
+        for (Map.Entry<String, Object> entry : dataNode.entries().entrySet()) {
+            ownBytes -= collectHotSpots(prefix + entry.getKey(), entry.getValue(), hotSpots);
+        }
+
+        hotSpots.add(new HotSpot(path, ownBytes, dataNode.footprint(), dataNode.entryCount()));
+    }
+
+    /**
+     * @return the bytes of the nodes found in the value.
+     */
+    private static long collectHotSpots(String path, Object value, List<HotSpot> hotSpots) {
+        if (value instanceof TypeProtectedValue) {
+            return collectHotSpots(path, ((TypeProtectedValue) value).getValue(), hotSpots);
+        } else if (value instanceof DataNode) {
+            collectHotSpots(path, (DataNode) value, hotSpots);
+
+            return ((DataNode) value).footprint();
+        } else if (value instanceof ValueList && ((ValueList) value).holdsNodes()) {
+            long bytes = 0;
+            int index = 0;
+
+            for (Object element : (ValueList) value) {
+                bytes += collectHotSpots(path + "[" + index++ + "]", element, hotSpots);
+            }
+
+            return bytes;
+        }
+
+        return 0;
+    }
+
+    static void lookup(int depth) {
+        LOOKUPS.increment();
+        DEPTHS[Math.min(depth, MAX_DEPTH)].increment();
+    }
+
+    static void write() {
+        WRITES.increment();
+    }
+
+    static void rejection() {
+        REJECTIONS.increment();
+    }
+
+    /**
+     * @param operation - The started operation
+     * @return the sample that must be ended when the operation ends.
+     */
+    static Sample begin(byte operation) {
+        return new Sample(operation, System.nanoTime(), FLIGHT_RECORDER ? DataEvents.begin(operation) : null);
+    }
+
+    static void end(Sample sample) {
+        RECORDERS[sample.operation].record(System.nanoTime() - sample.start);
+
+        if (sample.event != null) {
+            DataEvents.commit(sample.event);
+        }
+    }
+
+    private static boolean flightRecorderAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, DataMetrics.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static LongAdder[] adders(int length) {
+        LongAdder[] adders = new LongAdder[length];
+
+        for (int i = 0; i < length; i++) {
+            adders[i] = new LongAdder();
+        }
+
+        return adders;
+    }
+
+    static final class Sample {
+        private final byte operation;
+        private final long start;
+
+        /**
+         * The Flight Recorder event, typed as an object so this class
+         * loads on runtimes without the Flight Recorder.
+         */
+        private final Object event;
+
+        private Sample(byte operation, long start, Object event) {
+            this.operation = operation;
+            this.start = start;
+            this.event = event;
+        }
+    }
+
+    /**
+     * Records latencies in buckets of powers of two nanoseconds.
+     */
+    private static final class Recorder {
+        private final LongAdder total = new LongAdder();
+        private final LongAdder[] buckets = adders(64);
+
+        private void record(long nanos) {
+            total.add(nanos);
+            buckets[Histogram.bucket(nanos)].increment();
+        }
+
+        private void reset() {
+            total.reset();
+
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+        }
+
+        private Histogram snapshot() {
+            long[] counts = new long[buckets.length];
+
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets[i].sum();
+            }
+
+            return new Histogram(counts, total.sum());
+        }
+    }
+
+    /**
+     * A node found by {@link #getHotSpots(DataNode, int)}.
+     */
+    public static final class HotSpot {
+        private final String path;
+        private final long ownBytes;
+        private final long retainedBytes;
+        private final int entryCount;
+
+        private HotSpot(String path, long ownBytes, long retainedBytes, int entryCount) {
+            this.path = path;
+            this.ownBytes = ownBytes;
+            this.retainedBytes = retainedBytes;
+            this.entryCount = entryCount;
+        }
+
+        /**
+         * @return the path of the node from the root, empty for the root.
+         */
+        public @NotNull String getPath() {
+            return path;
+        }
+
+        /**
+         * @return the estimated bytes of the node without its nested nodes.
+         */
+        public long getOwnBytes() {
+            return ownBytes;
+        }
+
+        /**
+         * @return the estimated bytes of the node with its nested nodes.
+         */
+        public long getRetainedBytes() {
+            return retainedBytes;
+        }
+
+        public int getEntryCount() {
+            return entryCount;
+        }
+
+        @Override
+        public String toString() {
+            return "HotSpot{" +
+                    "path='" + path + '\'' +
+                    ", ownBytes=" + ownBytes +
+                    ", retainedBytes=" + retainedBytes +
+                    ", entryCount=" + entryCount +
+                    '}';
+        }
+    }
+
+    /**
+     * The latencies recorded for an operation, the bucket {@code i} counts
+     * the latencies between {@code 2^i} and {@code 2^(i + 1) - 1} nanoseconds,
+     * the first bucket counts the latencies below 2 nanoseconds too.
+     */
+    public static final class Histogram {
+        private final long[] buckets;
+        private final long count;
+        private final long totalNanos;
+
+        private Histogram(long[] buckets, long totalNanos) {
+            long count = 0;
+
+            for (long bucket : buckets) {
+                count += bucket;
+            }
+
+            this.buckets = buckets;
+            this.count = count;
+            this.totalNanos = totalNanos;
+        }
+
+        /**
+         * @return the amount of recorded latencies.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * @return the mean latency, or 0 if nothing was recorded.
+         */
+        public double getMeanNanos() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+
+        /**
+         * @param percentile - The percentile, between 0 and 100
+         * @throws IllegalArgumentException - If the percentile is out of range
+         * @return the upper bound of the bucket that holds the percentile,
+         * or 0 if nothing was recorded.
+         */
+        public long getPercentileNanos(double percentile) throws IllegalArgumentException {
+            if (percentile < 0 || percentile > 100)
+                throw new IllegalArgumentException("Percentile out of range: " + percentile);
+
+            if (count == 0) return 0;
+
+            long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+            long seen = 0;
+
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+
+                if (seen >= rank) return (1L << (i + 1)) - 1;
+            }
+
+            return Long.MAX_VALUE;
+        }
+
+        /**
+         * @return the amount of latencies recorded in every bucket.
+         */
+        public long @NotNull [] getBuckets() {
+            return buckets.clone();
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count + ", mean=" + (long) getMeanNanos() + "ns, p50=" + getPercentileNanos(50)
+                    + "ns, p99=" + getPercentileNanos(99) + "ns";
+        }
+
+        private static int bucket(long nanos) {
+            return 63 - Long.numberOfLeadingZeros(Math.max(nanos, 1));
+        }
+    }
+}
@@ -1,10 +1,10 @@
 package com.github.ynverxe.data;
 
-import com.github.ynverxe.data.util.PrimitiveTypeUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 
 /**
@@ -19,12 +19,72 @@ public class DataNode implements Cloneable, FunctionalDataContainer<String> {
     private static final Function<Object, Object> SEARCH_RESULT_MAPPER = o -> {
         if (o == NONEXISTENT_PATH) return null;
 
-        return o instanceof TypeProtectedValue ? ((TypeProtectedValue) o).getValue() : o;
+        return unwrap(o);
     };
     private static final Function<Object, Boolean> SEARCH_RESULT_PREDICATE = o -> o != NONEXISTENT_PATH;
     private static final Function<Object, Object> LAZY_SEARCH_RESULT_MAPPER = o -> o != NONEXISTENT_PATH ? o : null;
 
-    private final Map<String, Object> data;
+    /**
+     * Define if a node class overrides {@link #handleInternalValueAdd(String, Object, Object)},
+     * so unboxed values are only boxed when somebody listens.
+     */
+    private static final ClassValue<Boolean> VALUE_ADD_HOOK = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> current = type; current != DataNode.class; current = current.getSuperclass()) {
+                try {
+                    current.getDeclaredMethod("handleInternalValueAdd", String.class, Object.class, Object.class);
+                    return true;
+                } catch (NoSuchMethodException ignored) {
+                }
+            }
+
+            return false;
+        }
+    };
+
+    private Map<String, Object> data;
+
+    /**
+     * Define if the data map may be referenced by other nodes, in that
+     * case the map is copied before the first write.
+     */
+    private boolean shared;
+
+    /**
+     * Define if any nested node may be referenced from outside the tree,
+     * in that case the node can't share its data map when it is cloned.
+     */
+    private boolean exposedDescendants;
+
+    /**
+     * The node that holds this node and the key that holds it, used to
+     * resolve the full path of the changes made on nested nodes.
+     */
+    private DataNode parent;
+    private String parentKey;
+
+    /**
+     * Define if this node is held by a list, in that case the key of the
+     * parent identifies the list.
+     */
+    private boolean listElement;
+
+    private NodeObserver[] observers;
+
+    /**
+     * The estimated bytes retained by this node and the amount of values
+     * it holds, including the nested ones, updated on every write.
+     */
+    private long footprint = Footprint.NODE_BYTES;
+    private int entryCount;
+    private NodeQuota quota;
+
+    /**
+     * Define if this node was defragmented from a fragmented value held
+     * by the parent, that counts the fragmented value instead of this node.
+     */
+    private boolean fragment;
 
     /**
      * Only for internal uses.
@@ -38,7 +98,7 @@ public class DataNode implements Cloneable, FunctionalDataContainer<String> {
      * Creates a new node.
      */
     public DataNode() {
-        this(new HashMap<>());
+        this(new ShapedMap());
     }
 
     /**
@@ -52,29 +112,113 @@ public class DataNode implements Cloneable, FunctionalDataContainer<String> {
      * will not be removed.
      *
      * @return A map with the entries that were cleared.
+     * @see #reset(boolean)
      */
     public @NotNull Map<String, Object> clear() {
         Map<String, Object> objectMap = new HashMap<>();
+        long bytes = 0;
+        int entries = 0;
 
-        for (Map.Entry<String, Object> entry : data.entrySet()) {
+        for (Map.Entry<String, Object> entry : ownEntries().entrySet()) {
             Object value = entry.getValue();
+            // slots and fragmented values are returned as they were stored
+            Object cleared = value instanceof TypeProtectedValue ? value : observedValue(value);
 
             if (value instanceof TypeProtectedValue) {
                 TypeProtectedValue typeProtectedValue = (TypeProtectedValue) value;
 
-                if (!typeProtectedValue.offer(null)) continue;
+                if (!accepts(typeProtectedValue, null)) continue;
+
+                bytes -= Footprint.bytes(typeProtectedValue.getValue());
+                entries -= Footprint.entries(typeProtectedValue.getValue());
 
+                unlink(typeProtectedValue.getValue());
                 typeProtectedValue.setValue(null);
             } else {
+                bytes -= Footprint.bytes(value);
+                entries -= Footprint.entries(value);
+
+                unlink(value);
                 entry.setValue(null);
             }
 
-            objectMap.put(entry.getKey(), value);
+            objectMap.put(entry.getKey(), cleared);
+
+            if (isObserved()) {
+                notifyChange(entry.getKey(), observedValue(value), null, true);
+            }
         }
 
+        account(bytes, entries);
+
         return objectMap;
     }
 
+    /**
+     * Clears the node content as {@link #clear()} does, without collecting
+     * the cleared entries.
+     *
+     * The keys of the cleared entries are kept, so filling the node again
+     * with the same keys reuses its storage.
+     */
+    public void reset() {
+        reset(false);
+    }
+
+    /**
+     * Clears the node content as {@link #clear()} does, without collecting
+     * the cleared entries.
+     *
+     * @param removeEntries - If the entries that are not held by a {@link TypeProtectedValue}
+     *                      must be removed, instead of keeping their keys without value
+     */
+    public void reset(boolean removeEntries) {
+        Map<String, Object> entries = ownEntries();
+        boolean observed = isObserved();
+        long bytes = 0;
+        int count = 0;
+        int removed = 0;
+
+        for (Map.Entry<String, Object> entry : entries.entrySet()) {
+            Object value = entry.getValue();
+
+            if (value instanceof TypeProtectedValue) {
+                TypeProtectedValue typeProtectedValue = (TypeProtectedValue) value;
+
+                if (!accepts(typeProtectedValue, null)) continue;
+
+                bytes -= Footprint.bytes(typeProtectedValue.getValue());
+                count -= Footprint.entries(typeProtectedValue.getValue());
+
+                unlink(typeProtectedValue.getValue());
+                typeProtectedValue.setValue(null);
+            } else {
+                bytes -= Footprint.bytes(value);
+                count -= Footprint.entries(value);
+                removed++;
+
+                unlink(value);
+                entry.setValue(null);
+            }
+
+            if (observed) {
+                notifyChange(entry.getKey(), observedValue(value), null, true);
+            }
+        }
+
+        if (removeEntries && removed != 0) {
+            if (entries instanceof ShapedMap) {
+                ((ShapedMap) entries).removeNullValues();
+            } else {
+                entries.values().removeIf(Objects::isNull);
+            }
+
+            bytes -= removed * Footprint.ENTRY_BYTES;
+        }
+
+        account(bytes, count);
+    }
+
     /**
      * Puts a new value into the node.
      *
@@ -94,319 +238,1619 @@ public class DataNode implements Cloneable, FunctionalDataContainer<String> {
             value = ((Fragmented) value).defragment();
         }
 
-        Object realValue = value instanceof TypeProtectedValue ? ((TypeProtectedValue) value).getValue() : value;
-
-        if (!isSerializable(realValue)) {
-            throw new IllegalArgumentException(value + " is not apt for serialization");
-        }
-
+        Object normalized = normalize(value);
         Object found = valueSearch(path, LAZY_SEARCH_RESULT_MAPPER);
 
         if (found instanceof TypeProtectedValue) {
-            if (!((TypeProtectedValue) found).offer(realValue)) return false;
+            if (!accepts((TypeProtectedValue) found, offeredValue(value, normalized))) return false;
         }
 
-        return internalAdd(path, found, value);
+        return internalAdd(path, normalized);
     }
 
     /**
-     * Finds a stored list with using a path and append values.
+     * Puts a new value into the node using a compiled path.
      *
-     * @param path - The list path
-     * @param values - The values to append
-     * @return true if the values was correctly added to list, false otherwise.
+     * @param path - The value path
+     * @param value - The value to store
+     * @throws IllegalArgumentException - If the value is not serializable
+     *
+     * @return true, if the value has successfully added to the node, false if otherwise.
+     * @see #put(String, Object)
      */
-    @SuppressWarnings("rawtypes, unchecked")
-    public boolean addToList(@NotNull String path, boolean storeIfAbsent, @Nullable Object... values) {
-        if (values == null) values = new Object[0];
+    @SuppressWarnings("UnusedReturnValue")
+    public boolean put(@NotNull DataPath path, @Nullable Object value) throws IllegalArgumentException {
+        if (value instanceof Fragmented) {
+            value = ((Fragmented) value).defragment();
+        }
 
-        List list = getList(path);
+        Object normalized = normalize(value);
+        Object found = valueSearch(path, LAZY_SEARCH_RESULT_MAPPER);
 
-        if (storeIfAbsent && list == null) {
-            list = new ArrayList();
+        if (found instanceof TypeProtectedValue) {
+            if (!accepts((TypeProtectedValue) found, offeredValue(value, normalized))) return false;
         }
 
-        if (list != null) {
-            list.addAll(Arrays.asList(values));
-            return put(path, list);
+        return internalAdd(path, normalized);
+    }
+
+    /**
+     * Puts many values as a single operation.
+     *
+     * Every value is validated before anything is stored. The paths are
+     * grouped by their parent, so every parent node is resolved only once,
+     * and a path is applied before the paths under it. If any
+     * {@link TypeProtectedValue} rejects a value, every change made by
+     * this operation is rolled back.
+     *
+     * @param values - The values to store, by path
+     * @throws IllegalArgumentException - If any path is malformed or any value is not serializable, nothing is stored
+     * @return true if every value was stored, false if the operation was rolled back.
+     */
+    public boolean putAll(@NotNull Map<String, ?> values) throws IllegalArgumentException {
+        String[] keys = values.keySet().toArray(new String[0]);
+        Object[] normalized = new Object[keys.length];
+
+        for (int i = 0; i < keys.length; i++) {
+            normalized[i] = normalize(values.get(keys[i]));
         }
 
-        return false;
+        return putNormalized(keys, normalized);
     }
 
     /**
-     * Finds a stored list with using a path and remove values.
+     * Applies a {@link #putAll(Map)} whose values are already normalized.
      *
-     * @param path - The list path
-     * @param values - The values to remove
-     * @return true if the values was correctly removed from list, false otherwise.
+     * @param keys - The paths
+     * @param normalized - The normalized values, by path index
+     * @throws IllegalArgumentException - If any path is malformed, nothing is stored
      */
-    @SuppressWarnings("rawtypes, unchecked")
-    public boolean removeFromList(@NotNull String path, boolean storeIfAbsent, @NotNull Object... values) {
-        if (values == null) values = new Object[0];
+    boolean putNormalized(String[] keys, Object[] normalized) throws IllegalArgumentException {
+        PathGroup rootGroup = new PathGroup(-1);
+        Map<String, PathGroup> groups = new HashMap<>();
 
-        List list = getList(path);
+        for (int i = 0; i < keys.length; i++) {
+            String key = keys[i];
+            int separator = lastSeparator(key);
 
-        if (storeIfAbsent && list == null) {
-            list = new ArrayList();
+            if (separator == -1) {
+                rootGroup.add(i);
+            } else {
+                checkSegments(key, separator);
+                groups.computeIfAbsent(key.substring(0, separator), k -> new PathGroup(separator)).add(i);
+            }
         }
 
-        if (list != null) {
-            list.removeAll(Arrays.asList(values));
-            return put(path, list);
-        }
+        // shorter parents first, so a path is applied before the paths under it
+        List<PathGroup> ordered = new ArrayList<>(groups.size() + 1);
+        ordered.add(rootGroup);
+        ordered.addAll(groups.values());
+        ordered.sort(Comparator.comparingInt(group -> group.separator));
 
-        return false;
-    }
+        List<Undo> undoLog = new ArrayList<>();
 
-    @Override
-    public String toString() {
-        return data.toString();
-    }
+        for (PathGroup group : ordered) {
+            int separator = group.separator;
+            DataNode dataNode = this;
 
-    /**
-     * Clone this node.
-     *
-     * @return A new node with the data cloned from the current node.
-     */
-    @Override
-    @SuppressWarnings("MethodDoesntCallSuperMethod")
-    public DataNode clone() {
-        Map<String, Object> objectMap = new HashMap<>();
+            if (separator != -1) {
+                dataNode = parentForWrite(keys[group.members[0]], separator, undoLog);
+
+                if (dataNode == null) {
+                    rollback(undoLog);
+                    return false;
+                }
+            }
+
+            for (int m = 0; m < group.size; m++) {
+                int i = group.members[m];
+                String key = separator == -1 ? keys[i] : keys[i].substring(separator + 1);
+                Undo undo = new Undo(dataNode, key);
 
-        data.forEach((k, v) -> objectMap.put(k, tryNormalize(v)));
+                if (!dataNode.performValueAdd(key, normalized[i])) {
+                    rollback(undoLog);
+                    return false;
+                }
+
+                undoLog.add(undo);
+            }
+        }
 
-        return new DataNode(objectMap);
+        return true;
     }
 
     /**
-     * Finds a stored value using the provided path.
+     * Puts an int value that is kept unboxed, if the path already holds
+     * an unboxed number it is overwritten without allocations.
      *
      * @param path - The value path
-     * @return The value if exists, otherwise null.
+     * @param value - The value to store
+     * @return true, if the value has successfully added to the node, false if otherwise.
      */
-    @Override
-    public @Nullable Object get(@NotNull String path) {
-        Object found = valueSearch(path, SEARCH_RESULT_MAPPER);
-
-        return found instanceof List ? Collections.unmodifiableList((List<?>) found) : found;
+    public boolean putInt(@NotNull String path, int value) {
+        return putNumber(path, NumberSlot.INT, value);
     }
 
     /**
-     * Check if the provided path exists.
-     *
-     * @param path - The path
-     * @return true if the entire path exists, false if not.
+     * @see #putInt(String, int)
      */
-    @Override
-    public boolean has(@NotNull String path) {
-        return valueSearch(path, SEARCH_RESULT_PREDICATE);
+    public boolean putInt(@NotNull DataPath path, int value) {
+        return putNumber(path, NumberSlot.INT, value);
     }
 
     /**
-     * Identify the type of any value in the current node.
-     *
-     * @param path - The value path
-     * @param expectedType - The expected value type
-     * @return true if the found value is an instance of the expected type.
+     * @see #putInt(String, int)
      */
-    @Override
-    public boolean identify(String path, Class<?> expectedType) {
-        return expectedType.isInstance(data.get(path));
+    public boolean putLong(@NotNull String path, long value) {
+        return putNumber(path, NumberSlot.LONG, value);
     }
 
     /**
-     * Consume another node.
-     *
-     * @param dataNode - The node that will be consumed.
+     * @see #putInt(String, int)
      */
-    public void consume(DataNode dataNode) {
-        dataNode.data.forEach(this::put);
+    public boolean putLong(@NotNull DataPath path, long value) {
+        return putNumber(path, NumberSlot.LONG, value);
     }
 
     /**
-     * Simplify the stored values of the current node, ideal for serialization.
-     *
-     * @return A map with the simplified values.
+     * @see #putInt(String, int)
      */
-    public Map<String, Object> simplify() {
-        Map<String, Object> objectMap = new HashMap<>();
+    public boolean putFloat(@NotNull String path, float value) {
+        return putNumber(path, NumberSlot.FLOAT, Float.floatToRawIntBits(value));
+    }
 
-        data.forEach((k, v) -> objectMap.put(k, trySimplify(v)));
+    /**
+     * @see #putInt(String, int)
+     */
+    public boolean putFloat(@NotNull DataPath path, float value) {
+        return putNumber(path, NumberSlot.FLOAT, Float.floatToRawIntBits(value));
+    }
 
-        return objectMap;
+    /**
+     * @see #putInt(String, int)
+     */
+    public boolean putDouble(@NotNull String path, double value) {
+        return putNumber(path, NumberSlot.DOUBLE, Double.doubleToRawLongBits(value));
     }
 
     /**
-     * Handles the internal value add event.
-     *
-     * @param path - The value path
-     * @param previous - The previous value associated with the path
-     * @param value    - The mutated value
+     * @see #putInt(String, int)
      */
-    protected void handleInternalValueAdd(String path, Object previous, Object value) {}
+    public boolean putDouble(@NotNull DataPath path, double value) {
+        return putNumber(path, NumberSlot.DOUBLE, Double.doubleToRawLongBits(value));
+    }
 
     /**
-     * Protects a value to guarantee that the value of the specified path
-     * is always of a specific type or never null.
+     * Puts a fragmented value that is only defragmented when it is first
+     * read, through a lookup, {@link #simplify()}, {@link #clone()} or a
+     * write under its path. The defragmented node is kept until the path
+     * is overwritten.
+     *
+     * If the path holds a {@link TypeProtectedValue}, the value is
+     * defragmented right away to be checked.
      *
      * @param path - The value path
-     * @param clazz - The value specify class
-     * @param value - The value
-     * @param nullable - Define if the value can be null
-     * @param <S> - The value type
-     * @param <T> - The children type
+     * @param value - The fragmented value
+     * @return true, if the value has successfully added to the node, false if otherwise.
+     * @see #put(String, Object)
      */
-    protected final <S, T extends S> void protectValue(String path, Class<S> clazz, T value, boolean nullable) {
-        put(path, new TypeProtectedValue(clazz, nullable, value));
-    }
+    public boolean putLazy(@NotNull String path, @NotNull Fragmented value) {
+        if (valueSearch(path, LAZY_SEARCH_RESULT_MAPPER) instanceof TypeProtectedValue) {
+            return put(path, value);
+        }
 
-    private <T> T valueSearch(String path, Function<Object, T> mapper) {
-        int i = path.indexOf(".");
+        int i = lastSeparator(path);
+        DataNode dataNode = parentForWrite(path, i);
 
-        if (i == -1) {
-            Object found = data.get(path);
+        return dataNode != null && dataNode.performLazyAdd(i == -1 ? path : path.substring(i + 1), value);
+    }
 
-            return mapper.apply(found);
-        } else {
-            checkPath(i, path);
+    /**
+     * @see #putLazy(String, Fragmented)
+     */
+    public boolean putLazy(@NotNull DataPath path, @NotNull Fragmented value) {
+        if (valueSearch(path, LAZY_SEARCH_RESULT_MAPPER) instanceof TypeProtectedValue) {
+            return put(path, value);
+        }
 
-            String nodeKey = path.substring(0, i);
-            String restOfPath = path.substring(i + 1);
+        DataNode dataNode = parentForWrite(path);
 
-            Object found = get(nodeKey);
+        return dataNode != null && dataNode.performLazyAdd(path.lastSegment(), value);
+    }
 
-            if (found instanceof DataNode) {
-                return ((DataNode) found).valueSearch(restOfPath, mapper);
-            }
-        }
+    /**
+     * Finds a stored list with using a path and append values.
+     *
+     * The stored list is not copied, so appending is amortized constant
+     * per appended value.
+     *
+     * @param path - The list path
+     * @param values - The values to append
+     * @throws IllegalArgumentException - If any value is not serializable
+     * @return true if the values was correctly added to list, false otherwise.
+     */
+    public boolean addToList(@NotNull String path, boolean storeIfAbsent, @Nullable Object... values) {
+        if (values == null) values = new Object[0];
 
-        return mapper.apply(NONEXISTENT_PATH);
-    }
+        ValueList list = storedList(path, storeIfAbsent);
 
-    private boolean performValueAdd(String key, Object previous, Object value) {
-        if (previous instanceof TypeProtectedValue) {
-            TypeProtectedValue typeProtectedValue = (TypeProtectedValue) previous;
+        if (list == null) return false;
 
-            if (!typeProtectedValue.offer(value)) return false;
+        Object[] elements = new Object[values.length];
 
-            typeProtectedValue.setValue(value);
-        } else {
-            data.put(key, value);
+        for (int i = 0; i < values.length; i++) {
+            elements[i] = normalize(values[i]);
         }
 
-        handleInternalValueAdd(key, previous, value);
-        return true;
+        return store(path, list.append(elements));
     }
 
-    private boolean internalAdd(
-            String key,
-            Object previous,
-            Object object
-    ) {
-        if ("".equals(key))
-            throw new IllegalArgumentException("Empty key");
+    /**
+     * Finds a stored list with using a path and remove values.
+     *
+     * @param path - The list path
+     * @param values - The values to remove
+     * @return true if the values was correctly removed from list, false otherwise.
+     */
+    public boolean removeFromList(@NotNull String path, boolean storeIfAbsent, @NotNull Object... values) {
+        if (values == null) values = new Object[0];
 
-        object = tryNormalize(object);
+        ValueList list = storedList(path, storeIfAbsent);
 
-        int i = key.indexOf(".");
+        return list != null && store(path, list.removeAll(values));
+    }
 
-        DataNode dataNode = this;
+    /**
+     * Stores a list that is already normalized.
+     */
+    private boolean store(String path, ValueList list) {
+        Object found = valueSearch(path, LAZY_SEARCH_RESULT_MAPPER);
 
-        if (i != -1) {
-            checkPath(i, key);
+        if (found instanceof TypeProtectedValue) {
+            if (!accepts((TypeProtectedValue) found, list)) return false;
+        }
 
-            while ((i = key.indexOf(".")) != -1) {
-                String nodePath = key.substring(0, i);
-                key = key.substring(i + 1);
+        return internalAdd(path, list);
+    }
 
-                Object found = dataNode.valueSearch(nodePath, LAZY_SEARCH_RESULT_MAPPER);
+    private boolean store(DataPath path, ValueList list) {
+        Object found = valueSearch(path, LAZY_SEARCH_RESULT_MAPPER);
 
-                if (found instanceof DataNode) {
-                    dataNode = (DataNode) found;
-                } else {
-                    DataNode newNode = new DataNode();
+        if (found instanceof TypeProtectedValue) {
+            if (!accepts((TypeProtectedValue) found, list)) return false;
+        }
 
-                    if (!dataNode.performValueAdd(nodePath, found, newNode)) {
-                        return false;
-                    }
+        return internalAdd(path, list);
+    }
 
-                    dataNode = newNode;
-                }
-            }
+    /**
+     * @return the list stored in the path, an empty list if there is none
+     * and it should be stored, otherwise null.
+     */
+    private ValueList storedList(String path, boolean storeIfAbsent) {
+        Object found = valueSearch(path, SEARCH_RESULT_MAPPER);
 
-            if (dataNode == this)
-                return false;
+        if (found instanceof ValueList) {
+            return (ValueList) found;
         }
 
-        return dataNode.performValueAdd(key, previous, object);
+        return storeIfAbsent ? ValueList.EMPTY : null;
     }
 
-    private static void checkPath(int j, String key) {
-        if (j == 0 || j + 1 >= key.length())
-            throw new IllegalArgumentException("Malformed key path");
+    @Override
+    public String toString() {
+        return data.toString();
     }
 
-    private static Object trySimplify(Object obj) {
-        if (obj instanceof Collection) {
-            List list = new ArrayList();
-
+    /**
+     * Clone this node.
+     *
+     * The clone shares the data of this node until any of them is
+     * modified, then only the modified nodes are copied, so cloning is
+     * cheap and both nodes remain independent.
+     *
+     * @return A new node with the data cloned from the current node.
+     */
+    @Override
+    @SuppressWarnings("MethodDoesntCallSuperMethod")
+    public DataNode clone() {
+        if (!DataMetrics.enabled) return copy();
+
+        DataMetrics.Sample sample = DataMetrics.begin(DataMetrics.CLONE);
+
+        try {
+            return copy();
+        } finally {
+            DataMetrics.end(sample);
+        }
+    }
+
+    private DataNode copy() {
+        if (data instanceof EmptyMap) {
+            return new DataNode();
+        }
+
+        if (exposedDescendants) {
+            DataNode clone = new DataNode(null);
+            copyFootprint(clone);
+            clone.data = copyEntries(data, clone);
+
+            return clone;
+        }
+
+        DataNode clone = new DataNode(data);
+        copyFootprint(clone);
+        clone.shared = true;
+        shared = true;
+
+        return clone;
+    }
+
+    /**
+     * Drops the content and the state of this node, so it can be used as
+     * a new node, see {@link DataNodePool}.
+     *
+     * @throws IllegalArgumentException - If the node is held by another node or it is observed
+     */
+    void recycle() throws IllegalArgumentException {
+        if (parent != null) throw new IllegalArgumentException("the node is held by another node");
+        if (observers != null) throw new IllegalArgumentException("the node is observed");
+
+        if (shared) {
+            data = new ShapedMap();
+        } else {
+            for (Object value : data.values()) {
+                unlink(value);
+            }
+
+            if (data instanceof ShapedMap) {
+                ((ShapedMap) data).reset();
+            } else {
+                data = new ShapedMap();
+            }
+        }
+
+        shared = false;
+        exposedDescendants = false;
+        footprint = Footprint.NODE_BYTES;
+        entryCount = 0;
+        quota = null;
+    }
+
+    private void copyFootprint(DataNode clone) {
+        clone.footprint = footprint;
+        clone.entryCount = entryCount;
+        clone.quota = quota;
+    }
+
+    /**
+     * Estimates the heap retained by this node, including its nested
+     * nodes and lists, assuming a 64-bit JVM with compressed references.
+     *
+     * The estimate is kept up to date by every write, so this method
+     * doesn't walk the node. A fragmented value that was stored lazily is
+     * counted as a reference even after it is read.
+     *
+     * @return The estimated bytes.
+     */
+    public long getEstimatedBytes() {
+        return footprint;
+    }
+
+    /**
+     * @return the amount of values held by this node, including the values
+     * held by its nested nodes and lists, and the nested nodes and lists themselves.
+     */
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Limits the content of this node, the writes made on this node or on
+     * its nested nodes that would exceed the quota are rejected, so
+     * {@link #put(String, Object)} returns false. The content that is
+     * already stored is kept even if it exceeds the quota.
+     *
+     * @param quota - The quota, or null to remove it
+     */
+    public void setQuota(@Nullable NodeQuota quota) {
+        this.quota = quota;
+    }
+
+    public @Nullable NodeQuota getQuota() {
+        return quota;
+    }
+
+    /**
+     * Takes an immutable view of the current content of this node.
+     *
+     * The snapshot shares the data of this node until this node is
+     * modified, so taking it is constant time unless nested nodes of this
+     * node were handed out since its last copy, then only the entries of
+     * this node are copied. The snapshot must be taken by the thread that
+     * writes this node, or while holding the lock that guards the writes,
+     * afterwards it can be read by any thread while the writes continue.
+     *
+     * @return The snapshot.
+     */
+    public @NotNull DataSnapshot snapshot() {
+        return new DataSnapshot(copy());
+    }
+
+    /**
+     * Copies this node and all its values immediately, the copy doesn't
+     * share any data with this node.
+     *
+     * Unlike {@link #clone()}, the copy never needs to copy shared data
+     * when it is modified, so it can be handed to another thread. Like
+     * {@link #clone()}, the copy and its nested nodes keep their quotas.
+     *
+     * @return A new node with the data copied from the current node.
+     */
+    public @NotNull DataNode deepClone() {
+        return ParallelTrees.deepCopy(this, null);
+    }
+
+    /**
+     * Copies this node and all its values immediately, copying the large
+     * subtrees in parallel.
+     *
+     * The node must not be modified until this method returns.
+     *
+     * @param pool - The pool that copies the subtrees
+     * @return A new node with the data copied from the current node.
+     * @see #deepClone()
+     */
+    public @NotNull DataNode deepClone(@NotNull ForkJoinPool pool) {
+        return ParallelTrees.deepCopy(this, pool);
+    }
+
+    /**
+     * Finds a stored value using the provided path.
+     *
+     * @param path - The value path
+     * @return The value if exists, otherwise null.
+     */
+    @Override
+    public @Nullable Object get(@NotNull String path) {
+        Object found = valueSearch(path, SEARCH_RESULT_MAPPER);
+
+        if (found instanceof DataNode || found instanceof ValueList && ((ValueList) found).holdsNodes()) {
+            found = exposedSearch(path);
+        }
+
+        return found;
+    }
+
+    /**
+     * Finds a stored value using the provided compiled path.
+     *
+     * @param path - The value path
+     * @return The value if exists, otherwise null.
+     */
+    @Override
+    public @Nullable Object get(@NotNull DataPath path) {
+        Object found = valueSearch(path, SEARCH_RESULT_MAPPER);
+
+        if (found instanceof DataNode || found instanceof ValueList && ((ValueList) found).holdsNodes()) {
+            found = exposedSearch(path);
+        }
+
+        return found;
+    }
+
+    /**
+     * Check if the provided compiled path exists.
+     *
+     * @param path - The path
+     * @return true if the entire path exists, false if not.
+     */
+    @Override
+    public boolean has(@NotNull DataPath path) {
+        return valueSearch(path, SEARCH_RESULT_PREDICATE);
+    }
+
+    /**
+     * Check if the provided path exists.
+     *
+     * @param path - The path
+     * @return true if the entire path exists, false if not.
+     */
+    @Override
+    public boolean has(@NotNull String path) {
+        return valueSearch(path, SEARCH_RESULT_PREDICATE);
+    }
+
+    /**
+     * Identify the type of any value in the current node.
+     *
+     * @param path - The value path
+     * @param expectedType - The expected value type
+     * @return true if the found value is an instance of the expected type.
+     */
+    @Override
+    public boolean identify(String path, Class<?> expectedType) {
+        return expectedType.isInstance(unwrap(data.get(path)));
+    }
+
+    @Override
+    public int getIntValue(@NotNull String path, int def) {
+        Object found = valueSearch(path, LAZY_SEARCH_RESULT_MAPPER);
+
+        if (found instanceof NumberSlot) return ((NumberSlot) found).intValue();
+
+        Number number = (Number) unwrap(found);
+
+        return number != null ? number.intValue() : def;
+    }
+
+    @Override
+    public int getIntValue(@NotNull DataPath path, int def) {
+        Object found = valueSearch(path, LAZY_SEARCH_RESULT_MAPPER);
+
+        if (found instanceof NumberSlot) return ((NumberSlot) found).intValue();
+
+        Number number = (Number) unwrap(found);
+
+        return number != null ? number.intValue() : def;
+    }
+
+    @Override
+    public long getLongValue(@NotNull String path, long def) {
+        Object found = valueSearch(path, LAZY_SEARCH_RESULT_MAPPER);
+
+        if (found instanceof NumberSlot) return ((NumberSlot) found).longValue();
+
+        Number number = (Number) unwrap(found);
+
+        return number != null ? number.longValue() : def;
+    }
+
+    @Override
+    public long getLongValue(@NotNull DataPath path, long def) {
+        Object found = valueSearch(path, LAZY_SEARCH_RESULT_MAPPER);
+
+        if (found instanceof NumberSlot) return ((NumberSlot) found).longValue();
+
+        Number number = (Number) unwrap(found);
+
+        return number != null ? number.longValue() : def;
+    }
+
+    @Override
+    public float getFloatValue(@NotNull String path, float def) {
+        Object found = valueSearch(path, LAZY_SEARCH_RESULT_MAPPER);
+
+        if (found instanceof NumberSlot) return ((NumberSlot) found).floatValue();
+
+        Number number = (Number) unwrap(found);
+
+        return number != null ? number.floatValue() : def;
+    }
+
+    @Override
+    public float getFloatValue(@NotNull DataPath path, float def) {
+        Object found = valueSearch(path, LAZY_SEARCH_RESULT_MAPPER);
+
+        if (found instanceof NumberSlot) return ((NumberSlot) found).floatValue();
+
+        Number number = (Number) unwrap(found);
+
+        return number != null ? number.floatValue() : def;
+    }
+
+    @Override
+    public double getDoubleValue(@NotNull String path, double def) {
+        Object found = valueSearch(path, LAZY_SEARCH_RESULT_MAPPER);
+
+        if (found instanceof NumberSlot) return ((NumberSlot) found).doubleValue();
+
+        Number number = (Number) unwrap(found);
+
+        return number != null ? number.doubleValue() : def;
+    }
+
+    @Override
+    public double getDoubleValue(@NotNull DataPath path, double def) {
+        Object found = valueSearch(path, LAZY_SEARCH_RESULT_MAPPER);
+
+        if (found instanceof NumberSlot) return ((NumberSlot) found).doubleValue();
+
+        Number number = (Number) unwrap(found);
+
+        return number != null ? number.doubleValue() : def;
+    }
+
+    /**
+     * Consume another node.
+     *
+     * @param dataNode - The node that will be consumed.
+     * @see DataPatch#diff(DataNode, DataNode)
+     */
+    public void consume(DataNode dataNode) {
+        dataNode.data.forEach((key, value) -> {
+            if (value instanceof LazyValue) {
+                Object current = ((LazyValue) value).current();
+
+                // a fragmented value that wasn't read stays lazy
+                if (current instanceof Fragmented) {
+                    putLazy(key, (Fragmented) current);
+                    return;
+                }
+
+                value = current;
+            }
+
+            put(key, value);
+        });
+    }
+
+    /**
+     * Simplify the stored values of the current node, ideal for serialization.
+     *
+     * @return A map with the simplified values.
+     */
+    public Map<String, Object> simplify() {
+        if (!DataMetrics.enabled) return simplifyEntries();
+
+        DataMetrics.Sample sample = DataMetrics.begin(DataMetrics.SIMPLIFY);
+
+        try {
+            return simplifyEntries();
+        } finally {
+            DataMetrics.end(sample);
+        }
+    }
+
+    private Map<String, Object> simplifyEntries() {
+        Map<String, Object> objectMap = new HashMap<>();
+
+        data.forEach((k, v) -> objectMap.put(k, trySimplify(v)));
+
+        return objectMap;
+    }
+
+    /**
+     * Simplify the stored values of the current node, the large subtrees
+     * are simplified in parallel.
+     *
+     * The node must not be modified until this method returns.
+     *
+     * @param pool - The pool that simplifies the subtrees
+     * @return A map with the simplified values.
+     * @see #simplify()
+     */
+    public Map<String, Object> simplify(@NotNull ForkJoinPool pool) {
+        return ParallelTrees.simplify(this, pool);
+    }
+
+    /**
+     * Handles the internal value add event.
+     *
+     * @param path - The value path
+     * @param previous - The previous value associated with the path
+     * @param value    - The mutated value
+     */
+    protected void handleInternalValueAdd(String path, Object previous, Object value) {}
+
+    /**
+     * Protects a value to guarantee that the value of the specified path
+     * is always of a specific type or never null.
+     *
+     * @param path - The value path
+     * @param clazz - The value specify class
+     * @param value - The value
+     * @param nullable - Define if the value can be null
+     * @param <S> - The value type
+     * @param <T> - The children type
+     */
+    protected final <S, T extends S> void protectValue(String path, Class<S> clazz, T value, boolean nullable) {
+        put(path, new TypeProtectedValue(clazz, nullable, value));
+    }
+
+    /**
+     * Only for internal uses, the returned map must not be modified.
+     *
+     * @return the map that holds the node entries.
+     */
+    Map<String, Object> entries() {
+        return data;
+    }
+
+    /**
+     * Finds a value without handing out the nodes of the path, so the
+     * found value must not be modified.
+     *
+     * @param path - The value path
+     * @return The value if exists, otherwise null.
+     */
+    Object find(String path) {
+        return valueSearch(path, SEARCH_RESULT_MAPPER);
+    }
+
+    Object find(DataPath path) {
+        return valueSearch(path, SEARCH_RESULT_MAPPER);
+    }
+
+    /**
+     * Stores a value that is already normalized, skipping the path
+     * parsing and the serialization checks.
+     *
+     * @param key - The entry key
+     * @param value - The normalized value
+     * @return true if the value was stored, false otherwise.
+     */
+    boolean putTrusted(String key, Object value) {
+        return performValueAdd(key, value);
+    }
+
+    /**
+     * Stores a number that is kept unboxed, skipping the path parsing.
+     *
+     * @param key - The entry key
+     * @param kind - The {@link NumberSlot} kind of the number
+     * @param bits - The bits of the number
+     * @return true if the value was stored, false otherwise.
+     * @see #putInt(String, int)
+     */
+    boolean putNumberTrusted(String key, byte kind, long bits) {
+        return performNumberAdd(key, kind, bits);
+    }
+
+    /**
+     * Removes the value of a path as {@link #clear()} removes every entry.
+     *
+     * @param path - The value path
+     * @return true if the value was removed or there was no value, false
+     * if it is held by a {@link TypeProtectedValue} that rejects null.
+     */
+    boolean remove(DataPath path) {
+        if (valueSearch(path, SEARCH_RESULT_MAPPER) == null) return true;
+
+        DataNode dataNode = parentForWrite(path);
+
+        return dataNode != null && dataNode.performRemove(path.lastSegment());
+    }
+
+    /**
+     * Replaces a range of the list stored in a path.
+     *
+     * @param path - The list path
+     * @param index - The index of the first replaced element
+     * @param deleted - The amount of replaced elements
+     * @param values - The values to insert
+     * @throws IllegalArgumentException - If any value is not serializable
+     * @return true if the range was replaced, false if there is no list
+     * that holds the range or the new list was rejected.
+     */
+    boolean splice(DataPath path, int index, int deleted, Object[] values) {
+        Object found = valueSearch(path, SEARCH_RESULT_MAPPER);
+
+        if (!(found instanceof ValueList)) return false;
+
+        ValueList list = (ValueList) found;
+
+        if (index < 0 || deleted < 0 || index + deleted > list.size()) return false;
+
+        Object[] elements = new Object[values.length];
+
+        for (int i = 0; i < values.length; i++) {
+            elements[i] = normalize(values[i]);
+        }
+
+        return store(path, list.splice(index, deleted, elements));
+    }
+
+    /**
+     * @return true if the protected value accepts the value, the rejections are counted.
+     */
+    private static boolean accepts(TypeProtectedValue typeProtectedValue, Object value) {
+        if (typeProtectedValue.offer(value)) return true;
+
+        if (DataMetrics.enabled) {
+            DataMetrics.rejection();
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the amount of segments of a dotted path.
+     */
+    private static int depth(String path) {
+        int depth = 1;
+
+        for (int i = path.indexOf('.'); i != -1; i = path.indexOf('.', i + 1)) {
+            depth++;
+        }
+
+        return depth;
+    }
+
+    /**
+     * @param stored - A value as it is stored in the entries map
+     * @return the value that the stored value represents.
+     */
+    static Object unwrap(Object stored) {
+        if (stored instanceof TypeProtectedValue) {
+            return ((TypeProtectedValue) stored).getValue();
+        } else if (stored instanceof NumberSlot) {
+            return ((NumberSlot) stored).box();
+        } else if (stored instanceof LazyValue) {
+            return ((LazyValue) stored).get();
+        }
+
+        return stored;
+    }
+
+    /**
+     * @param stored - A value as it is stored in the entries map
+     * @return the value reported to the observers, lazy values are not defragmented.
+     */
+    private static Object observedValue(Object stored) {
+        return stored instanceof LazyValue ? ((LazyValue) stored).current() : unwrap(stored);
+    }
+
+    private <T> T valueSearch(String path, Function<Object, T> mapper) {
+        if (DataMetrics.enabled) {
+            DataMetrics.lookup(depth(path));
+        }
+
+        return search(path, mapper);
+    }
+
+    private <T> T search(String path, Function<Object, T> mapper) {
+        int i = path.indexOf(".");
+
+        if (i == -1) {
+            Object found = data.get(path);
+
+            return mapper.apply(found);
+        } else {
+            checkPath(i, path);
+
+            String nodeKey = path.substring(0, i);
+            String restOfPath = path.substring(i + 1);
+
+            Object found = unwrap(data.get(nodeKey));
+
+            if (found instanceof DataNode) {
+                return ((DataNode) found).search(restOfPath, mapper);
+            }
+        }
+
+        return mapper.apply(NONEXISTENT_PATH);
+    }
+
+    private <T> T valueSearch(DataPath path, Function<Object, T> mapper) {
+        if (DataMetrics.enabled) {
+            DataMetrics.lookup(path.length());
+        }
+
+        DataNode dataNode = this;
+        int last = path.length() - 1;
+
+        for (int i = 0; i < last; i++) {
+            Object found = unwrap(dataNode.data.get(path.segment(i)));
+
+            if (!(found instanceof DataNode)) {
+                return mapper.apply(NONEXISTENT_PATH);
+            }
+
+            dataNode = (DataNode) found;
+        }
+
+        return mapper.apply(dataNode.data.get(path.lastSegment()));
+    }
+
+    /**
+     * Finds a value through nodes that are exclusively owned by this tree
+     * and marks them, so the found value can be safely handed out.
+     */
+    private Object exposedSearch(String path) {
+        DataNode dataNode = this;
+        int start = 0;
+        int i;
+
+        while ((i = path.indexOf('.', start)) != -1) {
+            // unsharing resets the mark, so it is set afterwards
+            Map<String, Object> entries = dataNode.ownEntries();
+            dataNode.exposedDescendants = true;
+            dataNode = (DataNode) unwrap(entries.get(path.substring(start, i)));
+            start = i + 1;
+        }
+
+        Map<String, Object> entries = dataNode.ownEntries();
+        dataNode.exposedDescendants = true;
+
+        return unwrap(entries.get(start == 0 ? path : path.substring(start)));
+    }
+
+    private Object exposedSearch(DataPath path) {
+        DataNode dataNode = this;
+        int last = path.length() - 1;
+
+        for (int i = 0; i < last; i++) {
+            Map<String, Object> entries = dataNode.ownEntries();
+            dataNode.exposedDescendants = true;
+            dataNode = (DataNode) unwrap(entries.get(path.segment(i)));
+        }
+
+        Map<String, Object> entries = dataNode.ownEntries();
+        dataNode.exposedDescendants = true;
+
+        return unwrap(entries.get(path.lastSegment()));
+    }
+
+    /**
+     * Registers an observer that will be notified about every change made
+     * on this node or any nested node, with the path relative to this node.
+     *
+     * @param observer - The observer
+     */
+    void addObserver(NodeObserver observer) {
+        if (observers == null) {
+            observers = new NodeObserver[]{observer};
+        } else {
+            observers = Arrays.copyOf(observers, observers.length + 1);
+            observers[observers.length - 1] = observer;
+        }
+    }
+
+    void removeObserver(NodeObserver observer) {
+        if (observers == null) return;
+
+        for (int i = 0; i < observers.length; i++) {
+            if (observers[i] == observer) {
+                NodeObserver[] remaining = new NodeObserver[observers.length - 1];
+                System.arraycopy(observers, 0, remaining, 0, i);
+                System.arraycopy(observers, i + 1, remaining, i, remaining.length - i);
+
+                observers = remaining.length == 0 ? null : remaining;
+                return;
+            }
+        }
+    }
+
+    private boolean isObserved() {
+        for (DataNode dataNode = this; dataNode != null; dataNode = dataNode.parent) {
+            if (dataNode.observers != null) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Notifies the observers of this node and of every ancestor, building
+     * the path relative to each of them.
+     */
+    private void notifyChange(String key, Object previous, Object value, boolean removal) {
+        String path = key;
+        DataNode dataNode = this;
+
+        while (dataNode != null) {
+            if (dataNode.observers != null) {
+                for (NodeObserver observer : dataNode.observers) {
+                    observer.valueChanged(path, previous, value, removal);
+                }
+            }
+
+            DataNode parent = dataNode.parent;
+
+            if (parent == null) break;
+
+            if (dataNode.listElement) {
+                // the list is reported as modified as a whole
+                path = dataNode.parentKey;
+                previous = value = unwrap(parent.data.get(path));
+                removal = false;
+            } else {
+                path = dataNode.parentKey + "." + path;
+            }
+
+            dataNode = parent;
+        }
+    }
+
+    /**
+     * Marks this node as the holder of the nodes contained by a stored value.
+     */
+    void link(String key, Object value) {
+        if (value instanceof DataNode) {
+            DataNode dataNode = (DataNode) value;
+
+            dataNode.parent = this;
+            dataNode.parentKey = key;
+            dataNode.listElement = false;
+            dataNode.fragment = false;
+        } else if (value instanceof TypeProtectedValue) {
+            link(key, ((TypeProtectedValue) value).getValue());
+        } else if (value instanceof LazyValue) {
+            DataNode dataNode = ((LazyValue) value).peek();
+
+            if (dataNode != null) {
+                linkFragment(key, dataNode);
+            }
+        } else if (value instanceof ValueList && ((ValueList) value).holdsNodes()) {
+            linkElements(key, (ValueList) value);
+        }
+    }
+
+    /**
+     * Links a node defragmented from a value held by this node, the
+     * changes made on it are not counted by this node.
+     */
+    void linkFragment(String key, DataNode dataNode) {
+        link(key, dataNode);
+        dataNode.fragment = true;
+    }
+
+    private void linkElements(String key, ValueList list) {
+        for (Object o : list) {
+            if (o instanceof DataNode) {
+                DataNode dataNode = (DataNode) o;
+
+                dataNode.parent = this;
+                dataNode.parentKey = key;
+                dataNode.listElement = true;
+                dataNode.fragment = false;
+            } else if (o instanceof ValueList && ((ValueList) o).holdsNodes()) {
+                linkElements(key, (ValueList) o);
+            }
+        }
+    }
+
+    /**
+     * Detaches the nodes contained by a value that is no longer held by this node.
+     */
+    private void unlink(Object value) {
+        if (value instanceof DataNode) {
+            DataNode dataNode = (DataNode) value;
+
+            if (dataNode.parent == this) {
+                dataNode.parent = null;
+                dataNode.parentKey = null;
+            }
+        } else if (value instanceof TypeProtectedValue) {
+            unlink(((TypeProtectedValue) value).getValue());
+        } else if (value instanceof LazyValue) {
+            unlink(((LazyValue) value).peek());
+        } else if (value instanceof ValueList && ((ValueList) value).holdsNodes()) {
+            for (Object o : (ValueList) value) {
+                unlink(o);
+            }
+        }
+    }
+
+    /**
+     * @return the data map, copied first if it is shared with other nodes.
+     */
+    private Map<String, Object> ownEntries() {
+        if (shared) {
+            data = copyEntries(data, this);
+            shared = false;
+            exposedDescendants = false;
+        }
+
+        return data;
+    }
+
+    long footprint() {
+        return footprint;
+    }
+
+    int entryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Applies the change of a write to this node and its ancestors,
+     * checking the quotas found on the way.
+     *
+     * @param bytes - The bytes added by the write
+     * @param entries - The values added by the write
+     * @param value - The value being stored, used to measure its depth
+     * @return true, if every quota allows the write, false if otherwise.
+     */
+    private boolean reserve(long bytes, int entries, Object value) {
+        int height = 0;
+        boolean measured = value == null;
+        int depth = 0;
+
+        for (DataNode dataNode = this; ; dataNode = dataNode.parent, depth++) {
+            NodeQuota quota = dataNode.quota;
+
+            if (quota != null) {
+                if (!measured && quota.limitsDepth()) {
+                    height = Footprint.height(value);
+                    measured = true;
+                }
+
+                if (!quota.allows(dataNode.footprint, dataNode.entryCount, bytes, entries, value == null ? 0 : depth + 1 + height)) {
+                    // undo the nodes that were already updated
+                    for (DataNode updated = this; updated != dataNode; updated = updated.parent) {
+                        updated.footprint -= bytes;
+                        updated.entryCount -= entries;
+                    }
+
+                    if (DataMetrics.enabled) {
+                        DataMetrics.rejection();
+                    }
+
+                    return false;
+                }
+            }
+
+            dataNode.footprint += bytes;
+            dataNode.entryCount += entries;
+
+            if (dataNode.fragment || dataNode.parent == null) return true;
+        }
+    }
+
+    /**
+     * Applies the change of a write to this node and its ancestors
+     * without checking the quotas, used by the writes that release data.
+     */
+    private void account(long bytes, int entries) {
+        if (bytes == 0 && entries == 0) return;
+
+        for (DataNode dataNode = this; dataNode != null; dataNode = dataNode.parent) {
+            dataNode.footprint += bytes;
+            dataNode.entryCount += entries;
+
+            if (dataNode.fragment) return;
+        }
+    }
+
+    private boolean performValueAdd(String key, Object value) {
+        Map<String, Object> entries = ownEntries();
+        Object previous = entries.get(key);
+        Object replaced = previous;
+
+        if (previous instanceof TypeProtectedValue) {
+            replaced = ((TypeProtectedValue) previous).getValue();
+
+            if (!accepts((TypeProtectedValue) previous, value)) return false;
+        }
+
+        long bytes = Footprint.bytes(value) - Footprint.bytes(replaced);
+
+        if (previous == null && !entries.containsKey(key)) {
+            bytes += Footprint.ENTRY_BYTES;
+        }
+
+        if (!reserve(bytes, Footprint.entries(value) - Footprint.entries(replaced), value)) return false;
+
+        if (previous instanceof TypeProtectedValue) {
+            unlink(replaced);
+            ((TypeProtectedValue) previous).setValue(value);
+        } else {
+            unlink(previous);
+            entries.put(key, value);
+        }
+
+        if (DataMetrics.enabled) {
+            DataMetrics.write();
+        }
+
+        link(key, value);
+        handleInternalValueAdd(key, previous, value);
+
+        if (isObserved()) {
+            notifyChange(key, observedValue(previous), observedValue(value), false);
+        }
+
+        return true;
+    }
+
+    private boolean performRemove(String key) {
+        Map<String, Object> entries = ownEntries();
+        Object previous = entries.get(key);
+
+        if (previous instanceof TypeProtectedValue) {
+            TypeProtectedValue typeProtectedValue = (TypeProtectedValue) previous;
+
+            if (!accepts(typeProtectedValue, null)) return false;
+
+            account(-Footprint.bytes(typeProtectedValue.getValue()), -Footprint.entries(typeProtectedValue.getValue()));
+            unlink(typeProtectedValue.getValue());
+            typeProtectedValue.setValue(null);
+        } else {
+            long bytes = -Footprint.bytes(previous);
+
+            if (previous == null && !entries.containsKey(key)) {
+                bytes += Footprint.ENTRY_BYTES;
+            }
+
+            account(bytes, -Footprint.entries(previous));
+            unlink(previous);
+            entries.put(key, null);
+        }
+
+        handleInternalValueAdd(key, previous, null);
+
+        if (isObserved()) {
+            notifyChange(key, observedValue(previous), null, true);
+        }
+
+        return true;
+    }
+
+    private boolean performLazyAdd(String key, Fragmented value) {
+        return performValueAdd(key, new LazyValue(value, this, key));
+    }
+
+    private boolean performNumberAdd(String key, byte kind, long bits) {
+        Map<String, Object> entries = ownEntries();
+        Object previous = entries.get(key);
+
+        if (previous instanceof NumberSlot) {
+            NumberSlot slot = (NumberSlot) previous;
+
+            if (DataMetrics.enabled) {
+                DataMetrics.write();
+            }
+
+            boolean observed = isObserved();
+
+            if (observed || VALUE_ADD_HOOK.get(getClass())) {
+                Number previousValue = slot.box();
+                slot.set(kind, bits);
+
+                handleInternalValueAdd(key, previousValue, slot.box());
+
+                if (observed) {
+                    notifyChange(key, previousValue, slot.box(), false);
+                }
+            } else {
+                slot.set(kind, bits);
+            }
+
+            return true;
+        }
+
+        if (previous instanceof TypeProtectedValue) {
+            return performValueAdd(key, NumberSlot.box(kind, bits));
+        }
+
+        return performValueAdd(key, new NumberSlot(kind, bits));
+    }
+
+    private boolean internalAdd(String key, Object object) {
+        int i = lastSeparator(key);
+        DataNode dataNode = parentForWrite(key, i);
+
+        return dataNode != null && dataNode.performValueAdd(i == -1 ? key : key.substring(i + 1), object);
+    }
+
+    private boolean internalAdd(DataPath path, Object object) {
+        DataNode dataNode = parentForWrite(path);
+
+        return dataNode != null && dataNode.performValueAdd(path.lastSegment(), object);
+    }
+
+    private boolean putNumber(String path, byte kind, long bits) {
+        int i = lastSeparator(path);
+        DataNode dataNode = parentForWrite(path, i);
+
+        return dataNode != null && dataNode.performNumberAdd(i == -1 ? path : path.substring(i + 1), kind, bits);
+    }
+
+    private boolean putNumber(DataPath path, byte kind, long bits) {
+        DataNode dataNode = parentForWrite(path);
+
+        return dataNode != null && dataNode.performNumberAdd(path.lastSegment(), kind, bits);
+    }
+
+    /**
+     * Finds the node that holds the last segment of the path, creating
+     * the missing nodes.
+     *
+     * @param path - The value path
+     * @param end - The index of the last separator of the path
+     * @return the found node, or null if a protected value rejected a new node.
+     */
+    private DataNode parentForWrite(String path, int end) {
+        DataNode dataNode = this;
+        int start = 0;
+
+        while (start <= end) {
+            int i = path.indexOf('.', start);
+            checkSegment(start, i);
+
+            dataNode = dataNode.childForWrite(path.substring(start, i));
+
+            if (dataNode == null) return null;
+
+            start = i + 1;
+        }
+
+        return dataNode;
+    }
+
+    private DataNode parentForWrite(DataPath path) {
+        DataNode dataNode = this;
+        int last = path.length() - 1;
+
+        for (int i = 0; i < last && dataNode != null; i++) {
+            dataNode = dataNode.childForWrite(path.segment(i));
+        }
+
+        return dataNode;
+    }
+
+    private DataNode childForWrite(String key) {
+        Object found = ownEntries().get(key);
+
+        if (found instanceof DataNode) {
+            return (DataNode) found;
+        } else if (found instanceof LazyValue) {
+            return ((LazyValue) found).get();
+        }
+
+        DataNode newNode = new DataNode();
+
+        return performValueAdd(key, newNode) ? newNode : null;
+    }
+
+    private DataNode childForWrite(String key, List<Undo> undoLog) {
+        Object found = ownEntries().get(key);
+
+        if (found instanceof DataNode || found instanceof LazyValue) {
+            return childForWrite(key);
+        }
+
+        Undo undo = new Undo(this, key);
+        DataNode dataNode = childForWrite(key);
+
+        if (dataNode != null) {
+            undoLog.add(undo);
+        }
+
+        return dataNode;
+    }
+
+    private DataNode parentForWrite(String path, int end, List<Undo> undoLog) {
+        DataNode dataNode = this;
+        int start = 0;
+
+        while (start <= end && dataNode != null) {
+            int i = path.indexOf('.', start);
+
+            dataNode = dataNode.childForWrite(path.substring(start, i), undoLog);
+            start = i + 1;
+        }
+
+        return dataNode;
+    }
+
+    private static void rollback(List<Undo> undoLog) {
+        for (int i = undoLog.size() - 1; i >= 0; i--) {
+            undoLog.get(i).restore();
+        }
+    }
+
+    /**
+     * @return the index of the last separator of a path that is not empty
+     * and doesn't end with a separator, or -1 if there is no separator.
+     */
+    private static int lastSeparator(String path) {
+        if ("".equals(path))
+            throw new IllegalArgumentException("Empty key");
+
+        int i = path.lastIndexOf('.');
+        checkSegment(i + 1, path.length());
+
+        return i;
+    }
+
+    private static void checkSegment(int start, int end) {
+        if (start == end)
+            throw new IllegalArgumentException("Malformed key path");
+    }
+
+    /**
+     * Checks that the segments of a path before the provided separator are not empty.
+     */
+    private static void checkSegments(String path, int end) {
+        int start = 0;
+
+        while (start <= end) {
+            int i = path.indexOf('.', start);
+            checkSegment(start, i);
+
+            start = i + 1;
+        }
+    }
+
+    private static void checkPath(int j, String key) {
+        if (j == 0 || j + 1 >= key.length())
+            throw new IllegalArgumentException("Malformed key path");
+    }
+
+    private static Map<String, Object> copyEntries(Map<String, Object> entries, DataNode owner) {
+        Map<String, Object> copy = entries instanceof ShapedMap ? ((ShapedMap) entries).copy() : new HashMap<>(entries);
+        long bytes = 0;
+        int count = 0;
+
+        for (Map.Entry<String, Object> entry : copy.entrySet()) {
+            Object value = copyValue(entry.getValue());
+
+            if (value != entry.getValue()) {
+                // copied fragmented values are counted as the nodes they become
+                if (entry.getValue() instanceof LazyValue) {
+                    bytes += Footprint.bytes(value) - Footprint.bytes(entry.getValue());
+                    count += Footprint.entries(value) - Footprint.entries(entry.getValue());
+                }
+
+                owner.link(entry.getKey(), value);
+                entry.setValue(value);
+            }
+        }
+
+        owner.account(bytes, count);
+
+        return copy;
+    }
+
+    /**
+     * Copies a stored value for another tree, nested nodes are cloned
+     * and lists are only copied if they hold nodes, the rest of the
+     * values are immutable.
+     */
+    static Object copyValue(Object stored) {
+        if (stored instanceof DataNode) {
+            return ((DataNode) stored).copy();
+        } else if (stored instanceof TypeProtectedValue) {
+            TypeProtectedValue typeProtectedValue = (TypeProtectedValue) stored;
+
+            return typeProtectedValue.clone(copyValue(typeProtectedValue.getValue()));
+        } else if (stored instanceof NumberSlot) {
+            return ((NumberSlot) stored).copy();
+        } else if (stored instanceof LazyValue) {
+            return ((LazyValue) stored).get().copy();
+        } else if (stored instanceof ValueList && ((ValueList) stored).holdsNodes()) {
+            Object[] elements = ((ValueList) stored).toArray();
+
+            for (int i = 0; i < elements.length; i++) {
+                elements[i] = copyValue(elements[i]);
+            }
+
+            return ValueList.of(elements, elements.length);
+        }
+
+        return stored;
+    }
+
+    /**
+     * Copies a stored value and every value it holds without modifying
+     * them, unlike {@link #copyValue(Object)} the nested nodes are copied
+     * right away and the fragmented values that weren't read are not
+     * defragmented in place, so the value can be copied while another
+     * thread reads or copies it.
+     */
+    static Object detachValue(Object stored) {
+        if (stored instanceof TypeProtectedValue) {
+            TypeProtectedValue typeProtectedValue = (TypeProtectedValue) stored;
+
+            return typeProtectedValue.clone(detachValue(typeProtectedValue.getValue()));
+        } else if (stored instanceof NumberSlot) {
+            return ((NumberSlot) stored).copy();
+        } else if (stored instanceof LazyValue) {
+            return detachValue(((LazyValue) stored).view());
+        } else if (stored instanceof DataNode) {
+            DataNode dataNode = (DataNode) stored;
+            DataNode copy = new DataNode();
+
+            for (Map.Entry<String, Object> entry : dataNode.data.entrySet()) {
+                copy.putTrusted(entry.getKey(), detachValue(entry.getValue()));
+            }
+
+            copy.quota = dataNode.quota;
+
+            return copy;
+        } else if (stored instanceof ValueList && ((ValueList) stored).holdsNodes()) {
+            Object[] elements = ((ValueList) stored).toArray();
+
+            for (int i = 0; i < elements.length; i++) {
+                elements[i] = detachValue(elements[i]);
+            }
+
+            return ValueList.of(elements, elements.length);
+        }
+
+        return stored;
+    }
+
+    static Object trySimplify(Object obj) {
+        if (obj instanceof Collection) {
+            List list = new ArrayList();
+
             for (Object o : (Collection) obj) {
                 list.add(trySimplify(o));
             }
 
             return list;
         } else if (obj instanceof DataNode) {
-            return ((DataNode) obj).simplify();
+            return ((DataNode) obj).simplifyEntries();
         } else if (obj instanceof TypeProtectedValue) {
             return trySimplify(((TypeProtectedValue) obj).getValue());
+        } else if (obj instanceof NumberSlot) {
+            return ((NumberSlot) obj).box();
+        } else if (obj instanceof LazyValue) {
+            return ((LazyValue) obj).get().simplifyEntries();
         }
 
         return obj;
     }
 
-    private static Object tryNormalize(Object obj) {
-        if (obj instanceof Collection) {
-            List list = new ArrayList();
+    /**
+     * Validates and converts a value to the form it is stored in, walking
+     * the value only once.
+     *
+     * @throws IllegalArgumentException - If the value, or any value it holds, is not serializable
+     */
+    static Object normalize(Object value) {
+        if (!DataMetrics.enabled) return normalizeValue(value);
 
-            for (Object o : (Collection) obj) {
-                if (!isSerializable(o)) {
-                    throw new IllegalStateException(o + " is not a serializable type");
+        DataMetrics.Sample sample = DataMetrics.begin(DataMetrics.NORMALIZE);
+
+        try {
+            return normalizeValue(value);
+        } finally {
+            DataMetrics.end(sample);
+        }
+    }
+
+    private static Object normalizeValue(Object value) {
+        switch (SerializableTypes.kind(value)) {
+            case VALUE:
+                return value;
+            case NODE:
+                return ((DataNode) value).copy();
+            case NUMBER_SLOT:
+                return ((NumberSlot) value).copy();
+            case PROTECTED:
+                TypeProtectedValue typeProtectedValue = (TypeProtectedValue) value;
+
+                return typeProtectedValue.clone(normalizeValue(typeProtectedValue.getValue()));
+            case COLLECTION:
+                if (value instanceof ValueList && !((ValueList) value).holdsNodes()) {
+                    return value;
                 }
 
-                list.add(tryNormalize(o));
-            }
+                Object[] elements = ((Collection<?>) value).toArray();
 
-            return list;
-        } else if (obj instanceof Map) {
-            return fromMap((Map<String, ?>) obj);
-        } else if (obj instanceof DataNode) {
-            return ((DataNode) obj).clone();
-        } else if (obj instanceof TypeProtectedValue) {
-            TypeProtectedValue typeProtectedValue = (TypeProtectedValue) obj;
-            Object realValue = typeProtectedValue.getValue();
+                for (int i = 0; i < elements.length; i++) {
+                    elements[i] = normalizeValue(elements[i]);
+                }
 
-            return typeProtectedValue.clone(tryNormalize(realValue));
+                return ValueList.of(elements, elements.length);
+            case MAP:
+                return fromMap((Map<String, ?>) value);
+            case FRAGMENTED:
+                return normalizeValue(((Fragmented) value).defragment());
+            case CONVERTED:
+                return normalizeValue(SerializableTypes.convert(value));
+            default:
+                throw new IllegalArgumentException(value + " is not apt for serialization");
         }
-
-        return obj;
     }
 
-    @SuppressWarnings("BooleanMethodIsAlwaysInverted")
-    private static boolean isSerializable(Object o) {
-        if (o instanceof Collection) {
-            for (Object element : (Collection<?>) o) {
-                if (!isSerializable(element)) return false;
-            }
-        } else if (o instanceof Map) {
-            for (Map.Entry<String, ?> entry : ((Map<String, ?>) o).entrySet()) {
-                if (!isSerializable(entry.getValue())) return false;
-            }
-        } else {
-            return o instanceof DataNode || PrimitiveTypeUtil.isSerializable(o);
+    /**
+     * @param value - The value provided to be stored
+     * @param normalized - The normalized value
+     * @return the value that is offered to a {@link TypeProtectedValue}.
+     */
+    private static Object offeredValue(Object value, Object normalized) {
+        Object realValue = value instanceof TypeProtectedValue ? ((TypeProtectedValue) value).getValue() : value;
+
+        if (SerializableTypes.kind(realValue) == SerializableTypes.Kind.CONVERTED) {
+            return unwrap(normalized);
         }
 
-        return true;
+        return realValue;
     }
 
     /**
@@ -415,8 +1859,98 @@ public class DataNode implements Cloneable, FunctionalDataContainer<String> {
      */
     public static @NotNull DataNode fromMap(Map<String, ?> map) {
         DataNode dataNode = new DataNode();
-        map.forEach(dataNode::put);
+        dataNode.putAll(map);
 
         return dataNode;
     }
+
+    /**
+     * Creates a node from a map, normalizing the large nested maps and
+     * collections in parallel.
+     *
+     * @param map - The data map
+     * @param pool - The pool that normalizes the values
+     * @throws IllegalArgumentException - If any path is malformed or any value is not serializable
+     * @return a new node that contains the provided data.
+     * @see #fromMap(Map)
+     */
+    public static @NotNull DataNode fromMap(@NotNull Map<String, ?> map, @NotNull ForkJoinPool pool)
+            throws IllegalArgumentException {
+        return ParallelTrees.fromMap(map, pool);
+    }
+
+    /**
+     * The paths of a {@link #putAll(Map)} call that share the same parent.
+     */
+    private static final class PathGroup {
+        private final int separator;
+        private int[] members = new int[4];
+        private int size;
+
+        private PathGroup(int separator) {
+            this.separator = separator;
+        }
+
+        private void add(int member) {
+            if (size == members.length) {
+                members = Arrays.copyOf(members, size * 2);
+            }
+
+            members[size++] = member;
+        }
+    }
+
+    /**
+     * The state of an entry before it was written, used to roll back
+     * the entries written by {@link #putAll(Map)}.
+     */
+    private static final class Undo {
+        private final DataNode dataNode;
+        private final String key;
+        private final boolean existed;
+        private final Object stored;
+        private final Object protectedValue;
+
+        private Undo(DataNode dataNode, String key) {
+            Map<String, Object> entries = dataNode.ownEntries();
+
+            this.dataNode = dataNode;
+            this.key = key;
+            this.existed = entries.containsKey(key);
+            this.stored = entries.get(key);
+            this.protectedValue = stored instanceof TypeProtectedValue ? ((TypeProtectedValue) stored).getValue() : null;
+        }
+
+        private void restore() {
+            Map<String, Object> entries = dataNode.ownEntries();
+            Object current = observedValue(entries.get(key));
+
+            if (stored instanceof TypeProtectedValue) {
+                TypeProtectedValue typeProtectedValue = (TypeProtectedValue) stored;
+
+                dataNode.account(Footprint.bytes(protectedValue) - Footprint.bytes(typeProtectedValue.getValue()),
+                        Footprint.entries(protectedValue) - Footprint.entries(typeProtectedValue.getValue()));
+                dataNode.unlink(typeProtectedValue.getValue());
+                typeProtectedValue.setValue(protectedValue);
+            } else {
+                Object replaced = entries.get(key);
+
+                dataNode.account(Footprint.bytes(stored) - Footprint.bytes(replaced) - (existed ? 0 : Footprint.ENTRY_BYTES),
+                        Footprint.entries(stored) - Footprint.entries(replaced));
+                dataNode.unlink(replaced);
+
+                if (existed) {
+                    entries.put(key, stored);
+                } else {
+                    entries.remove(key);
+                }
+            }
+
+            dataNode.link(key, stored);
+
+            if (dataNode.isObserved()) {
+                dataNode.notifyChange(key, current, observedValue(stored), !existed);
+            }
+        }
+    }
 }
\ No newline at end of file
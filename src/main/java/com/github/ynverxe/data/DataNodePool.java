@@ -0,0 +1,81 @@
+package com.github.ynverxe.data;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Keeps released nodes to hand them out again, so the nodes that are
+ * built and discarded often, like the nodes of a request, reuse their
+ * storage instead of allocating it again.
+ *
+ * A released node is emptied, it must not be used by its previous owner
+ * afterwards. The nodes of a pool are only plain {@link DataNode} instances,
+ * the nested nodes of a released node are detached but not pooled, because
+ * they may still be referenced. Pools can be shared between threads.
+ */
+public final class DataNodePool {
+
+    private final DataNode[] nodes;
+    private int size;
+
+    /**
+     * @param capacity - The max amount of nodes kept by the pool
+     * @throws IllegalArgumentException - If the capacity is negative
+     */
+    public DataNodePool(int capacity) throws IllegalArgumentException {
+        if (capacity < 0) throw new IllegalArgumentException("negative capacity: " + capacity);
+
+        this.nodes = new DataNode[capacity];
+    }
+
+    /**
+     * @return an empty node, taken from the pool if it holds any.
+     */
+    public @NotNull DataNode acquire() {
+        synchronized (nodes) {
+            if (size != 0) {
+                DataNode dataNode = nodes[--size];
+                nodes[size] = null;
+
+                return dataNode;
+            }
+        }
+
+        return new DataNode();
+    }
+
+    /**
+     * Empties a node and keeps it to be acquired again.
+     *
+     * @param dataNode - The node that is no longer used
+     * @throws IllegalArgumentException - If the node is not a plain {@link DataNode}, if it
+     * is held by another node or if it is observed
+     * @return true, if the node was kept, false if the pool is full.
+     */
+    public boolean release(@NotNull DataNode dataNode) throws IllegalArgumentException {
+        if (dataNode.getClass() != DataNode.class || dataNode == DataNode.EMPTY)
+            throw new IllegalArgumentException("only plain nodes can be pooled");
+
+        dataNode.recycle();
+
+        synchronized (nodes) {
+            if (size == nodes.length) return false;
+
+            nodes[size++] = dataNode;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the amount of nodes ready to be acquired.
+     */
+    public int size() {
+        synchronized (nodes) {
+            return size;
+        }
+    }
+
+    public int getCapacity() {
+        return nodes.length;
+    }
+}
@@ -0,0 +1,410 @@
+package com.github.ynverxe.data;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.BiPredicate;
+
+/**
+ * The structural changes that turn a node into another one.
+ *
+ * A patch is a sequence of operations on paths: a {@link Type#SET} of a
+ * value, a {@link Type#REMOVE} of a value, and a {@link Type#SPLICE} that
+ * replaces a range of a list, so appending to a large list only ships
+ * the appended values. Nested nodes are compared entry by entry and the
+ * subtrees that still share their data with the other tree, like the
+ * unmodified parts of a clone, are skipped without walking them.
+ *
+ * A patch can be exported as a node, to be encoded by any codec.
+ */
+public final class DataPatch {
+
+    public static final String OPERATIONS_KEY = "operations";
+    public static final String TYPE_KEY = "type";
+    public static final String PATH_KEY = "path";
+    public static final String VALUE_KEY = "value";
+    public static final String INDEX_KEY = "index";
+    public static final String DELETED_KEY = "deleted";
+    public static final String INSERTED_KEY = "inserted";
+
+    private static final BiPredicate<Object, Object> SAME_VALUE = DataPatch::sameValue;
+
+    private final List<Operation> operations;
+
+    private DataPatch(List<Operation> operations) {
+        this.operations = operations;
+    }
+
+    /**
+     * Computes the changes that turn a node into another one, a missing
+     * value and a null value are the same.
+     *
+     * @param source - The node before the changes
+     * @param target - The node after the changes
+     * @return The patch, the nodes can be modified without affecting it.
+     */
+    public static @NotNull DataPatch diff(@NotNull DataNode source, @NotNull DataNode target) {
+        List<Operation> operations = new ArrayList<>();
+        diffNodes(source, target, new ArrayList<>(), operations);
+
+        return new DataPatch(operations);
+    }
+
+    /**
+     * Applies the changes to a node.
+     *
+     * Every operation is made through the node, so a value held by a
+     * {@link TypeProtectedValue} that rejects its new value is not
+     * modified and the rest of the operations are still applied.
+     *
+     * @param target - The node to modify
+     * @throws IllegalArgumentException - If any value is not serializable
+     * @return true if every operation was applied, false if any was rejected,
+     * or a spliced list doesn't exist or is shorter than expected.
+     */
+    public boolean apply(@NotNull DataNode target) throws IllegalArgumentException {
+        boolean applied = true;
+
+        for (Operation operation : operations) {
+            applied &= operation.applyTo(target);
+        }
+
+        return applied;
+    }
+
+    /**
+     * @return the operations, in the order they are applied.
+     */
+    public @NotNull List<Operation> getOperations() {
+        return Collections.unmodifiableList(operations);
+    }
+
+    /**
+     * @return true if the patch doesn't change anything.
+     */
+    public boolean isEmpty() {
+        return operations.isEmpty();
+    }
+
+    /**
+     * Exports the patch as a node with the {@code "operations"} list, every
+     * operation is a node with its {@code "type"}, {@code "path"} and the
+     * keys used by its type.
+     *
+     * @return The node.
+     */
+    public @NotNull DataNode toNode() {
+        List<DataNode> exported = new ArrayList<>(operations.size());
+
+        for (Operation operation : operations) {
+            DataNode dataNode = new DataNode();
+            dataNode.putTrusted(TYPE_KEY, operation.type.name().toLowerCase(Locale.ROOT));
+            dataNode.putTrusted(PATH_KEY, operation.path.toString());
+
+            switch (operation.type) {
+                case SET:
+                    dataNode.put(VALUE_KEY, operation.value);
+                    break;
+                case SPLICE:
+                    dataNode.putInt(INDEX_KEY, operation.index);
+                    dataNode.putInt(DELETED_KEY, operation.deleted);
+                    dataNode.put(INSERTED_KEY, Arrays.asList(operation.inserted));
+                    break;
+            }
+
+            exported.add(dataNode);
+        }
+
+        DataNode dataNode = new DataNode();
+        dataNode.put(OPERATIONS_KEY, exported);
+
+        return dataNode;
+    }
+
+    /**
+     * Reads a patch exported by {@link #toNode()}.
+     *
+     * @param dataNode - The exported patch
+     * @throws IllegalArgumentException - If the node is not an exported patch
+     * @return The patch.
+     */
+    public static @NotNull DataPatch fromNode(@NotNull DataNode dataNode) throws IllegalArgumentException {
+        List<DataNode> exported = dataNode.listOf(OPERATIONS_KEY, DataNode.class);
+
+        if (exported == null)
+            throw new IllegalArgumentException("Missing " + OPERATIONS_KEY + " list");
+
+        List<Operation> operations = new ArrayList<>(exported.size());
+
+        for (DataNode operation : exported) {
+            String type = operation.getString(TYPE_KEY);
+            String path = operation.getString(PATH_KEY);
+
+            if (type == null || path == null)
+                throw new IllegalArgumentException("Malformed operation: " + operation);
+
+            switch (type) {
+                case "set":
+                    operations.add(new Operation(Type.SET, DataPath.of(path), operation.get(VALUE_KEY), 0, 0, null));
+                    break;
+                case "remove":
+                    operations.add(new Operation(Type.REMOVE, DataPath.of(path), null, 0, 0, null));
+                    break;
+                case "splice":
+                    List<Object> inserted = operation.listOf(INSERTED_KEY, Object.class);
+                    int index = operation.getIntValue(INDEX_KEY, -1);
+                    int deleted = operation.getIntValue(DELETED_KEY, -1);
+
+                    if (inserted == null || index < 0 || deleted < 0)
+                        throw new IllegalArgumentException("Malformed operation: " + operation);
+
+                    operations.add(new Operation(Type.SPLICE, DataPath.of(path), null, index, deleted, inserted.toArray()));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown operation type: " + type);
+            }
+        }
+
+        return new DataPatch(operations);
+    }
+
+    @Override
+    public String toString() {
+        return operations.toString();
+    }
+
+    private static void diffNodes(DataNode source, DataNode target, List<String> segments, List<Operation> operations) {
+        Map<String, Object> sourceEntries = source.entries();
+        Map<String, Object> targetEntries = target.entries();
+
+        // a clone shares the data map until any of both nodes is modified
+        if (sourceEntries == targetEntries) return;
+
+        for (Map.Entry<String, Object> entry : targetEntries.entrySet()) {
+            Object previous = inner(sourceEntries.get(entry.getKey()));
+            Object value = inner(entry.getValue());
+
+            if (previous == value) continue;
+
+            segments.add(entry.getKey());
+
+            if (value == null) {
+                operations.add(new Operation(Type.REMOVE, path(segments), null, 0, 0, null));
+            } else if (previous instanceof DataNode && value instanceof DataNode) {
+                diffNodes((DataNode) previous, (DataNode) value, segments, operations);
+            } else if (previous instanceof ValueList && value instanceof ValueList) {
+                diffLists((ValueList) previous, (ValueList) value, segments, operations);
+            } else if (previous == null || !sameValue(previous, value)) {
+                operations.add(new Operation(Type.SET, path(segments), exported(value), 0, 0, null));
+            }
+
+            segments.remove(segments.size() - 1);
+        }
+
+        for (Map.Entry<String, Object> entry : sourceEntries.entrySet()) {
+            if (targetEntries.containsKey(entry.getKey()) || inner(entry.getValue()) == null) continue;
+
+            segments.add(entry.getKey());
+            operations.add(new Operation(Type.REMOVE, path(segments), null, 0, 0, null));
+            segments.remove(segments.size() - 1);
+        }
+    }
+
+    private static void diffLists(ValueList source, ValueList target, List<String> segments, List<Operation> operations) {
+        int prefix = source.commonPrefix(target, SAME_VALUE);
+
+        if (prefix == source.size() && prefix == target.size()) return;
+
+        int suffix = source.commonSuffix(target, Math.min(source.size(), target.size()) - prefix, SAME_VALUE);
+
+        if (prefix == 0 && suffix == 0) {
+            operations.add(new Operation(Type.SET, path(segments), exported(target), 0, 0, null));
+            return;
+        }
+
+        Object[] inserted = new Object[target.size() - prefix - suffix];
+
+        for (int i = 0; i < inserted.length; i++) {
+            inserted[i] = exported(target.get(prefix + i));
+        }
+
+        operations.add(new Operation(Type.SPLICE, path(segments), null,
+                prefix, source.size() - prefix - suffix, inserted));
+    }
+
+    /**
+     * @return true if both values hold the same data, a missing value and
+     * a null value are the same.
+     */
+    private static boolean sameValue(Object first, Object second) {
+        first = inner(first);
+        second = inner(second);
+
+        if (first == second) return true;
+
+        if (first instanceof NumberSlot || second instanceof NumberSlot) {
+            if (first instanceof NumberSlot && second instanceof NumberSlot) {
+                NumberSlot firstSlot = (NumberSlot) first;
+                NumberSlot secondSlot = (NumberSlot) second;
+
+                return firstSlot.kind() == secondSlot.kind() && firstSlot.bits() == secondSlot.bits();
+            }
+
+            return Objects.equals(DataNode.unwrap(first), DataNode.unwrap(second));
+        } else if (first instanceof DataNode && second instanceof DataNode) {
+            return sameNode((DataNode) first, (DataNode) second);
+        } else if (first instanceof ValueList && second instanceof ValueList) {
+            ValueList firstList = (ValueList) first;
+            ValueList secondList = (ValueList) second;
+
+            return firstList.size() == secondList.size()
+                    && firstList.commonPrefix(secondList, SAME_VALUE) == firstList.size();
+        }
+
+        return first != null && first.equals(second);
+    }
+
+    private static boolean sameNode(DataNode first, DataNode second) {
+        Map<String, Object> firstEntries = first.entries();
+        Map<String, Object> secondEntries = second.entries();
+
+        if (firstEntries == secondEntries) return true;
+
+        for (Map.Entry<String, Object> entry : firstEntries.entrySet()) {
+            if (!sameValue(entry.getValue(), secondEntries.get(entry.getKey()))) return false;
+        }
+
+        for (Map.Entry<String, Object> entry : secondEntries.entrySet()) {
+            if (!firstEntries.containsKey(entry.getKey()) && inner(entry.getValue()) != null) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the value held by a stored value, numbers are kept in their slots.
+     */
+    private static Object inner(Object stored) {
+        if (stored instanceof TypeProtectedValue) {
+            return inner(((TypeProtectedValue) stored).getValue());
+        } else if (stored instanceof LazyValue) {
+            return ((LazyValue) stored).get();
+        }
+
+        return stored;
+    }
+
+    /**
+     * @return a copy of a value for the patch, so the patch is not affected by later changes.
+     */
+    private static Object exported(Object value) {
+        if (value instanceof NumberSlot) {
+            return ((NumberSlot) value).box();
+        }
+
+        return DataNode.copyValue(value);
+    }
+
+    private static DataPath path(List<String> segments) {
+        return DataPath.of(segments.toArray(new String[0]));
+    }
+
+    /**
+     * The types of operation held by a patch.
+     */
+    public enum Type {
+        /**
+         * Stores a value in a path.
+         */
+        SET,
+        /**
+         * Removes the value of a path.
+         */
+        REMOVE,
+        /**
+         * Replaces a range of the list stored in a path.
+         */
+        SPLICE
+    }
+
+    public static final class Operation {
+        private final Type type;
+        private final DataPath path;
+        private final Object value;
+        private final int index;
+        private final int deleted;
+        private final Object[] inserted;
+
+        private Operation(Type type, DataPath path, Object value, int index, int deleted, Object[] inserted) {
+            this.type = type;
+            this.path = path;
+            this.value = value;
+            this.index = index;
+            this.deleted = deleted;
+            this.inserted = inserted;
+        }
+
+        public @NotNull Type getType() {
+            return type;
+        }
+
+        /**
+         * @return the modified path, relative to the patched node.
+         */
+        public @NotNull DataPath getPath() {
+            return path;
+        }
+
+        /**
+         * @return the value stored by a {@link Type#SET} operation.
+         */
+        public @Nullable Object getValue() {
+            return value;
+        }
+
+        /**
+         * @return the index of the first element replaced by a {@link Type#SPLICE} operation.
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return the amount of elements replaced by a {@link Type#SPLICE} operation.
+         */
+        public int getDeleted() {
+            return deleted;
+        }
+
+        /**
+         * @return the elements inserted by a {@link Type#SPLICE} operation.
+         */
+        public @NotNull List<Object> getInserted() {
+            return inserted == null ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(inserted));
+        }
+
+        private boolean applyTo(DataNode dataNode) {
+            switch (type) {
+                case SET:
+                    return dataNode.put(path, value);
+                case REMOVE:
+                    return dataNode.remove(path);
+                default:
+                    return dataNode.splice(path, index, deleted, inserted);
+            }
+        }
+
+        @Override
+        public String toString() {
+            switch (type) {
+                case SET:
+                    return "set " + path + " = " + value;
+                case REMOVE:
+                    return "remove " + path;
+                default:
+                    return "splice " + path + " [" + index + ", " + (index + deleted) + ") = " + Arrays.toString(inserted);
+            }
+        }
+    }
+}
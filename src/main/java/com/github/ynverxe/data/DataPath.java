@@ -0,0 +1,130 @@
+package com.github.ynverxe.data;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A precompiled dotted path.
+ *
+ * The path is split and validated only once, so lookups made with it
+ * don't need to parse or allocate strings on every call.
+ */
+public final class DataPath {
+
+    private final String path;
+    private final String[] segments;
+
+    private DataPath(String path, String[] segments) {
+        this.path = path;
+        this.segments = segments;
+    }
+
+    /**
+     * Compiles a dotted path.
+     *
+     * @param path - The dotted path
+     * @throws IllegalArgumentException - If the path is empty or malformed
+     * @return The compiled path.
+     */
+    public static @NotNull DataPath of(@NotNull String path) throws IllegalArgumentException {
+        if ("".equals(path))
+            throw new IllegalArgumentException("Empty key");
+
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        int i;
+
+        while ((i = path.indexOf('.', start)) != -1) {
+            checkSegment(start, i);
+
+            segments.add(path.substring(start, i));
+            start = i + 1;
+        }
+
+        checkSegment(start, path.length());
+        segments.add(start == 0 ? path : path.substring(start));
+
+        return new DataPath(path, segments.toArray(new String[0]));
+    }
+
+    /**
+     * Creates a path from already split segments.
+     *
+     * @param segments - The path segments
+     * @throws IllegalArgumentException - If there are no segments, or any of them is empty or contains a dot
+     * @return The compiled path.
+     */
+    public static @NotNull DataPath of(@NotNull String... segments) throws IllegalArgumentException {
+        if (segments.length == 0)
+            throw new IllegalArgumentException("Empty key");
+
+        for (String segment : segments) {
+            if (segment.isEmpty() || segment.indexOf('.') != -1)
+                throw new IllegalArgumentException("Malformed key path");
+        }
+
+        return new DataPath(String.join(".", segments), segments.clone());
+    }
+
+    /**
+     * @param key - The child key
+     * @return a new path pointing to a child of this path.
+     */
+    public @NotNull DataPath child(@NotNull String key) {
+        if (key.isEmpty() || key.indexOf('.') != -1)
+            throw new IllegalArgumentException("Malformed key path");
+
+        String[] childSegments = Arrays.copyOf(segments, segments.length + 1);
+        childSegments[segments.length] = key;
+
+        return new DataPath(path + "." + key, childSegments);
+    }
+
+    /**
+     * @return the amount of segments of this path.
+     */
+    public int length() {
+        return segments.length;
+    }
+
+    /**
+     * @param index - The segment index
+     * @return the segment at the provided index.
+     */
+    public @NotNull String segment(int index) {
+        return segments[index];
+    }
+
+    /**
+     * @return the last segment of this path.
+     */
+    public @NotNull String lastSegment() {
+        return segments[segments.length - 1];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DataPath)) return false;
+
+        return path.equals(((DataPath) o).path);
+    }
+
+    @Override
+    public int hashCode() {
+        return path.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+
+    private static void checkSegment(int start, int end) {
+        if (start == end)
+            throw new IllegalArgumentException("Malformed key path");
+    }
+}
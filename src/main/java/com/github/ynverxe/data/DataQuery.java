@@ -0,0 +1,609 @@
+package com.github.ynverxe.data;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A compiled query that finds the values of a node matching a pattern.
+ *
+ * A query is a dotted path whose segments can be a key, {@code *} that
+ * matches every value of a node or every element of a list, or
+ * {@code **} that matches the value it is applied to and all its
+ * descendants. Every segment can be followed by filters, a filter
+ * {@code [path op literal]} compares the value found in a path of the
+ * matched node with a literal, {@code [@ op literal]} compares the
+ * matched value itself and {@code [path]} only checks that the path
+ * exists. The operators are {@code == != < <= > >=}, the literals can be
+ * numbers, quoted strings, {@code true}, {@code false} and {@code null}.
+ * A query can end with a projection {@code {path, path}} that turns every
+ * matched node into a node with only the provided paths.
+ *
+ * <pre>
+ * guilds.*.members.*.rank
+ * guilds.*.members.*[rank >= 3]{name, rank}
+ * **.health[@ &lt; 10]
+ * </pre>
+ *
+ * The query is parsed once into a plan, and evaluating it walks the node
+ * without changing its values. The matched nodes are returned as clones,
+ * so the results remain valid when the node changes.
+ */
+public final class DataQuery {
+
+    private static final byte KEY = 0;
+    private static final byte WILDCARD = 1;
+    private static final byte DESCENT = 2;
+
+    private static final Object MISSING = new Object();
+
+    private final String query;
+    private final Step[] steps;
+    private final DataPath[] projection;
+
+    private DataQuery(String query, Step[] steps, DataPath[] projection) {
+        this.query = query;
+        this.steps = steps;
+        this.projection = projection;
+    }
+
+    /**
+     * Compiles a query.
+     *
+     * @param query - The query
+     * @throws IllegalArgumentException - If the query is empty or malformed
+     * @return The compiled query.
+     */
+    public static @NotNull DataQuery compile(@NotNull String query) throws IllegalArgumentException {
+        return new Parser(query).parse();
+    }
+
+    /**
+     * Finds the values matching this query, in the order they are stored.
+     *
+     * @param dataNode - The node to query
+     * @return a lazy stream with the matched values.
+     */
+    public @NotNull Stream<Object> stream(@NotNull DataNode dataNode) {
+        return StreamSupport.stream(new MatchSpliterator(dataNode), false);
+    }
+
+    /**
+     * Finds the values matching this query in parallel, the pending
+     * branches of the walk are split between the workers of the pool that
+     * runs the terminal operation.
+     *
+     * The node must not be modified until the stream is consumed.
+     *
+     * @param dataNode - The node to query
+     * @return a lazy parallel stream with the matched values.
+     */
+    public @NotNull Stream<Object> parallelStream(@NotNull DataNode dataNode) {
+        return StreamSupport.stream(new MatchSpliterator(dataNode), true);
+    }
+
+    /**
+     * Finds the values matching this query in parallel on the provided pool.
+     *
+     * @param dataNode - The node to query
+     * @param pool - The pool that evaluates the query
+     * @return a list with the matched values, in the order they are stored.
+     */
+    public @NotNull List<Object> collect(@NotNull DataNode dataNode, @NotNull ForkJoinPool pool) {
+        return pool.submit(() -> parallelStream(dataNode).collect(Collectors.toList())).join();
+    }
+
+    @Override
+    public String toString() {
+        return query;
+    }
+
+    private Object result(Object value) {
+        if (projection != null) {
+            DataNode dataNode = (DataNode) value;
+            DataNode projected = new DataNode();
+
+            for (DataPath path : projection) {
+                Object found = lookup(dataNode, path);
+
+                if (found != MISSING) {
+                    projected.put(path, found);
+                }
+            }
+
+            return projected;
+        }
+
+        return DataNode.copyValue(value);
+    }
+
+    /**
+     * @return the value stored in the path, or {@link #MISSING} if there is none.
+     */
+    private static Object lookup(Object value, DataPath path) {
+        for (int i = 0; i < path.length(); i++) {
+            if (!(value instanceof DataNode)) return MISSING;
+
+            Map<String, Object> entries = ((DataNode) value).entries();
+            String key = path.segment(i);
+
+            Object found = entries.get(key);
+
+            if (found == null && !entries.containsKey(key)) return MISSING;
+
+            value = DataNode.unwrap(found);
+        }
+
+        return value;
+    }
+
+    private static boolean holdsChildren(Object value) {
+        return value instanceof DataNode || value instanceof ValueList;
+    }
+
+    /**
+     * A segment of the query, with its filters.
+     */
+    private static final class Step {
+        private final byte kind;
+        private final String key;
+        private final Filter[] filters;
+
+        private Step(byte kind, String key, Filter[] filters) {
+            this.kind = kind;
+            this.key = key;
+            this.filters = filters;
+        }
+
+        private boolean test(Object value) {
+            for (Filter filter : filters) {
+                if (!filter.test(value)) return false;
+            }
+
+            return true;
+        }
+    }
+
+    private static final class Filter {
+        private static final int EXISTS = 0;
+        private static final int EQUAL = 1;
+        private static final int NOT_EQUAL = 2;
+        private static final int LESS = 3;
+        private static final int LESS_OR_EQUAL = 4;
+        private static final int GREATER = 5;
+        private static final int GREATER_OR_EQUAL = 6;
+
+        /**
+         * The path of the compared value, or null to compare the matched value.
+         */
+        private final DataPath path;
+        private final int operator;
+        private final Object literal;
+
+        private Filter(DataPath path, int operator, Object literal) {
+            this.path = path;
+            this.operator = operator;
+            this.literal = literal;
+        }
+
+        private boolean test(Object value) {
+            Object operand;
+
+            if (path == null) {
+                operand = value;
+
+                if (operator == EXISTS) return operand != null;
+            } else {
+                operand = lookup(value, path);
+
+                if (operand == MISSING) return false;
+                if (operator == EXISTS) return true;
+            }
+
+            if (operator == EQUAL || operator == NOT_EQUAL) {
+                return equal(operand, literal) == (operator == EQUAL);
+            }
+
+            int comparison = compare(operand, literal);
+
+            if (comparison == Integer.MIN_VALUE) return false;
+
+            switch (operator) {
+                case LESS:
+                    return comparison < 0;
+                case LESS_OR_EQUAL:
+                    return comparison <= 0;
+                case GREATER:
+                    return comparison > 0;
+                default:
+                    return comparison >= 0;
+            }
+        }
+
+        private static boolean equal(Object operand, Object literal) {
+            if (operand instanceof Number && literal instanceof Number) {
+                return compare(operand, literal) == 0;
+            }
+
+            return Objects.equals(operand, literal);
+        }
+
+        /**
+         * @return the comparison result, or {@link Integer#MIN_VALUE} if the values can't be compared.
+         */
+        private static int compare(Object operand, Object literal) {
+            if (operand instanceof Number && literal instanceof Number) {
+                Number a = (Number) operand;
+                Number b = (Number) literal;
+
+                if (isIntegral(a) && isIntegral(b)) {
+                    return Long.compare(a.longValue(), b.longValue());
+                }
+
+                return Double.compare(a.doubleValue(), b.doubleValue());
+            } else if (operand instanceof String && literal instanceof String) {
+                return Integer.signum(((String) operand).compareTo((String) literal));
+            }
+
+            return Integer.MIN_VALUE;
+        }
+
+        private static boolean isIntegral(Number number) {
+            return number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte;
+        }
+    }
+
+    /**
+     * A value reached by the walk and the index of the next step to apply.
+     */
+    private static final class Frame {
+        private final Object value;
+        private final int step;
+
+        private Frame(Object value, int step) {
+            this.value = value;
+            this.step = step;
+        }
+    }
+
+    /**
+     * Walks the node depth first, the pending frames are kept in a stack
+     * whose top is the next frame in storage order, so splitting hands
+     * out the upper half of the stack.
+     */
+    private final class MatchSpliterator implements Spliterator<Object> {
+        private ArrayDeque<Frame> stack = new ArrayDeque<>();
+
+        private MatchSpliterator(DataNode dataNode) {
+            stack.push(new Frame(dataNode, 0));
+        }
+
+        private MatchSpliterator(ArrayDeque<Frame> stack) {
+            this.stack = stack;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Object> action) {
+            Frame frame;
+
+            while ((frame = stack.poll()) != null) {
+                if (frame.step == steps.length) {
+                    if (projection == null || frame.value instanceof DataNode) {
+                        action.accept(result(frame.value));
+                        return true;
+                    }
+                } else {
+                    expand(frame);
+                }
+            }
+
+            return false;
+        }
+
+        @Override
+        public Spliterator<Object> trySplit() {
+            while (stack.size() == 1 && stack.peek().step < steps.length) {
+                expand(stack.pop());
+            }
+
+            int size = stack.size();
+
+            if (size < 2) return null;
+
+            ArrayDeque<Frame> prefix = new ArrayDeque<>(size / 2);
+
+            for (int i = 0; i < size / 2; i++) {
+                prefix.addLast(stack.pop());
+            }
+
+            return new MatchSpliterator(prefix);
+        }
+
+        @Override
+        public long estimateSize() {
+            return stack.isEmpty() ? 0 : Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED;
+        }
+
+        /**
+         * Applies the step of a frame, pushing the matched values in reverse
+         * order so they are visited in storage order.
+         */
+        private void expand(Frame frame) {
+            Step step = steps[frame.step];
+            Object value = frame.value;
+
+            switch (step.kind) {
+                case KEY:
+                    if (value instanceof DataNode) {
+                        Map<String, Object> entries = ((DataNode) value).entries();
+                        Object found = entries.get(step.key);
+
+                        if (found != null || entries.containsKey(step.key)) {
+                            push(DataNode.unwrap(found), frame.step + 1, step);
+                        }
+                    }
+                    break;
+                case WILDCARD:
+                    pushChildren(value, frame.step + 1, step, true);
+                    break;
+                default:
+                    pushChildren(value, frame.step, null, frame.step + 1 == steps.length);
+                    push(value, frame.step + 1, step);
+            }
+        }
+
+        private void push(Object value, int next, Step step) {
+            if (step == null || step.test(value)) {
+                stack.push(new Frame(value, next));
+            }
+        }
+
+        /**
+         * @param leaves - Define if the children that don't hold other values are pushed
+         */
+        private void pushChildren(Object value, int next, Step step, boolean leaves) {
+            if (value instanceof DataNode) {
+                Object[] children = ((DataNode) value).entries().values().toArray();
+
+                for (int i = children.length - 1; i >= 0; i--) {
+                    Object child = DataNode.unwrap(children[i]);
+
+                    if (leaves || holdsChildren(child)) {
+                        push(child, next, step);
+                    }
+                }
+            } else if (value instanceof ValueList) {
+                ValueList list = (ValueList) value;
+
+                for (int i = list.size() - 1; i >= 0; i--) {
+                    Object element = list.get(i);
+
+                    if (leaves || holdsChildren(element)) {
+                        push(element, next, step);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Parser {
+        private final String query;
+        private int position;
+
+        private Parser(String query) {
+            this.query = query;
+        }
+
+        private DataQuery parse() {
+            if (query.isEmpty())
+                throw new IllegalArgumentException("Empty query");
+
+            List<Step> steps = new ArrayList<>();
+            DataPath[] projection = null;
+
+            while (true) {
+                steps.add(step());
+
+                if (position == query.length()) break;
+
+                char c = query.charAt(position++);
+
+                if (c == '{') {
+                    projection = projection();
+                    break;
+                } else if (c != '.') {
+                    throw error("Expected '.' or '{'");
+                }
+            }
+
+            if (position != query.length())
+                throw error("Unexpected character");
+
+            return new DataQuery(query, steps.toArray(new Step[0]), projection);
+        }
+
+        private Step step() {
+            int start = position;
+
+            while (position < query.length() && ".[]{}".indexOf(query.charAt(position)) == -1) {
+                position++;
+            }
+
+            String key = query.substring(start, position).trim();
+
+            if (key.isEmpty())
+                throw error("Expected a key");
+
+            List<Filter> filters = new ArrayList<>();
+
+            while (position < query.length() && query.charAt(position) == '[') {
+                position++;
+                filters.add(filter());
+            }
+
+            Filter[] filterArray = filters.toArray(new Filter[0]);
+
+            if (key.equals("*")) {
+                return new Step(WILDCARD, null, filterArray);
+            } else if (key.equals("**")) {
+                return new Step(DESCENT, null, filterArray);
+            } else if (key.indexOf('*') != -1) {
+                throw error("Wildcards must be a whole segment");
+            }
+
+            return new Step(KEY, key, filterArray);
+        }
+
+        private Filter filter() {
+            skipSpaces();
+
+            int start = position;
+
+            while (position < query.length() && " =!<>]".indexOf(query.charAt(position)) == -1) {
+                position++;
+            }
+
+            String operand = query.substring(start, position);
+
+            if (operand.isEmpty())
+                throw error("Expected a path or '@'");
+
+            DataPath path = operand.equals("@") ? null : DataPath.of(operand);
+
+            skipSpaces();
+
+            if (consume(']')) {
+                return new Filter(path, Filter.EXISTS, null);
+            }
+
+            int operator = operator();
+
+            skipSpaces();
+            Object literal = literal();
+            skipSpaces();
+
+            if (!consume(']'))
+                throw error("Expected ']'");
+
+            return new Filter(path, operator, literal);
+        }
+
+        private int operator() {
+            if (consume('=')) {
+                if (!consume('=')) throw error("Expected '=='");
+
+                return Filter.EQUAL;
+            } else if (consume('!')) {
+                if (!consume('=')) throw error("Expected '!='");
+
+                return Filter.NOT_EQUAL;
+            } else if (consume('<')) {
+                return consume('=') ? Filter.LESS_OR_EQUAL : Filter.LESS;
+            } else if (consume('>')) {
+                return consume('=') ? Filter.GREATER_OR_EQUAL : Filter.GREATER;
+            }
+
+            throw error("Expected an operator");
+        }
+
+        private Object literal() {
+            if (position == query.length())
+                throw error("Expected a literal");
+
+            char quote = query.charAt(position);
+
+            if (quote == '\'' || quote == '"') {
+                StringBuilder builder = new StringBuilder();
+                position++;
+
+                while (position < query.length()) {
+                    char c = query.charAt(position++);
+
+                    if (c == quote) return builder.toString();
+
+                    if (c == '\\' && position < query.length()) {
+                        c = query.charAt(position++);
+                    }
+
+                    builder.append(c);
+                }
+
+                throw error("Unterminated string");
+            }
+
+            int start = position;
+
+            while (position < query.length() && " ]".indexOf(query.charAt(position)) == -1) {
+                position++;
+            }
+
+            String literal = query.substring(start, position);
+
+            switch (literal) {
+                case "true":
+                    return true;
+                case "false":
+                    return false;
+                case "null":
+                    return null;
+            }
+
+            try {
+                if (literal.indexOf('.') != -1 || literal.indexOf('e') != -1 || literal.indexOf('E') != -1) {
+                    return Double.parseDouble(literal);
+                }
+
+                return Long.parseLong(literal);
+            } catch (NumberFormatException e) {
+                throw error("Invalid literal '" + literal + "'");
+            }
+        }
+
+        private DataPath[] projection() {
+            int end = query.indexOf('}', position);
+
+            if (end == -1)
+                throw error("Expected '}'");
+
+            String[] paths = query.substring(position, end).split(",");
+            DataPath[] projection = new DataPath[paths.length];
+
+            for (int i = 0; i < paths.length; i++) {
+                projection[i] = DataPath.of(paths[i].trim());
+            }
+
+            position = end + 1;
+
+            return projection;
+        }
+
+        private boolean consume(char c) {
+            if (position < query.length() && query.charAt(position) == c) {
+                position++;
+                return true;
+            }
+
+            return false;
+        }
+
+        private void skipSpaces() {
+            while (position < query.length() && query.charAt(position) == ' ') {
+                position++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at " + position + " in query '" + query + "'");
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.github.ynverxe.data;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * An immutable view of a node, frozen when it was taken.
+ *
+ * A snapshot shares the data of the node like a clone does, so the node
+ * copies the parts it modifies afterwards and the snapshot never sees
+ * those changes. The snapshot never modifies the data it shares, so it
+ * can be read by any thread while the node keeps being written, and the
+ * data that only the snapshot holds is reclaimed with it.
+ *
+ * @see DataNode#snapshot()
+ */
+public final class DataSnapshot implements FunctionalDataContainer<String> {
+
+    private static final Object NONEXISTENT_PATH = new Object();
+
+    private final DataNode dataNode;
+
+    DataSnapshot(DataNode dataNode) {
+        this.dataNode = dataNode;
+    }
+
+    /**
+     * Nested nodes and lists that hold nodes are returned as copies, so
+     * modifying them doesn't modify the snapshot. The copies are built
+     * without marking the shared data, use {@link #getSnapshot(String)}
+     * to read a nested node without copying it.
+     *
+     * @see DataNode#get(String)
+     */
+    @Override
+    public @Nullable Object get(@NotNull String path) {
+        return get(DataPath.of(path));
+    }
+
+    /**
+     * @see #get(String)
+     */
+    @Override
+    public @Nullable Object get(@NotNull DataPath path) {
+        Object found = search(path);
+
+        return found == NONEXISTENT_PATH ? null : DataNode.unwrap(DataNode.detachValue(found));
+    }
+
+    /**
+     * Gets a nested node as a snapshot, without copying it.
+     *
+     * @param path - The node path
+     * @return The snapshot of the node, or null if the path doesn't hold a node.
+     */
+    public @Nullable DataSnapshot getSnapshot(@NotNull String path) {
+        Object found = search(DataPath.of(path));
+
+        if (found instanceof LazyValue && ((LazyValue) found).peek() == null) {
+            // the defragmented value isn't kept, the view gets its own copy
+            return new DataSnapshot((DataNode) DataNode.detachValue(found));
+        }
+
+        found = read(found);
+
+        return found instanceof DataNode ? new DataSnapshot((DataNode) found) : null;
+    }
+
+    @Override
+    public boolean has(@NotNull String path) {
+        return has(DataPath.of(path));
+    }
+
+    @Override
+    public boolean has(@NotNull DataPath path) {
+        return search(path) != NONEXISTENT_PATH;
+    }
+
+    @Override
+    public boolean identify(String path, Class<?> expectedType) {
+        return expectedType.isInstance(read(search(DataPath.of(path))));
+    }
+
+    /**
+     * @return A map with the simplified values.
+     * @see DataNode#simplify()
+     */
+    public @NotNull Map<String, Object> simplify() {
+        return (Map<String, Object>) simplify(dataNode);
+    }
+
+    /**
+     * @return A new node with the content of the snapshot, that can be modified.
+     */
+    public @NotNull DataNode toDataNode() {
+        return (DataNode) DataNode.detachValue(dataNode);
+    }
+
+    @Override
+    public String toString() {
+        return dataNode.toString();
+    }
+
+    /**
+     * Finds the stored value of a path, reading the shared data without
+     * modifying it: fragmented values that weren't read are defragmented
+     * without keeping the result, and no node is copied or marked.
+     */
+    private Object search(DataPath path) {
+        DataNode current = dataNode;
+
+        for (int i = 0; i < path.length() - 1; i++) {
+            Object found = read(current.entries().get(path.segment(i)));
+
+            if (!(found instanceof DataNode)) return NONEXISTENT_PATH;
+
+            current = (DataNode) found;
+        }
+
+        return current.entries().get(path.lastSegment());
+    }
+
+    private static Object read(Object stored) {
+        return stored instanceof LazyValue ? ((LazyValue) stored).view() : DataNode.unwrap(stored);
+    }
+
+    private static Object simplify(Object stored) {
+        Object value = read(stored);
+
+        if (value instanceof DataNode) {
+            Map<String, Object> map = new HashMap<>();
+
+            for (Map.Entry<String, Object> entry : ((DataNode) value).entries().entrySet()) {
+                map.put(entry.getKey(), simplify(entry.getValue()));
+            }
+
+            return map;
+        } else if (value instanceof Collection) {
+            List<Object> list = new ArrayList<>();
+
+            for (Object element : (Collection<?>) value) {
+                list.add(simplify(element));
+            }
+
+            return list;
+        }
+
+        return value;
+    }
+}
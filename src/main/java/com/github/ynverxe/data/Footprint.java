@@ -0,0 +1,105 @@
+package com.github.ynverxe.data;
+
+/**
+ * Estimates the heap retained by the values stored in nodes, assuming a
+ * 64-bit JVM with compressed references.
+ *
+ * Nodes and lists keep the estimates of their content, so measuring a
+ * stored value never walks it.
+ */
+final class Footprint {
+
+    static final long NODE_BYTES = 96;
+    static final long ENTRY_BYTES = 32;
+    static final long LIST_BYTES = 56;
+    static final long REFERENCE_BYTES = 4;
+
+    private static final long BOXED_BYTES = 16;
+    private static final long WIDE_BOXED_BYTES = 24;
+    private static final long STRING_BYTES = 40;
+    private static final long SLOT_BYTES = 24;
+    private static final long PROTECTED_BYTES = 24;
+    private static final long LAZY_BYTES = 32;
+
+    private Footprint() {
+    }
+
+    /**
+     * @param stored - A value as it is stored in the entries map
+     * @return the estimated bytes retained by the value.
+     */
+    static long bytes(Object stored) {
+        if (stored == null) {
+            return 0;
+        } else if (stored instanceof String) {
+            return align(STRING_BYTES + ((String) stored).length());
+        } else if (stored instanceof DataNode) {
+            return ((DataNode) stored).footprint();
+        } else if (stored instanceof NumberSlot) {
+            return SLOT_BYTES;
+        } else if (stored instanceof ValueList) {
+            return ((ValueList) stored).footprint();
+        } else if (stored instanceof TypeProtectedValue) {
+            return PROTECTED_BYTES + bytes(((TypeProtectedValue) stored).getValue());
+        } else if (stored instanceof LazyValue) {
+            // the defragmented node is not counted, see DataNode#fragment
+            return LAZY_BYTES;
+        } else if (stored instanceof Long || stored instanceof Double) {
+            return WIDE_BOXED_BYTES;
+        }
+
+        return BOXED_BYTES;
+    }
+
+    /**
+     * @param stored - A value as it is stored in the entries map
+     * @return the amount of values that the value represents, 1 plus the
+     * values held by a node or a list, or 0 for null.
+     */
+    static int entries(Object stored) {
+        if (stored == null) {
+            return 0;
+        } else if (stored instanceof DataNode) {
+            return 1 + ((DataNode) stored).entryCount();
+        } else if (stored instanceof ValueList) {
+            return 1 + ((ValueList) stored).entryCount();
+        } else if (stored instanceof TypeProtectedValue) {
+            return entries(((TypeProtectedValue) stored).getValue());
+        }
+
+        return 1;
+    }
+
+    /**
+     * @param stored - A value as it is stored in the entries map
+     * @return the amount of nested levels of entries below the value, lists
+     * don't add a level.
+     */
+    static int height(Object stored) {
+        if (stored instanceof DataNode) {
+            int height = 0;
+
+            for (Object value : ((DataNode) stored).entries().values()) {
+                height = Math.max(height, 1 + height(value));
+            }
+
+            return height;
+        } else if (stored instanceof ValueList && ((ValueList) stored).holdsNodes()) {
+            int height = 0;
+
+            for (Object element : (ValueList) stored) {
+                height = Math.max(height, height(element));
+            }
+
+            return height;
+        } else if (stored instanceof TypeProtectedValue) {
+            return height(((TypeProtectedValue) stored).getValue());
+        }
+
+        return 0;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,584 @@
+package com.github.ynverxe.data;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A dependency-free streaming JSON reader and writer for nodes.
+ *
+ * Documents are tokenized from a {@link Reader} through a fixed size
+ * buffer and stored straight into new nodes, and nodes are written
+ * straight from their entries. Huge documents made of a top-level array
+ * can be processed one element at a time with {@link #readEach(Reader, Consumer)}.
+ *
+ * Integral numbers are read as {@link Integer} when they fit, or as
+ * {@link Long} otherwise, any other number is read as {@link Double}.
+ * Documents are read as defined by RFC 8259, and the nesting of objects
+ * and arrays is bounded, so hostile documents can't exhaust the stack.
+ */
+@SuppressWarnings("rawtypes")
+public final class JsonCodec {
+
+    /**
+     * The default max amount of nested objects and arrays.
+     */
+    public static final int DEFAULT_MAX_DEPTH = 512;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final int maxDepth;
+
+    /**
+     * Creates a codec that reads up to {@link #DEFAULT_MAX_DEPTH} nested objects and arrays.
+     */
+    public JsonCodec() {
+        this(DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * @param maxDepth - The max amount of nested objects and arrays of the read documents
+     * @throws IllegalArgumentException - If the depth is lower than 1
+     */
+    public JsonCodec(int maxDepth) throws IllegalArgumentException {
+        if (maxDepth < 1) throw new IllegalArgumentException("max depth lower than 1: " + maxDepth);
+
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Writes a node as a JSON object.
+     *
+     * @param dataNode - The node to write
+     * @param writer - The target writer, it will not be closed
+     * @throws IOException - If the writer fails
+     * @throws IllegalArgumentException - If the node holds a value that JSON can't represent
+     */
+    public void write(@NotNull DataNode dataNode, @NotNull Writer writer) throws IOException {
+        writeNode(dataNode, writer);
+    }
+
+    /**
+     * @param dataNode - The node to write
+     * @return the node as a JSON object.
+     */
+    public @NotNull String toJson(@NotNull DataNode dataNode) {
+        StringWriter writer = new StringWriter();
+
+        try {
+            writeNode(dataNode, writer);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        return writer.toString();
+    }
+
+    /**
+     * Reads a JSON object into a new node.
+     *
+     * @param reader - The source reader, it will not be closed
+     * @throws IOException - If the reader fails or the document is malformed
+     * @return The read node.
+     */
+    public @NotNull DataNode read(@NotNull Reader reader) throws IOException {
+        Tokenizer tokenizer = new Tokenizer(reader, maxDepth);
+
+        if (tokenizer.nextClean() != '{')
+            throw tokenizer.error("Expected an object");
+
+        DataNode dataNode = tokenizer.readObject();
+        tokenizer.expectEnd();
+
+        return dataNode;
+    }
+
+    /**
+     * @param json - The JSON object
+     * @throws IllegalArgumentException - If the document is malformed
+     * @return The read node.
+     */
+    public @NotNull DataNode fromJson(@NotNull String json) throws IllegalArgumentException {
+        try {
+            return read(new StringReader(json));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads a top-level JSON array of objects, handing every element to
+     * the consumer as soon as it is read, so only one element is held
+     * in memory at a time.
+     *
+     * @param reader - The source reader, it will not be closed
+     * @param consumer - The element consumer
+     * @throws IOException - If the reader fails or the document is malformed
+     */
+    public void readEach(@NotNull Reader reader, @NotNull Consumer<DataNode> consumer) throws IOException {
+        Tokenizer tokenizer = new Tokenizer(reader, maxDepth);
+
+        if (tokenizer.nextClean() != '[')
+            throw tokenizer.error("Expected an array");
+
+        tokenizer.enter();
+
+        int c = tokenizer.nextClean();
+
+        if (c != ']') {
+            while (true) {
+                if (c != '{')
+                    throw tokenizer.error("Expected an object");
+
+                consumer.accept(tokenizer.readObject());
+
+                c = tokenizer.nextClean();
+
+                if (c == ']') break;
+                if (c != ',') throw tokenizer.error("Expected ',' or ']'");
+
+                c = tokenizer.nextClean();
+            }
+        }
+
+        tokenizer.expectEnd();
+    }
+
+    private static void writeNode(DataNode dataNode, Writer writer) throws IOException {
+        writer.write('{');
+
+        boolean first = true;
+
+        for (Map.Entry<String, Object> entry : dataNode.entries().entrySet()) {
+            if (!first) writer.write(',');
+            first = false;
+
+            writeString(entry.getKey(), writer);
+            writer.write(':');
+            writeValue(DataNode.unwrap(entry.getValue()), writer);
+        }
+
+        writer.write('}');
+    }
+
+    private static void writeValue(Object value, Writer writer) throws IOException {
+        if (value == null) {
+            writer.write("null");
+        } else if (value instanceof String) {
+            writeString((String) value, writer);
+        } else if (value instanceof DataNode) {
+            writeNode((DataNode) value, writer);
+        } else if (value instanceof Collection) {
+            writer.write('[');
+
+            boolean first = true;
+
+            for (Object o : (Collection) value) {
+                if (!first) writer.write(',');
+                first = false;
+
+                writeValue(o, writer);
+            }
+
+            writer.write(']');
+        } else if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+
+            if (Double.isNaN(number) || Double.isInfinite(number))
+                throw new IllegalArgumentException(value + " can't be represented in JSON");
+
+            writer.write(value.toString());
+        } else if (value instanceof Number || value instanceof Boolean) {
+            writer.write(value.toString());
+        } else if (value instanceof Character) {
+            writeString(value.toString(), writer);
+        } else {
+            throw new IllegalArgumentException(value + " is not apt for serialization");
+        }
+    }
+
+    private static void writeString(String value, Writer writer) throws IOException {
+        writer.write('"');
+
+        int start = 0;
+        int length = value.length();
+
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            String replacement;
+
+            switch (c) {
+                case '"':
+                    replacement = "\\\"";
+                    break;
+                case '\\':
+                    replacement = "\\\\";
+                    break;
+                case '\n':
+                    replacement = "\\n";
+                    break;
+                case '\r':
+                    replacement = "\\r";
+                    break;
+                case '\t':
+                    replacement = "\\t";
+                    break;
+                case '\b':
+                    replacement = "\\b";
+                    break;
+                case '\f':
+                    replacement = "\\f";
+                    break;
+                default:
+                    if (c >= 0x20) continue;
+
+                    replacement = null;
+            }
+
+            writer.write(value, start, i - start);
+            start = i + 1;
+
+            if (replacement != null) {
+                writer.write(replacement);
+            } else {
+                writer.write("\\u00");
+                writer.write(HEX_DIGITS[c >> 4]);
+                writer.write(HEX_DIGITS[c & 0xF]);
+            }
+        }
+
+        writer.write(value, start, length - start);
+        writer.write('"');
+    }
+
+    private static final class Tokenizer {
+        private final Reader reader;
+        private final int maxDepth;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder token = new StringBuilder();
+        private int position;
+        private int limit;
+        private long offset;
+        private int depth;
+
+        private Tokenizer(Reader reader, int maxDepth) {
+            this.reader = reader;
+            this.maxDepth = maxDepth;
+        }
+
+        private DataNode readObject() throws IOException {
+            enter();
+
+            DataNode dataNode = new DataNode();
+            int c = nextClean();
+
+            if (c == '}') {
+                depth--;
+                return dataNode;
+            }
+
+            while (true) {
+                if (c != '"')
+                    throw error("Expected a key");
+
+                String key = readString();
+
+                if (nextClean() != ':')
+                    throw error("Expected ':'");
+
+                Object value = readValue(nextClean());
+
+                if (key.isEmpty() || key.indexOf('.') != -1) {
+                    try {
+                        dataNode.put(key, value);
+                    } catch (IllegalArgumentException e) {
+                        throw error("Invalid key \"" + key + "\"");
+                    }
+                } else {
+                    dataNode.putTrusted(key, value);
+                }
+
+                c = nextClean();
+
+                if (c == '}') {
+                    depth--;
+                    return dataNode;
+                }
+                if (c != ',') throw error("Expected ',' or '}'");
+
+                c = nextClean();
+            }
+        }
+
+        private List<Object> readList() throws IOException {
+            enter();
+
+            List<Object> list = new ArrayList<>();
+            int c = nextClean();
+
+            if (c == ']') {
+                depth--;
+                return ValueList.EMPTY;
+            }
+
+            while (true) {
+                list.add(readValue(c));
+
+                c = nextClean();
+
+                if (c == ']') {
+                    depth--;
+                    return ValueList.of(list);
+                }
+                if (c != ',') throw error("Expected ',' or ']'");
+
+                c = nextClean();
+            }
+        }
+
+        private Object readValue(int c) throws IOException {
+            switch (c) {
+                case '{':
+                    return readObject();
+                case '[':
+                    return readList();
+                case '"':
+                    return readString();
+                case 't':
+                    expectLiteral("rue");
+                    return Boolean.TRUE;
+                case 'f':
+                    expectLiteral("alse");
+                    return Boolean.FALSE;
+                case 'n':
+                    expectLiteral("ull");
+                    return null;
+                default:
+                    if (c == '-' || (c >= '0' && c <= '9'))
+                        return readNumber((char) c);
+
+                    throw error("Unexpected character");
+            }
+        }
+
+        private void enter() throws IOException {
+            if (++depth > maxDepth)
+                throw error("Nesting deeper than " + maxDepth);
+        }
+
+        private String readString() throws IOException {
+            token.setLength(0);
+
+            while (true) {
+                if (position == limit && !fill())
+                    throw error("Unterminated string");
+
+                int start = position;
+
+                while (position < limit) {
+                    char c = buffer[position];
+
+                    if (c == '"' || c == '\\') break;
+                    if (c < 0x20) throw error("Unescaped control character");
+
+                    position++;
+                }
+
+                token.append(buffer, start, position - start);
+
+                if (position == limit) continue;
+
+                char c = buffer[position++];
+
+                if (c == '"') return token.toString();
+
+                token.append(readEscape());
+            }
+        }
+
+        private char readEscape() throws IOException {
+            int c = next();
+
+            switch (c) {
+                case '"':
+                case '\\':
+                case '/':
+                    return (char) c;
+                case 'b':
+                    return '\b';
+                case 'f':
+                    return '\f';
+                case 'n':
+                    return '\n';
+                case 'r':
+                    return '\r';
+                case 't':
+                    return '\t';
+                case 'u':
+                    int value = 0;
+
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(next(), 16);
+
+                        if (digit == -1)
+                            throw error("Malformed unicode escape");
+
+                        value = (value << 4) | digit;
+                    }
+
+                    return (char) value;
+                default:
+                    throw error("Malformed escape");
+            }
+        }
+
+        private Object readNumber(char first) throws IOException {
+            token.setLength(0);
+            token.append(first);
+
+            boolean floating = false;
+
+            while (true) {
+                if (position == limit && !fill()) break;
+
+                char c = buffer[position];
+
+                if (c >= '0' && c <= '9' || c == '-' || c == '+') {
+                    token.append(c);
+                } else if (c == '.' || c == 'e' || c == 'E') {
+                    token.append(c);
+                    floating = true;
+                } else {
+                    break;
+                }
+
+                position++;
+            }
+
+            if (!isNumber(token))
+                throw error("Malformed number");
+
+            String number = token.toString();
+
+            try {
+                if (!floating) {
+                    try {
+                        long value = Long.parseLong(number);
+
+                        if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                            return (int) value;
+                        }
+
+                        return value;
+                    } catch (NumberFormatException ignored) {
+                        // too big for a long, fall back to a double
+                    }
+                }
+
+                return Double.parseDouble(number);
+            } catch (NumberFormatException e) {
+                throw error("Malformed number");
+            }
+        }
+
+        /**
+         * @return true if the token is a number as defined by RFC 8259,
+         * {@code -? (0 | [1-9][0-9]*) (. [0-9]+)? ([eE] [+-]? [0-9]+)?}.
+         */
+        private static boolean isNumber(CharSequence token) {
+            int length = token.length();
+            int i = 0;
+
+            if (i < length && token.charAt(i) == '-') i++;
+
+            if (i == length) return false;
+
+            if (token.charAt(i) == '0') {
+                i++;
+            } else {
+                int start = i;
+                i = digits(token, i);
+
+                if (i == start) return false;
+            }
+
+            if (i < length && token.charAt(i) == '.') {
+                int start = ++i;
+                i = digits(token, i);
+
+                if (i == start) return false;
+            }
+
+            if (i < length && (token.charAt(i) == 'e' || token.charAt(i) == 'E')) {
+                i++;
+
+                if (i < length && (token.charAt(i) == '+' || token.charAt(i) == '-')) i++;
+
+                int start = i;
+                i = digits(token, i);
+
+                if (i == start) return false;
+            }
+
+            return i == length;
+        }
+
+        private static int digits(CharSequence token, int i) {
+            while (i < token.length() && token.charAt(i) >= '0' && token.charAt(i) <= '9') {
+                i++;
+            }
+
+            return i;
+        }
+
+        private void expectLiteral(String rest) throws IOException {
+            for (int i = 0; i < rest.length(); i++) {
+                if (next() != rest.charAt(i))
+                    throw error("Unexpected literal");
+            }
+        }
+
+        private void expectEnd() throws IOException {
+            if (nextClean() != -1)
+                throw error("Unexpected content after the document");
+        }
+
+        private int nextClean() throws IOException {
+            while (true) {
+                int c = next();
+
+                if (c != ' ' && c != '\n' && c != '\r' && c != '\t') return c;
+            }
+        }
+
+        private int next() throws IOException {
+            if (position == limit && !fill()) return -1;
+
+            return buffer[position++];
+        }
+
+        private boolean fill() throws IOException {
+            offset += limit;
+
+            int read = reader.read(buffer);
+
+            position = 0;
+            limit = Math.max(read, 0);
+
+            return read > 0;
+        }
+
+        private IOException error(String message) {
+            return new IOException(message + " at offset " + (offset + position));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.ynverxe.data;
+
+/**
+ * Holds a {@link Fragmented} value that is defragmented on its first
+ * read, the resulting node is kept until the entry is overwritten.
+ *
+ * Concurrent readers, like parallel queries, defragment the value once.
+ */
+final class LazyValue {
+    private final Fragmented source;
+    private final DataNode owner;
+    private final String key;
+    private volatile DataNode node;
+
+    LazyValue(Fragmented source, DataNode owner, String key) {
+        this.source = source;
+        this.owner = owner;
+        this.key = key;
+    }
+
+    /**
+     * @return the defragmented node, linked to the node that holds this value.
+     */
+    DataNode get() {
+        DataNode node = this.node;
+
+        if (node == null) {
+            synchronized (this) {
+                node = this.node;
+
+                if (node == null) {
+                    node = source.defragment().clone();
+                    owner.linkFragment(key, node);
+
+                    this.node = node;
+                }
+            }
+        }
+
+        return node;
+    }
+
+    /**
+     * @return the defragmented node, or null if it wasn't read yet.
+     */
+    DataNode peek() {
+        return node;
+    }
+
+    /**
+     * Reads the value without keeping the defragmented node, so the
+     * holder is not modified. The returned node must not be modified.
+     *
+     * @return the defragmented node if it was already read, otherwise the defragmented value.
+     */
+    DataNode view() {
+        DataNode node = this.node;
+
+        return node != null ? node : source.defragment();
+    }
+
+    /**
+     * @return the node if it was already read, otherwise the fragmented value.
+     */
+    Object current() {
+        return node != null ? node : source;
+    }
+
+    @Override
+    public String toString() {
+        return node != null ? node.toString() : String.valueOf(source);
+    }
+}
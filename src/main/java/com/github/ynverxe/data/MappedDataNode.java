@@ -0,0 +1,587 @@
+package com.github.ynverxe.data;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static com.github.ynverxe.data.BinaryCodec.*;
+
+/**
+ * A read-only node backed by a file mapped into memory.
+ *
+ * The file holds every node as a table of key and value offsets sorted
+ * by key, so a lookup binary searches the tables of the path without
+ * decoding anything else. Nested nodes and lists are views over the
+ * file, strings and numbers are decoded when they are read, and nothing
+ * is cached, so the heap usage doesn't depend on the file size.
+ *
+ * Instances are immutable and can be shared between threads. Files are
+ * limited to 2GB.
+ */
+@SuppressWarnings("rawtypes")
+public final class MappedDataNode implements FunctionalDataContainer<String> {
+
+    private static final byte MAGIC_0 = 'D';
+    private static final byte MAGIC_1 = 'M';
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 4;
+    private static final int TRAILER_SIZE = 4;
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int table;
+
+    /**
+     * @param buffer - The whole file
+     * @param offset - The offset of the node, after its tag
+     */
+    private MappedDataNode(ByteBuffer buffer, int offset) {
+        Cursor cursor = new Cursor(buffer, offset);
+
+        this.buffer = buffer;
+        this.size = cursor.readCount();
+        this.table = cursor.position;
+    }
+
+    /**
+     * Maps a file written by {@link #write(DataNode, Path)}.
+     *
+     * @param file - The file
+     * @throws IOException - If the file can't be read or it is not a mapped node file
+     * @return The root node of the file.
+     */
+    public static @NotNull MappedDataNode open(@NotNull Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+
+            if (length > Integer.MAX_VALUE)
+                throw new IOException("File too large: " + length);
+
+            return root(channel.map(FileChannel.MapMode.READ_ONLY, 0, length));
+        }
+    }
+
+    /**
+     * Reads the content of a mapped node file from a buffer, from its
+     * current position to its limit. The buffer is not copied.
+     *
+     * @param buffer - The buffer
+     * @throws IllegalArgumentException - If the buffer doesn't hold a mapped node file
+     * @return The root node.
+     */
+    public static @NotNull MappedDataNode wrap(@NotNull ByteBuffer buffer) throws IllegalArgumentException {
+        try {
+            return root(buffer.slice());
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes a node in the mapped node format.
+     *
+     * @param dataNode - The node to write
+     * @param file - The target file, it will be replaced
+     * @throws IOException - If the file can't be written
+     * @throws IllegalArgumentException - If the node holds a non-serializable value
+     */
+    public static void write(@NotNull DataNode dataNode, @NotNull Path file) throws IOException {
+        Files.write(file, toByteArray(dataNode));
+    }
+
+    /**
+     * @param dataNode - The node to write
+     * @throws IllegalArgumentException - If the node holds a non-serializable value
+     * @return the node in the mapped node format.
+     */
+    public static byte @NotNull [] toByteArray(@NotNull DataNode dataNode) {
+        ArrayOutput output = new ArrayOutput();
+
+        try {
+            output.writeByte(MAGIC_0);
+            output.writeByte(MAGIC_1);
+            output.writeByte(VERSION);
+            output.writeByte(0);
+
+            int root = new Writer(output).writeValue(dataNode);
+            output.writeFixedInt(root);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        return output.toByteArray();
+    }
+
+    @Override
+    public @Nullable Object get(@NotNull String path) {
+        int offset = search(path);
+
+        return offset != -1 ? valueAt(offset) : null;
+    }
+
+    @Override
+    public @Nullable Object get(@NotNull DataPath path) {
+        int offset = search(path);
+
+        return offset != -1 ? valueAt(offset) : null;
+    }
+
+    @Override
+    public boolean has(@NotNull String path) {
+        return search(path) != -1;
+    }
+
+    @Override
+    public boolean has(@NotNull DataPath path) {
+        return search(path) != -1;
+    }
+
+    @Override
+    public boolean identify(String path, Class<?> expectedType) {
+        return expectedType.isInstance(get(path));
+    }
+
+    /**
+     * @param path - The node path
+     * @return The mapped node at the provided path, or null if there is no node.
+     */
+    public @Nullable MappedDataNode getChild(@NotNull String path) {
+        Object found = get(path);
+
+        return found instanceof MappedDataNode ? (MappedDataNode) found : null;
+    }
+
+    /**
+     * Nested nodes are mapped nodes, so the returned node is a copy of
+     * the node content, decoded on the heap.
+     *
+     * @param path - The node path
+     * @return A copy of the node at the provided path.
+     */
+    @Override
+    public @Nullable DataNode getNode(@NotNull String path) {
+        MappedDataNode child = getChild(path);
+
+        return child != null ? child.toDataNode() : null;
+    }
+
+    /**
+     * @see #getNode(String)
+     */
+    @Override
+    public @Nullable DataNode getNode(@NotNull DataPath path) {
+        Object found = get(path);
+
+        return found instanceof MappedDataNode ? ((MappedDataNode) found).toDataNode() : null;
+    }
+
+    /**
+     * @return the amount of entries of this node.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the keys of this node, in the order they are stored.
+     */
+    public @NotNull List<String> keys() {
+        List<String> keys = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            keys.add(keyAt(i));
+        }
+
+        return keys;
+    }
+
+    /**
+     * Decodes the whole node.
+     *
+     * @return A map with the simplified values.
+     * @see DataNode#simplify()
+     */
+    public @NotNull Map<String, Object> simplify() {
+        Map<String, Object> objectMap = new HashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            objectMap.put(keyAt(i), simplify(valueAt(valueOffsetAt(i))));
+        }
+
+        return objectMap;
+    }
+
+    /**
+     * Decodes the whole node.
+     *
+     * @return A regular node with the content of this node.
+     */
+    public @NotNull DataNode toDataNode() {
+        DataNode dataNode = new DataNode();
+
+        for (int i = 0; i < size; i++) {
+            dataNode.putTrusted(keyAt(i), toDataNodeValue(valueAt(valueOffsetAt(i))));
+        }
+
+        return dataNode;
+    }
+
+    @Override
+    public String toString() {
+        return simplify().toString();
+    }
+
+    private static MappedDataNode root(ByteBuffer buffer) throws IOException {
+        buffer = buffer.order(ByteOrder.BIG_ENDIAN);
+        int limit = buffer.limit();
+
+        if (limit < HEADER_SIZE + TRAILER_SIZE || buffer.get(0) != MAGIC_0 || buffer.get(1) != MAGIC_1)
+            throw new IOException("Not a mapped node file");
+
+        byte version = buffer.get(2);
+
+        if (version != VERSION)
+            throw new IOException("Unsupported version: " + version);
+
+        int root = buffer.getInt(limit - TRAILER_SIZE);
+
+        if (root < HEADER_SIZE || root >= limit - TRAILER_SIZE || buffer.get(root) != TAG_NODE)
+            throw new IOException("Malformed root offset: " + root);
+
+        return new MappedDataNode(buffer, root + 1);
+    }
+
+    private int search(String path) {
+        MappedDataNode dataNode = this;
+        int start = 0;
+        int i;
+
+        if ("".equals(path))
+            throw new IllegalArgumentException("Empty key");
+
+        while ((i = path.indexOf('.', start)) != -1) {
+            checkSegment(start, i);
+
+            int offset = dataNode.find(path.substring(start, i));
+
+            if (offset == -1 || buffer.get(offset) != TAG_NODE) return -1;
+
+            dataNode = new MappedDataNode(buffer, offset + 1);
+            start = i + 1;
+        }
+
+        checkSegment(start, path.length());
+
+        return dataNode.find(start == 0 ? path : path.substring(start));
+    }
+
+    private int search(DataPath path) {
+        MappedDataNode dataNode = this;
+        int last = path.length() - 1;
+
+        for (int i = 0; i < last; i++) {
+            int offset = dataNode.find(path.segment(i));
+
+            if (offset == -1 || buffer.get(offset) != TAG_NODE) return -1;
+
+            dataNode = new MappedDataNode(buffer, offset + 1);
+        }
+
+        return dataNode.find(path.lastSegment());
+    }
+
+    /**
+     * Binary searches the table of this node.
+     *
+     * @return the offset of the value held by the key, or -1 if there is no entry.
+     */
+    private int find(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = size - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compareKey(buffer.getInt(table + middle * 8), bytes);
+
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return valueOffsetAt(middle);
+            }
+        }
+
+        return -1;
+    }
+
+    private int compareKey(int offset, byte[] key) {
+        Cursor cursor = new Cursor(buffer, offset);
+        int length = cursor.readCount();
+        int position = cursor.position;
+        int common = Math.min(length, key.length);
+
+        for (int i = 0; i < common; i++) {
+            int comparison = Integer.compare(buffer.get(position + i) & 0xFF, key[i] & 0xFF);
+
+            if (comparison != 0) return comparison;
+        }
+
+        return Integer.compare(length, key.length);
+    }
+
+    private String keyAt(int index) {
+        return new Cursor(buffer, buffer.getInt(table + index * 8)).readText();
+    }
+
+    private int valueOffsetAt(int index) {
+        return buffer.getInt(table + index * 8 + 4);
+    }
+
+    private Object valueAt(int offset) {
+        return valueAt(buffer, offset);
+    }
+
+    private static Object valueAt(ByteBuffer buffer, int offset) {
+        byte tag = buffer.get(offset);
+
+        switch (tag) {
+            case TAG_NODE:
+                return new MappedDataNode(buffer, offset + 1);
+            case TAG_LIST:
+                return new MappedList(buffer, offset + 1);
+            default:
+                try {
+                    return readScalar(tag, new Cursor(buffer, offset + 1));
+                } catch (IOException e) {
+                    throw new IllegalStateException("Malformed mapped data at offset " + offset, e);
+                }
+        }
+    }
+
+    private static void checkSegment(int start, int end) {
+        if (start == end)
+            throw new IllegalArgumentException("Malformed key path");
+    }
+
+    private static Object simplify(Object value) {
+        if (value instanceof MappedDataNode) {
+            return ((MappedDataNode) value).simplify();
+        } else if (value instanceof List) {
+            List<Object> list = new ArrayList<>(((List) value).size());
+
+            for (Object o : (List) value) {
+                list.add(simplify(o));
+            }
+
+            return list;
+        }
+
+        return value;
+    }
+
+    private static Object toDataNodeValue(Object value) {
+        if (value instanceof MappedDataNode) {
+            return ((MappedDataNode) value).toDataNode();
+        } else if (value instanceof List) {
+            List<Object> list = new ArrayList<>(((List) value).size());
+
+            for (Object o : (List) value) {
+                list.add(toDataNodeValue(o));
+            }
+
+            return ValueList.of(list);
+        }
+
+        return value;
+    }
+
+    /**
+     * An immutable list view, the elements are decoded when they are read.
+     */
+    private static final class MappedList extends AbstractList<Object> implements RandomAccess {
+        private final ByteBuffer buffer;
+        private final int size;
+        private final int table;
+
+        private MappedList(ByteBuffer buffer, int offset) {
+            Cursor cursor = new Cursor(buffer, offset);
+
+            this.buffer = buffer;
+            this.size = cursor.readCount();
+            this.table = cursor.position;
+        }
+
+        @Override
+        public Object get(int index) {
+            if (index < 0 || index >= size)
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+
+            return valueAt(buffer, buffer.getInt(table + index * 4));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Reads the file from an offset using absolute reads, so the buffer
+     * can be shared between threads.
+     */
+    private static final class Cursor extends Input {
+        private final ByteBuffer buffer;
+        private int position;
+
+        private Cursor(ByteBuffer buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        @Override
+        byte readByte() {
+            return buffer.get(position++);
+        }
+
+        @Override
+        void readFully(byte[] bytes, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                bytes[i] = buffer.get(position++);
+            }
+        }
+
+        @Override
+        int remaining() {
+            return buffer.limit() - position;
+        }
+
+        private int readCount() {
+            try {
+                return readLength();
+            } catch (IOException e) {
+                throw new IllegalStateException("Malformed mapped data at offset " + position, e);
+            }
+        }
+
+        private String readText() {
+            try {
+                return readString();
+            } catch (IOException e) {
+                throw new IllegalStateException("Malformed mapped data at offset " + position, e);
+            }
+        }
+    }
+
+    /**
+     * Writes the values before the tables that reference them, so every
+     * offset is known when a table is written.
+     */
+    private static final class Writer {
+        private final ArrayOutput output;
+        private final Map<String, Integer> keyOffsets = new HashMap<>();
+
+        private Writer(ArrayOutput output) {
+            this.output = output;
+        }
+
+        private int writeValue(Object value) throws IOException {
+            if (value instanceof DataNode) {
+                return writeNode((DataNode) value);
+            } else if (value instanceof Collection) {
+                Collection collection = (Collection) value;
+                int[] offsets = new int[collection.size()];
+                int i = 0;
+
+                for (Object o : collection) {
+                    offsets[i++] = writeValue(o);
+                }
+
+                int offset = output.size();
+                output.writeByte(TAG_LIST);
+                output.writeVarInt(offsets.length);
+
+                for (int elementOffset : offsets) {
+                    output.writeFixedInt(elementOffset);
+                }
+
+                return offset;
+            }
+
+            int offset = output.size();
+            writeScalar(value, output);
+
+            return offset;
+        }
+
+        private int writeNode(DataNode dataNode) throws IOException {
+            Map<String, Object> entries = dataNode.entries();
+            byte[][] keys = new byte[entries.size()][];
+            int[] keyOffsets = new int[keys.length];
+            int[] valueOffsets = new int[keys.length];
+            Integer[] order = new Integer[keys.length];
+            Object[] values = new Object[keys.length];
+            int i = 0;
+
+            for (Map.Entry<String, Object> entry : entries.entrySet()) {
+                keys[i] = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                keyOffsets[i] = writeKey(entry.getKey(), keys[i]);
+                values[i] = DataNode.unwrap(entry.getValue());
+                order[i] = i++;
+            }
+
+            for (i = 0; i < values.length; i++) {
+                valueOffsets[i] = writeValue(values[i]);
+            }
+
+            Arrays.sort(order, (a, b) -> compare(keys[a], keys[b]));
+
+            int offset = output.size();
+            output.writeByte(TAG_NODE);
+            output.writeVarInt(keys.length);
+
+            for (int index : order) {
+                output.writeFixedInt(keyOffsets[index]);
+                output.writeFixedInt(valueOffsets[index]);
+            }
+
+            return offset;
+        }
+
+        private int writeKey(String key, byte[] bytes) throws IOException {
+            Integer offset = keyOffsets.get(key);
+
+            if (offset == null) {
+                offset = output.size();
+                output.writeVarInt(bytes.length);
+                output.write(bytes, 0, bytes.length);
+
+                keyOffsets.put(key, offset);
+            }
+
+            return offset;
+        }
+
+        private static int compare(byte[] first, byte[] second) {
+            int common = Math.min(first.length, second.length);
+
+            for (int i = 0; i < common; i++) {
+                int comparison = Integer.compare(first[i] & 0xFF, second[i] & 0xFF);
+
+                if (comparison != 0) return comparison;
+            }
+
+            return Integer.compare(first.length, second.length);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.github.ynverxe.data;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * A secondary index over the child nodes of a node, from the value of a
+ * field of every child to the keys of the children that hold it.
+ *
+ * A hash index finds the children that hold a value in constant time,
+ * and a sorted index also finds the children whose value is in a range
+ * in logarithmic time. Only strings, numbers, booleans and characters
+ * are indexed; numbers are compared by their exact numeric value, so
+ * {@code 5}, {@code 5L} and {@code 5.0} are the same value. The index observes the
+ * node and is updated on every change that may modify the field of a
+ * child, the rest of the changes are ignored.
+ */
+public final class NodeIndex {
+
+    private static final Comparator<Object> ORDER = NodeIndex::compare;
+
+    private final DataNode dataNode;
+    private final String field;
+    private final DataPath fieldPath;
+    private final Map<Object, Set<String>> keysByValue;
+    private final Map<String, Object> valueByKey = new HashMap<>();
+    private final NodeObserver observer = (path, previous, value, removal) -> valueChanged(path, value);
+
+    private NodeIndex(DataNode dataNode, String field, boolean sorted) {
+        this.dataNode = dataNode;
+        this.field = field;
+        this.fieldPath = DataPath.of(field);
+        this.keysByValue = sorted ? new TreeMap<>(ORDER) : new HashMap<>();
+    }
+
+    /**
+     * Creates an index that finds the children holding a value.
+     *
+     * @param dataNode - The node that holds the indexed children
+     * @param field - The dotted path of the indexed value, relative to every child
+     * @throws IllegalArgumentException - If the field path is empty or malformed
+     * @return The index, holding the current children.
+     */
+    public static @NotNull NodeIndex hash(@NotNull DataNode dataNode, @NotNull String field)
+            throws IllegalArgumentException {
+        return create(dataNode, field, false);
+    }
+
+    /**
+     * Creates an index that finds the children holding a value or a value
+     * in a range. Only strings and numbers are indexed, numbers are sorted
+     * before strings.
+     *
+     * @param dataNode - The node that holds the indexed children
+     * @param field - The dotted path of the indexed value, relative to every child
+     * @throws IllegalArgumentException - If the field path is empty or malformed
+     * @return The index, holding the current children.
+     */
+    public static @NotNull NodeIndex sorted(@NotNull DataNode dataNode, @NotNull String field)
+            throws IllegalArgumentException {
+        return create(dataNode, field, true);
+    }
+
+    private static NodeIndex create(DataNode dataNode, String field, boolean sorted) {
+        NodeIndex index = new NodeIndex(dataNode, field, sorted);
+
+        for (String key : dataNode.entries().keySet()) {
+            index.reindex(key);
+        }
+
+        dataNode.addObserver(index.observer);
+
+        return index;
+    }
+
+    /**
+     * Stops updating the index.
+     */
+    public void detach() {
+        dataNode.removeObserver(observer);
+    }
+
+    /**
+     * @return true if the index finds ranges of values.
+     */
+    public boolean isSorted() {
+        return keysByValue instanceof TreeMap;
+    }
+
+    /**
+     * @param value - The indexed value
+     * @return the keys of the children that hold the value, in the order they were indexed.
+     */
+    public @NotNull Set<String> find(@Nullable Object value) {
+        Object indexed = indexedValue(value);
+        Set<String> keys = indexed != null ? keysByValue.get(indexed) : null;
+
+        return keys != null ? Collections.unmodifiableSet(keys) : Collections.emptySet();
+    }
+
+    /**
+     * @param value - The indexed value
+     * @return the key of any child that holds the value, or null if there is none.
+     */
+    public @Nullable String findAny(@Nullable Object value) {
+        Set<String> keys = find(value);
+
+        return keys.isEmpty() ? null : keys.iterator().next();
+    }
+
+    /**
+     * Finds the children that hold a value in a range, sorted by their value.
+     *
+     * @param from - The lower bound, or null to start from the lowest value
+     * @param fromInclusive - Define if the lower bound is included
+     * @param to - The upper bound, or null to end at the highest value
+     * @param toInclusive - Define if the upper bound is included
+     * @throws IllegalStateException - If the index is not sorted
+     * @throws IllegalArgumentException - If any bound is not a string or a number
+     * @return the keys of the children.
+     */
+    public @NotNull List<String> range(@Nullable Object from, boolean fromInclusive,
+                                       @Nullable Object to, boolean toInclusive)
+            throws IllegalStateException, IllegalArgumentException {
+        if (!isSorted())
+            throw new IllegalStateException("The index of " + field + " is not sorted");
+
+        NavigableMap<Object, Set<String>> sorted = (NavigableMap<Object, Set<String>>) keysByValue;
+
+        if (from != null) {
+            sorted = sorted.tailMap(bound(from), fromInclusive);
+        }
+
+        if (to != null) {
+            sorted = sorted.headMap(bound(to), toInclusive);
+        }
+
+        List<String> keys = new ArrayList<>();
+        sorted.values().forEach(keys::addAll);
+
+        return keys;
+    }
+
+    /**
+     * @return the amount of indexed children.
+     */
+    public int size() {
+        return valueByKey.size();
+    }
+
+    private void valueChanged(String path, Object value) {
+        int i = path.indexOf('.');
+
+        if (i == -1) {
+            // the whole child was replaced or removed
+            reindex(path);
+            return;
+        }
+
+        int start = i + 1;
+        int length = path.length() - start;
+
+        if (length == field.length()) {
+            if (path.regionMatches(start, field, 0, length)) {
+                update(path.substring(0, i), value);
+            }
+        } else if (length < field.length()) {
+            // a node that holds the field was replaced
+            if (field.charAt(length) == '.' && path.regionMatches(start, field, 0, length)) {
+                reindex(path.substring(0, i));
+            }
+        } else if (path.charAt(start + field.length()) == '.' && path.startsWith(field, start)) {
+            // the field holds a node, which is not indexed
+            update(path.substring(0, i), null);
+        }
+    }
+
+    private void reindex(String key) {
+        Object child = DataNode.unwrap(dataNode.entries().get(key));
+
+        update(key, child instanceof DataNode ? ((DataNode) child).find(fieldPath) : null);
+    }
+
+    private void update(String key, Object value) {
+        Object indexed = indexedValue(value);
+        Object previous = valueByKey.get(key);
+
+        if (Objects.equals(previous, indexed)) return;
+
+        if (previous != null) {
+            Set<String> keys = keysByValue.get(previous);
+            keys.remove(key);
+
+            if (keys.isEmpty()) {
+                keysByValue.remove(previous);
+            }
+
+            valueByKey.remove(key);
+        }
+
+        if (indexed != null) {
+            keysByValue.computeIfAbsent(indexed, v -> new LinkedHashSet<>()).add(key);
+            valueByKey.put(key, indexed);
+        }
+    }
+
+    /**
+     * @return the value as it is indexed, or null if the value is not indexed.
+     */
+    private Object indexedValue(Object value) {
+        if (value instanceof Number) {
+            if (value instanceof Double || value instanceof Float) {
+                double number = ((Number) value).doubleValue();
+
+                // integral numbers are held as longs, so they match the same longs
+                if (number >= -0x1p63 && number < 0x1p63 && number == Math.rint(number)) {
+                    return (long) number;
+                }
+
+                return number;
+            }
+
+            return value instanceof Long ? value : ((Number) value).longValue();
+        } else if (value instanceof String) {
+            return value;
+        } else if (!isSorted() && (value instanceof Boolean || value instanceof Character)) {
+            return value;
+        }
+
+        return null;
+    }
+
+    private Object bound(Object value) {
+        Object indexed = indexedValue(value);
+
+        if (indexed == null)
+            throw new IllegalArgumentException(value + " is not an indexed value");
+
+        return indexed;
+    }
+
+    /**
+     * Sorts numbers by their value and before strings.
+     */
+    private static int compare(Object first, Object second) {
+        if (first instanceof String) {
+            return second instanceof String ? ((String) first).compareTo((String) second) : 1;
+        } else if (second instanceof String) {
+            return -1;
+        }
+
+        if (first instanceof Long) {
+            return second instanceof Long
+                    ? Long.compare((Long) first, (Long) second)
+                    : -compareToLong((Double) second, (Long) first);
+        }
+
+        return second instanceof Long
+                ? compareToLong((Double) first, (Long) second)
+                : Double.compare((Double) first, (Double) second);
+    }
+
+    /**
+     * Compares a double that is not integral or out of the long range with
+     * a long, without converting the long to a double, which loses precision
+     * above 2^53.
+     */
+    private static int compareToLong(double first, long second) {
+        if (Double.isNaN(first) || first >= 0x1p63) return 1;
+        if (first < -0x1p63) return -1;
+
+        long truncated = (long) first;
+
+        return truncated != second ? Long.compare(truncated, second) : Double.compare(first, truncated);
+    }
+}
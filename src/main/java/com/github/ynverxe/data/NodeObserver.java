@@ -0,0 +1,15 @@
+package com.github.ynverxe.data;
+
+/**
+ * Receives the changes made on a node and its nested nodes.
+ */
+interface NodeObserver {
+
+    /**
+     * @param path - The changed path, relative to the observed node
+     * @param previous - The previous value
+     * @param value - The new value
+     * @param removal - Define if the value was removed rather than replaced
+     */
+    void valueChanged(String path, Object previous, Object value, boolean removal);
+}
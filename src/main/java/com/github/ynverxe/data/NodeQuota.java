@@ -0,0 +1,109 @@
+package com.github.ynverxe.data;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The limits of the content of a node, see {@link DataNode#setQuota(NodeQuota)}.
+ *
+ * The bytes are measured as {@link DataNode#getEstimatedBytes()}, the
+ * entries as {@link DataNode#getEntryCount()} and the depth as the amount
+ * of nested nodes below the node that holds the quota, where the values of
+ * that node are at depth 1. Quotas are immutable.
+ */
+public final class NodeQuota {
+
+    private static final NodeQuota UNLIMITED = new NodeQuota(Long.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    private final long maxBytes;
+    private final int maxEntries;
+    private final int maxDepth;
+
+    private NodeQuota(long maxBytes, int maxEntries, int maxDepth) {
+        this.maxBytes = maxBytes;
+        this.maxEntries = maxEntries;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * @return a quota without limits.
+     */
+    public static @NotNull NodeQuota unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * @param maxBytes - The max estimated bytes
+     * @throws IllegalArgumentException - If the limit is negative
+     * @return A copy of this quota with the provided limit.
+     */
+    public @NotNull NodeQuota withMaxBytes(long maxBytes) throws IllegalArgumentException {
+        if (maxBytes < 0) throw new IllegalArgumentException("negative max bytes: " + maxBytes);
+
+        return new NodeQuota(maxBytes, maxEntries, maxDepth);
+    }
+
+    /**
+     * @param maxEntries - The max amount of values
+     * @throws IllegalArgumentException - If the limit is negative
+     * @return A copy of this quota with the provided limit.
+     */
+    public @NotNull NodeQuota withMaxEntries(int maxEntries) throws IllegalArgumentException {
+        if (maxEntries < 0) throw new IllegalArgumentException("negative max entries: " + maxEntries);
+
+        return new NodeQuota(maxBytes, maxEntries, maxDepth);
+    }
+
+    /**
+     * @param maxDepth - The max depth of the values
+     * @throws IllegalArgumentException - If the limit is lower than 1
+     * @return A copy of this quota with the provided limit.
+     */
+    public @NotNull NodeQuota withMaxDepth(int maxDepth) throws IllegalArgumentException {
+        if (maxDepth < 1) throw new IllegalArgumentException("max depth lower than 1: " + maxDepth);
+
+        return new NodeQuota(maxBytes, maxEntries, maxDepth);
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    boolean limitsDepth() {
+        return maxDepth != Integer.MAX_VALUE;
+    }
+
+    /**
+     * Checks a write, only the limits that the write grows are checked,
+     * so a node that already exceeds its quota can still release data.
+     *
+     * @param bytes - The current bytes of the node
+     * @param entries - The current entries of the node
+     * @param addedBytes - The bytes added by the write
+     * @param addedEntries - The entries added by the write
+     * @param depth - The depth of the deepest value added by the write
+     * @return true, if the write is allowed, false if otherwise.
+     */
+    boolean allows(long bytes, int entries, long addedBytes, int addedEntries, int depth) {
+        if (addedBytes > 0 && bytes + addedBytes > maxBytes) return false;
+        if (addedEntries > 0 && (long) entries + addedEntries > maxEntries) return false;
+
+        return depth <= maxDepth;
+    }
+
+    @Override
+    public String toString() {
+        return "NodeQuota{" +
+                "maxBytes=" + maxBytes +
+                ", maxEntries=" + maxEntries +
+                ", maxDepth=" + maxDepth +
+                '}';
+    }
+}
@@ -0,0 +1,106 @@
+package com.github.ynverxe.data;
+
+/**
+ * A mutable holder that keeps a numeric value unboxed, so it can be
+ * read and overwritten without allocations.
+ */
+final class NumberSlot {
+    static final byte INT = 0;
+    static final byte LONG = 1;
+    static final byte FLOAT = 2;
+    static final byte DOUBLE = 3;
+
+    private byte kind;
+    private long bits;
+
+    NumberSlot(byte kind, long bits) {
+        this.kind = kind;
+        this.bits = bits;
+    }
+
+    void set(byte kind, long bits) {
+        this.kind = kind;
+        this.bits = bits;
+    }
+
+    byte kind() {
+        return kind;
+    }
+
+    long bits() {
+        return bits;
+    }
+
+    int intValue() {
+        switch (kind) {
+            case FLOAT:
+                return (int) Float.intBitsToFloat((int) bits);
+            case DOUBLE:
+                return (int) Double.longBitsToDouble(bits);
+            default:
+                return (int) bits;
+        }
+    }
+
+    long longValue() {
+        switch (kind) {
+            case FLOAT:
+                return (long) Float.intBitsToFloat((int) bits);
+            case DOUBLE:
+                return (long) Double.longBitsToDouble(bits);
+            default:
+                return bits;
+        }
+    }
+
+    float floatValue() {
+        switch (kind) {
+            case FLOAT:
+                return Float.intBitsToFloat((int) bits);
+            case DOUBLE:
+                return (float) Double.longBitsToDouble(bits);
+            default:
+                return bits;
+        }
+    }
+
+    double doubleValue() {
+        switch (kind) {
+            case FLOAT:
+                return Float.intBitsToFloat((int) bits);
+            case DOUBLE:
+                return Double.longBitsToDouble(bits);
+            default:
+                return bits;
+        }
+    }
+
+    /**
+     * @return the value boxed in its wrapper class.
+     */
+    Number box() {
+        return box(kind, bits);
+    }
+
+    NumberSlot copy() {
+        return new NumberSlot(kind, bits);
+    }
+
+    static Number box(byte kind, long bits) {
+        switch (kind) {
+            case INT:
+                return (int) bits;
+            case LONG:
+                return bits;
+            case FLOAT:
+                return Float.intBitsToFloat((int) bits);
+            default:
+                return Double.longBitsToDouble(bits);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return box().toString();
+    }
+}
@@ -0,0 +1,361 @@
+package com.github.ynverxe.data;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork-join versions of the recursive operations over trees.
+ *
+ * The values held by a node are split in ranges that hold about
+ * {@link #THRESHOLD} values including their descendants, every range is
+ * processed sequentially by its own task, and the values whose subtrees
+ * alone reach the threshold get their own task that splits them again.
+ * The results are assembled in the original order, so they are identical
+ * to the sequential results.
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+final class ParallelTrees {
+
+    /**
+     * The amount of values a range must hold to be processed by its own task.
+     */
+    static final int THRESHOLD = 2048;
+
+    private static final Operation SIMPLIFY = new Simplify();
+    private static final Operation DEEP_COPY = new DeepCopy();
+    private static final Operation NORMALIZE = new Normalize();
+
+    private ParallelTrees() {
+    }
+
+    static Map<String, Object> simplify(DataNode dataNode, ForkJoinPool pool) {
+        return (Map<String, Object>) invoke(SIMPLIFY, dataNode, pool);
+    }
+
+    /**
+     * @param pool - The pool, or null to copy on the calling thread
+     */
+    static DataNode deepCopy(DataNode dataNode, ForkJoinPool pool) {
+        return (DataNode) (pool != null ? invoke(DEEP_COPY, dataNode, pool) : DEEP_COPY.sequential(dataNode));
+    }
+
+    static DataNode fromMap(Map<String, ?> map, ForkJoinPool pool) {
+        return (DataNode) invoke(NORMALIZE, map, pool);
+    }
+
+    /**
+     * @param value - A stored value, or a map or collection provided to be stored
+     * @return the amount of values held by the value and its descendants,
+     * counting up to the provided limit.
+     */
+    static int weight(Object value, int limit) {
+        if (value instanceof DataNode) {
+            Map<String, Object> entries = ((DataNode) value).entries();
+
+            if (entries.size() >= limit) return limit;
+
+            int weight = entries.size();
+
+            for (Object stored : entries.values()) {
+                Object child = inner(stored);
+
+                if (child instanceof DataNode || child instanceof ValueList) {
+                    weight += weight(child, limit - weight);
+
+                    if (weight >= limit) return limit;
+                }
+            }
+
+            return weight;
+        } else if (value instanceof ValueList) {
+            ValueList list = (ValueList) value;
+
+            if (list.size() >= limit || !list.holdsNodes()) return Math.min(list.size(), limit);
+
+            int weight = list.size();
+
+            for (Object element : list) {
+                if (element instanceof DataNode || element instanceof ValueList) {
+                    weight += weight(element, limit - weight);
+
+                    if (weight >= limit) return limit;
+                }
+            }
+
+            return weight;
+        } else if (value instanceof Map || value instanceof Collection) {
+            Collection<?> children = value instanceof Map ? ((Map<?, ?>) value).values() : (Collection<?>) value;
+
+            if (children.size() >= limit) return limit;
+
+            int weight = children.size();
+
+            for (Object child : children) {
+                if (child instanceof Map || child instanceof Collection) {
+                    weight += weight(child, limit - weight);
+
+                    if (weight >= limit) return limit;
+                }
+            }
+
+            return weight;
+        }
+
+        return 0;
+    }
+
+    private static Object invoke(Operation operation, Object value, ForkJoinPool pool) {
+        Object[] values = {value};
+        pool.invoke(new RangeTask(operation, values, 0, 1, true));
+
+        return values[0];
+    }
+
+    /**
+     * Replaces every value with the result of the operation, splitting
+     * the values in tasks. Must be called from a task of the pool.
+     */
+    private static void convertAll(Object[] values, Operation operation) {
+        List<ForkJoinTask<?>> forked = new ArrayList<>();
+        int start = 0;
+        int weight = 0;
+
+        for (int i = 0; i < values.length; i++) {
+            int valueWeight = weight(inner(values[i]), THRESHOLD);
+
+            if (valueWeight >= THRESHOLD) {
+                if (start < i) {
+                    forked.add(new RangeTask(operation, values, start, i, false).fork());
+                }
+
+                forked.add(new RangeTask(operation, values, i, i + 1, true).fork());
+                start = i + 1;
+                weight = 0;
+            } else if ((weight += valueWeight + 1) >= THRESHOLD) {
+                forked.add(new RangeTask(operation, values, start, i + 1, false).fork());
+                start = i + 1;
+                weight = 0;
+            }
+        }
+
+        for (int i = start; i < values.length; i++) {
+            values[i] = operation.sequential(values[i]);
+        }
+
+        for (ForkJoinTask<?> task : forked) {
+            task.join();
+        }
+    }
+
+    /**
+     * @return the value held by a stored value, lazy values that were not read are not defragmented.
+     */
+    private static Object inner(Object stored) {
+        if (stored instanceof TypeProtectedValue) {
+            return ((TypeProtectedValue) stored).getValue();
+        } else if (stored instanceof LazyValue) {
+            return ((LazyValue) stored).peek();
+        }
+
+        return stored;
+    }
+
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Operation operation;
+        private final Object[] values;
+        private final int from;
+        private final int to;
+        private final boolean split;
+
+        /**
+         * @param split - Define if the values are converted by splitting them again
+         */
+        private RangeTask(Operation operation, Object[] values, int from, int to, boolean split) {
+            this.operation = operation;
+            this.values = values;
+            this.from = from;
+            this.to = to;
+            this.split = split;
+        }
+
+        @Override
+        protected void compute() {
+            for (int i = from; i < to; i++) {
+                values[i] = split ? operation.parallel(values[i]) : operation.sequential(values[i]);
+            }
+        }
+    }
+
+    private abstract static class Operation {
+
+        /**
+         * @return the result of the operation, computed on the calling thread.
+         */
+        abstract Object sequential(Object value);
+
+        /**
+         * @return the result of the operation, computed by splitting the
+         * values held by the provided value.
+         */
+        abstract Object parallel(Object value);
+
+        /**
+         * @return the entries of a node, its keys and its values.
+         */
+        static Object[][] entries(DataNode dataNode) {
+            Map<String, Object> entries = dataNode.entries();
+            Object[] keys = new Object[entries.size()];
+            Object[] values = new Object[keys.length];
+            int i = 0;
+
+            for (Map.Entry<String, Object> entry : entries.entrySet()) {
+                keys[i] = entry.getKey();
+                values[i++] = entry.getValue();
+            }
+
+            return new Object[][]{keys, values};
+        }
+    }
+
+    /**
+     * Mirrors {@link DataNode#simplify()} and the simplification of the values it holds.
+     */
+    private static final class Simplify extends Operation {
+        @Override
+        Object sequential(Object value) {
+            return DataNode.trySimplify(value);
+        }
+
+        @Override
+        Object parallel(Object stored) {
+            Object value = DataNode.unwrap(stored);
+
+            if (value instanceof DataNode) {
+                Object[][] entries = entries((DataNode) value);
+                convertAll(entries[1], this);
+
+                Map<String, Object> objectMap = new HashMap<>();
+
+                for (int i = 0; i < entries[0].length; i++) {
+                    objectMap.put((String) entries[0][i], entries[1][i]);
+                }
+
+                return objectMap;
+            } else if (value instanceof Collection) {
+                Object[] elements = ((Collection) value).toArray();
+                convertAll(elements, this);
+
+                return new ArrayList(Arrays.asList(elements));
+            }
+
+            return DataNode.trySimplify(value);
+        }
+    }
+
+    /**
+     * Copies a node and every value it holds, so the copy doesn't share
+     * anything mutable with the original node. The copied nodes keep the
+     * quotas of the original nodes.
+     */
+    private static final class DeepCopy extends Operation {
+        @Override
+        Object sequential(Object value) {
+            return copy(value, false);
+        }
+
+        @Override
+        Object parallel(Object value) {
+            return copy(value, true);
+        }
+
+        private Object copy(Object stored, boolean parallel) {
+            if (stored instanceof TypeProtectedValue) {
+                TypeProtectedValue typeProtectedValue = (TypeProtectedValue) stored;
+
+                return typeProtectedValue.clone(copy(typeProtectedValue.getValue(), parallel));
+            } else if (stored instanceof NumberSlot) {
+                return ((NumberSlot) stored).copy();
+            } else if (stored instanceof LazyValue) {
+                return copy(((LazyValue) stored).get(), parallel);
+            } else if (stored instanceof DataNode) {
+                DataNode dataNode = (DataNode) stored;
+                Object[][] entries = entries(dataNode);
+                convert(entries[1], parallel);
+
+                DataNode copy = new DataNode();
+
+                for (int i = 0; i < entries[0].length; i++) {
+                    copy.putTrusted((String) entries[0][i], entries[1][i]);
+                }
+
+                // set once filled, the content was already accepted by the quota
+                copy.setQuota(dataNode.getQuota());
+
+                return copy;
+            } else if (stored instanceof ValueList && ((ValueList) stored).holdsNodes()) {
+                Object[] elements = ((ValueList) stored).toArray();
+                convert(elements, parallel);
+
+                return ValueList.of(elements, elements.length);
+            }
+
+            return stored;
+        }
+
+        private void convert(Object[] values, boolean parallel) {
+            if (parallel) {
+                convertAll(values, this);
+                return;
+            }
+
+            for (int i = 0; i < values.length; i++) {
+                values[i] = copy(values[i], false);
+            }
+        }
+    }
+
+    /**
+     * Mirrors {@link DataNode#fromMap(Map)} and the normalization of the
+     * maps and collections it holds.
+     */
+    private static final class Normalize extends Operation {
+        @Override
+        Object sequential(Object value) {
+            return DataNode.normalize(value);
+        }
+
+        @Override
+        Object parallel(Object value) {
+            switch (SerializableTypes.kind(value)) {
+                case MAP:
+                    Map<String, ?> map = (Map<String, ?>) value;
+                    String[] keys = map.keySet().toArray(new String[0]);
+                    Object[] values = new Object[keys.length];
+
+                    for (int i = 0; i < keys.length; i++) {
+                        values[i] = map.get(keys[i]);
+                    }
+
+                    convertAll(values, this);
+
+                    DataNode dataNode = new DataNode();
+                    dataNode.putNormalized(keys, values);
+
+                    return dataNode;
+                case COLLECTION:
+                    if (value instanceof ValueList) break;
+
+                    Object[] elements = ((Collection) value).toArray();
+                    convertAll(elements, this);
+
+                    return ValueList.of(elements, elements.length);
+            }
+
+            return DataNode.normalize(value);
+        }
+    }
+}
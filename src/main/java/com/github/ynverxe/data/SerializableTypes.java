@@ -0,0 +1,214 @@
+package com.github.ynverxe.data;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Classifies the types of the values that nodes can hold.
+ *
+ * The classification of every class is computed once and cached, so
+ * checking a value costs a single lookup. Besides the built-in types,
+ * other types can be registered either as values that are stored as they
+ * are, or as values that are converted into a built-in type when stored.
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+public final class SerializableTypes {
+
+    enum Kind {
+        /**
+         * Strings, primitive wrappers and the types registered without converter.
+         */
+        VALUE,
+        NODE,
+        NUMBER_SLOT,
+        PROTECTED,
+        COLLECTION,
+        MAP,
+        FRAGMENTED,
+        /**
+         * The types registered with a converter.
+         */
+        CONVERTED,
+        UNSUPPORTED
+    }
+
+    private static final Set<Class<?>> BUILT_IN_VALUES = new HashSet<>(Arrays.asList(
+            String.class,
+            Boolean.class,
+            Character.class,
+            Byte.class,
+            Short.class,
+            Integer.class,
+            Long.class,
+            Float.class,
+            Double.class
+    ));
+
+    /**
+     * The types classified without registration, a registered type can't
+     * be one of their supertypes.
+     */
+    private static final List<Class<?>> BUILT_IN_TYPES = Arrays.asList(
+            DataNode.class,
+            NumberSlot.class,
+            TypeProtectedValue.class,
+            Collection.class,
+            Map.class,
+            Fragmented.class
+    );
+
+    private static final List<Registration> REGISTRATIONS = new CopyOnWriteArrayList<>();
+
+    /**
+     * Incremented on every registration, so the cached classifications
+     * made before it are computed again.
+     */
+    private static volatile int version;
+
+    private static final ClassValue<Classification> CLASSIFICATIONS = new ClassValue<Classification>() {
+        @Override
+        protected Classification computeValue(Class<?> type) {
+            return classify(type);
+        }
+    };
+
+    private SerializableTypes() {
+    }
+
+    /**
+     * Registers a type whose values are stored as they are, the values
+     * must be immutable.
+     *
+     * The built-in codecs only write the built-in types, so nodes holding
+     * values of registered types can't be encoded by them.
+     *
+     * @param type - The type, its subtypes are registered too
+     * @throws IllegalArgumentException - If the type is already supported or is a supertype of a built-in type
+     */
+    public static void register(@NotNull Class<?> type) throws IllegalArgumentException {
+        register(new Registration(type, null));
+    }
+
+    /**
+     * Registers a type whose values are converted when they are stored.
+     *
+     * @param type - The type, its subtypes are registered too
+     * @param converter - The function that converts a value into a supported value
+     * @param <T> - The type
+     * @throws IllegalArgumentException - If the type is already supported or is a supertype of a built-in type
+     */
+    public static <T> void register(@NotNull Class<T> type, @NotNull Function<? super T, ?> converter)
+            throws IllegalArgumentException {
+        register(new Registration(type, converter));
+    }
+
+    /**
+     * @param type - The type
+     * @return true if the values of the type can be stored in a node.
+     */
+    public static boolean isSupported(@NotNull Class<?> type) {
+        return classification(type).kind != Kind.UNSUPPORTED;
+    }
+
+    /**
+     * @param value - The value
+     * @return the kind of the value, null values are classified as {@link Kind#VALUE}.
+     */
+    static Kind kind(@Nullable Object value) {
+        return value == null ? Kind.VALUE : classification(value.getClass()).kind;
+    }
+
+    /**
+     * @param value - A value of a type registered with a converter
+     * @return the converted value.
+     */
+    static Object convert(@NotNull Object value) {
+        return classification(value.getClass()).converter.apply(value);
+    }
+
+    private static synchronized void register(Registration registration) {
+        Class<?> type = registration.type;
+
+        if (isSupported(type))
+            throw new IllegalArgumentException(type.getName() + " is already supported");
+
+        List<Class<?>> builtIns = new ArrayList<>(BUILT_IN_VALUES);
+        builtIns.addAll(BUILT_IN_TYPES);
+
+        // a supertype would also match the built-in types, like Object matching maps and lists
+        for (Class<?> builtIn : builtIns) {
+            if (type.isAssignableFrom(builtIn))
+                throw new IllegalArgumentException(type.getName() + " is a supertype of " + builtIn.getName());
+        }
+
+        REGISTRATIONS.add(registration);
+        version++;
+    }
+
+    private static Classification classification(Class<?> type) {
+        Classification classification = CLASSIFICATIONS.get(type);
+
+        if (classification.version != version) {
+            CLASSIFICATIONS.remove(type);
+            classification = CLASSIFICATIONS.get(type);
+        }
+
+        return classification;
+    }
+
+    private static Classification classify(Class<?> type) {
+        int version = SerializableTypes.version;
+
+        if (BUILT_IN_VALUES.contains(type)) {
+            return new Classification(Kind.VALUE, null, version);
+        } else if (DataNode.class.isAssignableFrom(type)) {
+            return new Classification(Kind.NODE, null, version);
+        } else if (type == NumberSlot.class) {
+            return new Classification(Kind.NUMBER_SLOT, null, version);
+        } else if (type == TypeProtectedValue.class) {
+            return new Classification(Kind.PROTECTED, null, version);
+        } else if (Collection.class.isAssignableFrom(type)) {
+            return new Classification(Kind.COLLECTION, null, version);
+        } else if (Map.class.isAssignableFrom(type)) {
+            return new Classification(Kind.MAP, null, version);
+        } else if (Fragmented.class.isAssignableFrom(type)) {
+            return new Classification(Kind.FRAGMENTED, null, version);
+        }
+
+        for (Registration registration : REGISTRATIONS) {
+            if (registration.type.isAssignableFrom(type)) {
+                Kind kind = registration.converter != null ? Kind.CONVERTED : Kind.VALUE;
+
+                return new Classification(kind, registration.converter, version);
+            }
+        }
+
+        return new Classification(Kind.UNSUPPORTED, null, version);
+    }
+
+    private static final class Classification {
+        private final Kind kind;
+        private final Function converter;
+        private final int version;
+
+        private Classification(Kind kind, Function converter, int version) {
+            this.kind = kind;
+            this.converter = converter;
+            this.version = version;
+        }
+    }
+
+    private static final class Registration {
+        private final Class<?> type;
+        private final Function converter;
+
+        private Registration(Class<?> type, Function converter) {
+            this.type = type;
+            this.converter = converter;
+        }
+    }
+}
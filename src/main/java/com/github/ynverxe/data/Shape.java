@@ -0,0 +1,109 @@
+package com.github.ynverxe.data;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable key layout shared by every {@link ShapedMap} whose keys
+ * were added in the same order, it maps every key to the index of its
+ * value.
+ *
+ * Shapes are created by adding a key to another shape and the results
+ * are cached while a map uses them or a shape created from them, the
+ * unused shapes are reclaimed, so maps built the same way end up with
+ * the same shape. A shape caches a
+ * bounded amount of transitions, the keys added past that bound get a
+ * shape that is not shared, so nodes with unbounded key sets (ids as
+ * keys) don't grow the cache. The maps with more than {@link #MAX_SIZE}
+ * keys fall back to a regular map.
+ */
+final class Shape {
+
+    static final int MAX_SIZE = 32;
+    static final int MAX_TRANSITIONS = 16;
+
+    static final Shape EMPTY = new Shape(null, new String[0], new HashMap<>());
+
+    /**
+     * Keeps the shapes this shape was created from reachable, their
+     * transitions are weak.
+     */
+    private final Shape parent;
+    private final String[] keys;
+    private final Map<String, Integer> indexes;
+    private final ConcurrentHashMap<String, Reference<Shape>> transitions = new ConcurrentHashMap<>();
+
+    private Shape(Shape parent, String[] keys, Map<String, Integer> indexes) {
+        this.parent = parent;
+        this.keys = keys;
+        this.indexes = indexes;
+    }
+
+    /**
+     * @param key - The key
+     * @return the index of the key value, or -1 if the shape doesn't have the key.
+     */
+    int indexOf(Object key) {
+        Integer index = indexes.get(key);
+
+        return index != null ? index : -1;
+    }
+
+    String key(int index) {
+        return keys[index];
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    /**
+     * @param key - A key that is not part of this shape
+     * @return the shape with the provided key added at the end, or null if the shape has {@link #MAX_SIZE} keys.
+     */
+    Shape with(String key) {
+        if (keys.length == MAX_SIZE) return null;
+
+        Reference<Shape> reference = transitions.get(key);
+        Shape shape = reference != null ? reference.get() : null;
+
+        if (shape != null) return shape;
+
+        if (transitions.size() >= MAX_TRANSITIONS) {
+            transitions.values().removeIf(transition -> transition.get() == null);
+
+            if (transitions.size() >= MAX_TRANSITIONS) return extend(key);
+        }
+
+        Shape[] result = new Shape[1];
+
+        transitions.compute(key, (k, transition) -> {
+            Shape cached = transition != null ? transition.get() : null;
+
+            if (cached != null) {
+                result[0] = cached;
+                return transition;
+            }
+
+            result[0] = extend(k);
+
+            return new WeakReference<>(result[0]);
+        });
+
+        return result[0];
+    }
+
+    private Shape extend(String key) {
+        String[] keys = Arrays.copyOf(this.keys, this.keys.length + 1);
+        keys[this.keys.length] = key;
+
+        Map<String, Integer> indexes = new HashMap<>(this.indexes);
+        indexes.put(key, this.keys.length);
+
+        return new Shape(this, keys, indexes);
+    }
+}
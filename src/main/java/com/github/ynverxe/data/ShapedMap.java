@@ -0,0 +1,291 @@
+package com.github.ynverxe.data;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * The map used by nodes to hold their entries.
+ *
+ * Keys are held by a {@link Shape} shared with the maps that have the
+ * same keys, and every map only keeps an array with its values. When a
+ * key is removed or the map outgrows {@link Shape#MAX_SIZE}, the entries
+ * are moved into a regular map that keeps their order.
+ */
+final class ShapedMap extends AbstractMap<String, Object> {
+
+    private static final Object[] NO_VALUES = new Object[0];
+
+    private Shape shape;
+    private Object[] values;
+    private LinkedHashMap<String, Object> fallback;
+
+    ShapedMap() {
+        this.shape = Shape.EMPTY;
+        this.values = NO_VALUES;
+    }
+
+    private ShapedMap(Shape shape, Object[] values, LinkedHashMap<String, Object> fallback) {
+        this.shape = shape;
+        this.values = values;
+        this.fallback = fallback;
+    }
+
+    /**
+     * @return a copy of this map that shares its shape.
+     */
+    ShapedMap copy() {
+        if (fallback != null) {
+            return new ShapedMap(null, null, new LinkedHashMap<>(fallback));
+        }
+
+        return new ShapedMap(shape, Arrays.copyOf(values, shape.size()), null);
+    }
+
+    @Override
+    public int size() {
+        return fallback != null ? fallback.size() : shape.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return fallback != null ? fallback.containsKey(key) : shape.indexOf(key) != -1;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (fallback != null) return fallback.get(key);
+
+        int index = shape.indexOf(key);
+
+        return index != -1 ? values[index] : null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if (fallback != null) return fallback.put(key, value);
+
+        int index = shape.indexOf(key);
+
+        if (index != -1) {
+            Object previous = values[index];
+            values[index] = value;
+
+            return previous;
+        }
+
+        Shape next = shape.with(key);
+
+        if (next == null) {
+            return toFallback().put(key, value);
+        }
+
+        int size = shape.size();
+
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(4, size << 1));
+        }
+
+        values[size] = value;
+        shape = next;
+
+        return null;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (fallback == null && shape.indexOf(key) == -1) return null;
+
+        return toFallback().remove(key);
+    }
+
+    @Override
+    public void clear() {
+        shape = Shape.EMPTY;
+        values = NO_VALUES;
+        fallback = null;
+    }
+
+    /**
+     * Removes every key, keeping the array of values so the map can be
+     * filled again without allocating. A regular map is dropped.
+     */
+    void reset() {
+        if (fallback != null) {
+            clear();
+            return;
+        }
+
+        Arrays.fill(values, 0, shape.size(), null);
+        shape = Shape.EMPTY;
+    }
+
+    /**
+     * Removes the keys without value. The remaining keys are moved to the
+     * shape that holds them in the same order, so unlike {@link #remove(Object)}
+     * the map only falls back to a regular map if it outgrows a shape.
+     */
+    void removeNullValues() {
+        if (fallback != null) {
+            fallback.values().removeIf(Objects::isNull);
+
+            if (fallback.isEmpty()) {
+                clear();
+            }
+
+            return;
+        }
+
+        Shape shape = this.shape;
+        Shape retained = Shape.EMPTY;
+        int size = 0;
+
+        for (int i = 0; i < shape.size(); i++) {
+            Object value = values[i];
+
+            if (value == null) continue;
+
+            Shape next = retained.with(shape.key(i));
+
+            if (next == null) {
+                LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+
+                for (int j = 0; j < size; j++) {
+                    map.put(retained.key(j), values[j]);
+                }
+
+                for (int j = i; j < shape.size(); j++) {
+                    if (values[j] != null) {
+                        map.put(shape.key(j), values[j]);
+                    }
+                }
+
+                fallback = map;
+                this.shape = null;
+                values = null;
+
+                return;
+            }
+
+            retained = next;
+            values[size++] = value;
+        }
+
+        Arrays.fill(values, size, shape.size(), null);
+        this.shape = retained;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Object> action) {
+        if (fallback != null) {
+            fallback.forEach(action);
+            return;
+        }
+
+        Shape shape = this.shape;
+
+        for (int i = 0; i < shape.size(); i++) {
+            action.accept(shape.key(i), values[i]);
+        }
+    }
+
+    @Override
+    public @NotNull Set<Entry<String, Object>> entrySet() {
+        if (fallback != null) return fallback.entrySet();
+
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public @NotNull Iterator<Entry<String, Object>> iterator() {
+                return new ShapeIterator();
+            }
+
+            @Override
+            public int size() {
+                return ShapedMap.this.size();
+            }
+        };
+    }
+
+    private LinkedHashMap<String, Object> toFallback() {
+        LinkedHashMap<String, Object> map = new LinkedHashMap<>(Math.max(16, (int) (shape.size() / .75f) + 1));
+
+        for (int i = 0; i < shape.size(); i++) {
+            map.put(shape.key(i), values[i]);
+        }
+
+        fallback = map;
+        shape = null;
+        values = null;
+
+        return map;
+    }
+
+    private final class ShapeIterator implements Iterator<Entry<String, Object>> {
+        private final Shape shape = ShapedMap.this.shape;
+        private int index;
+
+        @Override
+        public boolean hasNext() {
+            return index < shape.size();
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (index >= shape.size())
+                throw new NoSuchElementException();
+
+            if (ShapedMap.this.shape != shape)
+                throw new ConcurrentModificationException();
+
+            return new ShapeEntry(shape.key(index), index++);
+        }
+    }
+
+    private final class ShapeEntry implements Entry<String, Object> {
+        private final String key;
+        private final int index;
+
+        private ShapeEntry(String key, int index) {
+            this.key = key;
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            return values[index];
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            Object previous = values[index];
+            values[index] = value;
+
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) return false;
+
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+
+            return getKey().equals(entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
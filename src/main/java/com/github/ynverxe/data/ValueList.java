@@ -0,0 +1,538 @@
+package com.github.ynverxe.data;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Array;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.BiPredicate;
+
+/**
+ * The immutable list used by nodes to hold their list values, so they
+ * can be handed out without wrappers.
+ *
+ * Lists share a growable buffer: a list is a prefix of its buffer, and
+ * appending to the list that ends where the used part of the buffer ends
+ * writes the new elements in place, so appending is amortized constant
+ * per element and the lists already handed out are never modified.
+ * Lists that only hold integers, longs or doubles keep them unboxed.
+ */
+final class ValueList extends AbstractList<Object> implements RandomAccess {
+    static final byte OBJECT = 0;
+    static final byte INT = 1;
+    static final byte LONG = 2;
+    static final byte DOUBLE = 3;
+
+    static final ValueList EMPTY = new ValueList(new Buffer(OBJECT, new Object[0], 0), 0, false);
+
+    private final Buffer buffer;
+    private final int size;
+
+    /**
+     * Define if any element is a node or a list that holds nodes.
+     */
+    private final boolean holdsNodes;
+
+    /**
+     * The estimated bytes of a list that doesn't hold nodes, computed
+     * once, or -1 until then.
+     */
+    private long footprint = -1;
+
+    private ValueList(Buffer buffer, int size, boolean holdsNodes) {
+        this.buffer = buffer;
+        this.size = size;
+        this.holdsNodes = holdsNodes;
+    }
+
+    /**
+     * @param elements - The normalized elements, the array is owned by the created list
+     * @param size - The amount of elements
+     * @return a list with the provided elements.
+     */
+    static ValueList of(Object[] elements, int size) {
+        if (size == 0) return EMPTY;
+
+        byte kind = kindOf(elements, 0, size);
+
+        if (kind != OBJECT) {
+            Buffer buffer = new Buffer(kind, newArray(kind, size), size);
+            buffer.write(0, elements, 0, size);
+
+            return new ValueList(buffer, size, false);
+        }
+
+        return new ValueList(new Buffer(OBJECT, elements, size), size, holdsNodes(elements, 0, size));
+    }
+
+    /**
+     * @param elements - The normalized elements
+     * @return a list with the provided elements.
+     */
+    static ValueList of(Collection<?> elements) {
+        Object[] array = elements.toArray();
+
+        return of(array, array.length);
+    }
+
+    /**
+     * @return true if any element is a node or a list that holds nodes.
+     */
+    boolean holdsNodes() {
+        return holdsNodes;
+    }
+
+    /**
+     * @param elements - The normalized elements to append
+     * @return a list with the elements of this list followed by the provided elements.
+     */
+    ValueList append(Object[] elements) {
+        int count = elements.length;
+
+        if (count == 0) return this;
+
+        byte kind = buffer.kind != OBJECT && kindOf(elements, 0, count) == buffer.kind ? buffer.kind : OBJECT;
+        boolean holdsNodes = this.holdsNodes || kind == OBJECT && holdsNodes(elements, 0, count);
+        int newSize = size + count;
+
+        ValueList appended;
+
+        if (kind == buffer.kind && newSize <= buffer.capacity && buffer.claim(size, newSize)) {
+            buffer.write(size, elements, 0, count);
+
+            appended = new ValueList(buffer, newSize, holdsNodes);
+        } else {
+            int capacity = Math.max(newSize, size + (size >> 1));
+            Buffer grown = new Buffer(kind, newArray(kind, capacity), newSize);
+
+            copyTo(grown);
+            grown.write(size, elements, 0, count);
+
+            appended = new ValueList(grown, newSize, holdsNodes);
+        }
+
+        // appending to a list of objects only adds the new elements to its estimate
+        if (footprint >= 0 && kind == OBJECT && buffer.kind == OBJECT && !holdsNodes) {
+            appended.footprint = footprint + measure(elements, count);
+        }
+
+        return appended;
+    }
+
+    /**
+     * @return the estimated bytes retained by this list and its elements.
+     * @see Footprint
+     */
+    long footprint() {
+        if (holdsNodes) {
+            return Footprint.LIST_BYTES + measure((Object[]) buffer.array, size);
+        }
+
+        long footprint = this.footprint;
+
+        if (footprint < 0) {
+            if (buffer.kind == OBJECT) {
+                footprint = Footprint.LIST_BYTES + measure((Object[]) buffer.array, size);
+            } else {
+                footprint = Footprint.LIST_BYTES + (long) size * (buffer.kind == INT ? 4 : 8);
+            }
+
+            this.footprint = footprint;
+        }
+
+        return footprint;
+    }
+
+    /**
+     * @return the amount of elements, plus the values held by the nested nodes and lists.
+     */
+    int entryCount() {
+        if (!holdsNodes) return size;
+
+        Object[] elements = (Object[]) buffer.array;
+        int count = 0;
+
+        for (int i = 0; i < size; i++) {
+            count += elements[i] == null ? 1 : Footprint.entries(elements[i]);
+        }
+
+        return count;
+    }
+
+    private static long measure(Object[] elements, int size) {
+        long bytes = size * Footprint.REFERENCE_BYTES;
+
+        for (int i = 0; i < size; i++) {
+            bytes += Footprint.bytes(elements[i]);
+        }
+
+        return bytes;
+    }
+
+    /**
+     * @param index - The index of the first replaced element
+     * @param deleted - The amount of replaced elements
+     * @param elements - The normalized elements to insert
+     * @return a list with the elements between the provided bounds replaced
+     * by the provided elements.
+     */
+    ValueList splice(int index, int deleted, Object[] elements) {
+        if (index < 0 || deleted < 0 || index + deleted > size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Deleted: " + deleted + ", Size: " + size);
+
+        if (deleted == 0 && index == size) {
+            return append(elements);
+        }
+
+        int tail = size - index - deleted;
+        Object[] spliced = new Object[index + elements.length + tail];
+
+        for (int i = 0; i < index; i++) {
+            spliced[i] = get(i);
+        }
+
+        System.arraycopy(elements, 0, spliced, index, elements.length);
+
+        for (int i = 0; i < tail; i++) {
+            spliced[index + elements.length + i] = get(index + deleted + i);
+        }
+
+        return of(spliced, spliced.length);
+    }
+
+    /**
+     * @param other - The compared list
+     * @param equality - Compares the elements unless both lists keep them unboxed
+     * @return the amount of leading elements that are equal in both lists.
+     */
+    int commonPrefix(ValueList other, BiPredicate<Object, Object> equality) {
+        int limit = Math.min(size, other.size);
+
+        // lists that share a buffer are prefixes of the same elements
+        if (buffer == other.buffer) return limit;
+
+        int i = 0;
+
+        while (i < limit && sameElement(i, other, i, equality)) {
+            i++;
+        }
+
+        return i;
+    }
+
+    /**
+     * @param other - The compared list
+     * @param limit - The maximum amount of elements to compare
+     * @param equality - Compares the elements unless both lists keep them unboxed
+     * @return the amount of trailing elements that are equal in both lists.
+     */
+    int commonSuffix(ValueList other, int limit, BiPredicate<Object, Object> equality) {
+        int i = 0;
+
+        while (i < limit && sameElement(size - 1 - i, other, other.size - 1 - i, equality)) {
+            i++;
+        }
+
+        return i;
+    }
+
+    private boolean sameElement(int index, ValueList other, int otherIndex, BiPredicate<Object, Object> equality) {
+        byte kind = buffer.kind;
+
+        if (kind != OBJECT && kind == other.buffer.kind) {
+            return bitsAt(kind, index) == other.bitsAt(kind, otherIndex);
+        }
+
+        return equality.test(get(index), other.get(otherIndex));
+    }
+
+    /**
+     * @param values - The values to remove
+     * @return a list without the elements equal to any of the provided values.
+     */
+    ValueList removeAll(@NotNull Object[] values) {
+        if (values.length == 0 || size == 0) return this;
+
+        if (buffer.kind != OBJECT) {
+            return removeAllUnboxed(values);
+        }
+
+        Set<Object> removed = new HashSet<>(Arrays.asList(values));
+        Object[] elements = (Object[]) buffer.array;
+        Object[] kept = null;
+        int keptSize = 0;
+
+        for (int i = 0; i < size; i++) {
+            if (!removed.contains(elements[i])) {
+                if (kept != null) {
+                    kept[keptSize++] = elements[i];
+                }
+            } else if (kept == null) {
+                kept = Arrays.copyOf(elements, size - 1);
+                keptSize = i;
+            }
+        }
+
+        return kept == null ? this : of(kept, keptSize);
+    }
+
+    /**
+     * Removes the values from a list that keeps its elements unboxed, the
+     * values are compared by their bits as {@link Double#equals(Object)} does.
+     */
+    private ValueList removeAllUnboxed(Object[] values) {
+        byte kind = buffer.kind;
+        Class<?> type = kind == INT ? Integer.class : kind == LONG ? Long.class : Double.class;
+        long[] removed = new long[values.length];
+        int removedSize = 0;
+
+        for (Object value : values) {
+            if (value != null && value.getClass() == type) {
+                removed[removedSize++] = bits(kind, (Number) value);
+            }
+        }
+
+        if (removedSize == 0) return this;
+
+        removed = Arrays.copyOf(removed, removedSize);
+        Arrays.sort(removed);
+
+        Object kept = null;
+        int keptSize = 0;
+
+        for (int i = 0; i < size; i++) {
+            if (Arrays.binarySearch(removed, bitsAt(kind, i)) < 0) {
+                if (kept != null) {
+                    keptSize = keep(kept, keptSize, i);
+                }
+            } else if (kept == null) {
+                kept = newArray(kind, size - 1);
+                System.arraycopy(buffer.array, 0, kept, 0, i);
+                keptSize = i;
+            }
+        }
+
+        return kept == null ? this : new ValueList(new Buffer(kind, kept, keptSize), keptSize, false);
+    }
+
+    private long bitsAt(byte kind, int index) {
+        switch (kind) {
+            case INT:
+                return ((int[]) buffer.array)[index];
+            case LONG:
+                return ((long[]) buffer.array)[index];
+            default:
+                return Double.doubleToLongBits(((double[]) buffer.array)[index]);
+        }
+    }
+
+    private int keep(Object kept, int keptSize, int index) {
+        switch (buffer.kind) {
+            case INT:
+                ((int[]) kept)[keptSize] = ((int[]) buffer.array)[index];
+                break;
+            case LONG:
+                ((long[]) kept)[keptSize] = ((long[]) buffer.array)[index];
+                break;
+            default:
+                ((double[]) kept)[keptSize] = ((double[]) buffer.array)[index];
+        }
+
+        return keptSize + 1;
+    }
+
+    int getInt(int index) {
+        checkIndex(index);
+
+        switch (buffer.kind) {
+            case INT:
+                return ((int[]) buffer.array)[index];
+            case LONG:
+                return (int) ((long[]) buffer.array)[index];
+            case DOUBLE:
+                return (int) ((double[]) buffer.array)[index];
+            default:
+                return ((Number) ((Object[]) buffer.array)[index]).intValue();
+        }
+    }
+
+    long getLong(int index) {
+        checkIndex(index);
+
+        switch (buffer.kind) {
+            case INT:
+                return ((int[]) buffer.array)[index];
+            case LONG:
+                return ((long[]) buffer.array)[index];
+            case DOUBLE:
+                return (long) ((double[]) buffer.array)[index];
+            default:
+                return ((Number) ((Object[]) buffer.array)[index]).longValue();
+        }
+    }
+
+    double getDouble(int index) {
+        checkIndex(index);
+
+        switch (buffer.kind) {
+            case INT:
+                return ((int[]) buffer.array)[index];
+            case LONG:
+                return ((long[]) buffer.array)[index];
+            case DOUBLE:
+                return ((double[]) buffer.array)[index];
+            default:
+                return ((Number) ((Object[]) buffer.array)[index]).doubleValue();
+        }
+    }
+
+    byte kind() {
+        return buffer.kind;
+    }
+
+    @Override
+    public Object get(int index) {
+        checkIndex(index);
+
+        switch (buffer.kind) {
+            case INT:
+                return ((int[]) buffer.array)[index];
+            case LONG:
+                return ((long[]) buffer.array)[index];
+            case DOUBLE:
+                return ((double[]) buffer.array)[index];
+            default:
+                return ((Object[]) buffer.array)[index];
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public @NotNull Object[] toArray() {
+        if (buffer.kind == OBJECT) {
+            return Arrays.copyOf((Object[]) buffer.array, size);
+        }
+
+        return super.toArray();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    private void copyTo(Buffer target) {
+        if (target.kind == buffer.kind) {
+            System.arraycopy(buffer.array, 0, target.array, 0, size);
+            return;
+        }
+
+        Object[] array = (Object[]) target.array;
+
+        for (int i = 0; i < size; i++) {
+            array[i] = get(i);
+        }
+    }
+
+    private static long bits(byte kind, Number value) {
+        return kind == DOUBLE ? Double.doubleToLongBits(value.doubleValue()) : value.longValue();
+    }
+
+    private static byte kindOf(Object[] elements, int from, int to) {
+        Class<?> type = elements[from] == null ? null : elements[from].getClass();
+        byte kind = type == Integer.class ? INT : type == Long.class ? LONG : type == Double.class ? DOUBLE : OBJECT;
+
+        if (kind == OBJECT) return OBJECT;
+
+        for (int i = from + 1; i < to; i++) {
+            if (elements[i] == null || elements[i].getClass() != type) return OBJECT;
+        }
+
+        return kind;
+    }
+
+    private static boolean holdsNodes(Object[] elements, int from, int to) {
+        for (int i = from; i < to; i++) {
+            Object element = elements[i];
+
+            if (element instanceof DataNode || element instanceof ValueList && ((ValueList) element).holdsNodes)
+                return true;
+        }
+
+        return false;
+    }
+
+    private static Object newArray(byte kind, int length) {
+        switch (kind) {
+            case INT:
+                return new int[length];
+            case LONG:
+                return new long[length];
+            case DOUBLE:
+                return new double[length];
+            default:
+                return new Object[length];
+        }
+    }
+
+    /**
+     * The array shared by the lists created by appending to each other,
+     * and the amount of its elements that are claimed by any list.
+     */
+    private static final class Buffer {
+        private static final AtomicIntegerFieldUpdater<Buffer> USED =
+                AtomicIntegerFieldUpdater.newUpdater(Buffer.class, "used");
+
+        private final byte kind;
+        private final Object array;
+        private final int capacity;
+        private volatile int used;
+
+        private Buffer(byte kind, Object array, int used) {
+            this.kind = kind;
+            this.array = array;
+            this.capacity = Array.getLength(array);
+            this.used = used;
+        }
+
+        /**
+         * Claims the elements between the provided indexes, only the list
+         * that ends where the claimed elements end can claim new ones.
+         */
+        private boolean claim(int from, int to) {
+            return used == from && USED.compareAndSet(this, from, to);
+        }
+
+        private void write(int index, Object[] elements, int from, int to) {
+            switch (kind) {
+                case INT:
+                    int[] ints = (int[]) array;
+
+                    for (int i = from; i < to; i++) {
+                        ints[index++] = (Integer) elements[i];
+                    }
+                    break;
+                case LONG:
+                    long[] longs = (long[]) array;
+
+                    for (int i = from; i < to; i++) {
+                        longs[index++] = (Long) elements[i];
+                    }
+                    break;
+                case DOUBLE:
+                    double[] doubles = (double[]) array;
+
+                    for (int i = from; i < to; i++) {
+                        doubles[index++] = (Double) elements[i];
+                    }
+                    break;
+                default:
+                    System.arraycopy(elements, from, array, index, to - from);
+            }
+        }
+    }
+}
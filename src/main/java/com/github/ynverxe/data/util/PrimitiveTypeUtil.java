@@ -9,6 +9,13 @@ public final class PrimitiveTypeUtil {
 
     public static final List<Class> WRAPPER_CLASSES = Collections.unmodifiableList(wrapperClasses());
 
+    private static final ClassValue<Boolean> WRAPPERS = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return WRAPPER_CLASSES.contains(type);
+        }
+    };
+
     private static List<Class> wrapperClasses() {
         return Arrays.asList(
                 Boolean.class,
@@ -27,7 +34,7 @@ public final class PrimitiveTypeUtil {
             return true;
         }
 
-        return WRAPPER_CLASSES.contains(obj.getClass());
+        return WRAPPERS.get(obj.getClass());
     }
 
     public static boolean isSerializable(Object obj) {
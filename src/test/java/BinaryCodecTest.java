@@ -0,0 +1,140 @@
+import com.github.ynverxe.data.BinaryCodec;
+import com.github.ynverxe.data.DataNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryCodecTest {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        DataNode dataNode = sampleNode();
+
+        for (boolean keyDictionary : new boolean[]{false, true}) {
+            BinaryCodec codec = new BinaryCodec(keyDictionary);
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            codec.write(dataNode, outputStream);
+            DataNode read = codec.read(new ByteArrayInputStream(outputStream.toByteArray()));
+
+            assertEquals(dataNode.simplify(), read.simplify());
+
+            ByteBuffer buffer = ByteBuffer.allocate(1024);
+            codec.write(dataNode, buffer);
+            buffer.flip();
+
+            assertEquals(dataNode.simplify(), codec.read(buffer).simplify());
+        }
+    }
+
+    @Test
+    public void testKeyDictionary() {
+        DataNode dataNode = new DataNode();
+
+        for (int i = 0; i < 50; i++) {
+            dataNode.put("entity" + i + ".identifier", i);
+            dataNode.put("entity" + i + ".description", "entity");
+        }
+
+        byte[] inline = new BinaryCodec(false).toByteArray(dataNode);
+        byte[] dictionary = new BinaryCodec(true).toByteArray(dataNode);
+
+        assertTrue(dictionary.length < inline.length);
+        assertEquals(dataNode.simplify(), new BinaryCodec().read(dictionary).simplify());
+    }
+
+    @Test
+    public void testMalformedData() {
+        BinaryCodec codec = new BinaryCodec();
+        byte[] bytes = codec.toByteArray(sampleNode());
+
+        assertThrows(IllegalArgumentException.class, () -> codec.read(Arrays.copyOf(bytes, bytes.length / 2)));
+        assertThrows(IOException.class, () -> codec.read(new ByteArrayInputStream(new byte[]{1, 2, 3})));
+
+        // a node with an entry whose key claims to be 2 GB long
+        byte[] hugeKey = {'D', 'N', 1, 0, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 'k'};
+        assertThrows(IllegalArgumentException.class, () -> codec.read(hugeKey));
+        assertThrows(IOException.class, () -> codec.read(new ByteArrayInputStream(hugeKey)));
+
+        // a negative varint as the dictionary size
+        byte[] negativeSize = {'D', 'N', 1, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01};
+        assertThrows(IllegalArgumentException.class, () -> codec.read(negativeSize));
+        assertThrows(IOException.class, () -> codec.read(new ByteArrayInputStream(negativeSize)));
+
+        byte[] dottedKey = {'D', 'N', 1, 0, 1, 3, 'a', '.', 'b', 0};
+        byte[] emptyKey = {'D', 'N', 1, 0, 1, 0, 0};
+        assertThrows(IllegalArgumentException.class, () -> codec.read(dottedKey));
+        assertThrows(IOException.class, () -> codec.read(new ByteArrayInputStream(emptyKey)));
+
+        // a list that holds a list, nested far deeper than the stack allows
+        byte[] deepList = new byte[7 + 200_000 * 2];
+        System.arraycopy(new byte[]{'D', 'N', 1, 0, 1, 1, 'k'}, 0, deepList, 0, 7);
+
+        for (int i = 7; i < deepList.length; i += 2) {
+            deepList[i] = 12;
+            deepList[i + 1] = 1;
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> codec.read(deepList));
+
+        Object nested = 1;
+
+        for (int i = 0; i < 8; i++) {
+            nested = Collections.singletonList(nested);
+        }
+
+        // the node and its 8 nested lists
+        byte[] deepNode = codec.toByteArray(DataNode.fromMap(Collections.singletonMap("a", nested)));
+        assertEquals(nested, new BinaryCodec(false, 9).read(deepNode).get("a"));
+        assertThrows(IOException.class, () -> new BinaryCodec(false, 8).read(new ByteArrayInputStream(deepNode)));
+        assertThrows(IllegalArgumentException.class, () -> new BinaryCodec(false, 0));
+    }
+
+    @Test
+    public void testFramedStream() throws IOException {
+        BinaryCodec codec = new BinaryCodec();
+        DataNode first = sampleNode();
+        DataNode second = new DataNode();
+        second.put("value", 2);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        codec.write(first, outputStream);
+        codec.write(second, outputStream);
+        outputStream.write(42);
+
+        InputStream inputStream = new BufferedInputStream(new ByteArrayInputStream(outputStream.toByteArray()));
+
+        assertEquals(first.simplify(), codec.read(inputStream).simplify());
+        assertEquals(second.simplify(), codec.read(inputStream).simplify());
+        assertEquals(42, inputStream.read());
+    }
+
+    private static DataNode sampleNode() {
+        DataNode dataNode = new DataNode();
+
+        dataNode.put("boolean", true);
+        dataNode.put("char", 'c');
+        dataNode.put("byte", (byte) -3);
+        dataNode.put("short", (short) -300);
+        dataNode.put("int", Integer.MIN_VALUE);
+        dataNode.put("long", Long.MAX_VALUE);
+        dataNode.put("float", 1.5f);
+        dataNode.put("double", -2.25);
+        dataNode.put("text", "Some text \u00f1");
+        dataNode.put("null", null);
+        dataNode.put("node.child.value", 1);
+        dataNode.put("list", Arrays.asList(1, "two", Arrays.asList(3L, null)));
+
+        return dataNode;
+    }
+}
@@ -0,0 +1,145 @@
+import com.github.ynverxe.data.ChangeDispatcher;
+import com.github.ynverxe.data.DataNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChangeDispatcherTest {
+
+    @Test
+    public void testSubscriptions() {
+        DataNode dataNode = new DataNode();
+        dataNode.put("player.stats.health", 10);
+
+        ChangeDispatcher dispatcher = ChangeDispatcher.attach(dataNode);
+        List<String> stats = new ArrayList<>();
+        List<String> healths = new ArrayList<>();
+
+        ChangeDispatcher.Subscription subscription = dispatcher.subscribe("player.stats",
+                changes -> changes.forEach(change -> stats.add(change.getPath())));
+        dispatcher.subscribe("*.stats.health", changes -> changes.forEach(change -> healths.add(change.getPath())));
+
+        dataNode.put("player.stats.health", 5);
+        dataNode.put("player.name", "Steve");
+        dataNode.getNode("player.stats").putInt("mana", 3);
+        dataNode.put("player", null);
+
+        assertEquals(3, stats.size());
+        assertEquals("player.stats.health", stats.get(0));
+        assertEquals("player", stats.get(2));
+        assertEquals(2, healths.size());
+
+        subscription.cancel();
+        dataNode.put("player.stats.health", 1);
+
+        assertEquals(3, stats.size());
+        assertEquals(5, healths.size());
+    }
+
+    @Test
+    public void testBatches() {
+        DataNode dataNode = new DataNode();
+        List<Runnable> tasks = new ArrayList<>();
+        Executor executor = tasks::add;
+
+        ChangeDispatcher dispatcher = ChangeDispatcher.attach(dataNode, executor);
+        List<List<ChangeDispatcher.Change>> batches = new ArrayList<>();
+        dispatcher.subscribe("counters", batches::add);
+
+        for (int i = 0; i < 1000; i++) {
+            dataNode.putInt("counters.value", i);
+        }
+        dataNode.put("counters.other", "a");
+
+        assertEquals(1, tasks.size());
+        tasks.get(0).run();
+
+        assertEquals(1, batches.size());
+
+        List<ChangeDispatcher.Change> changes = batches.get(0);
+        assertEquals(3, changes.size());
+        assertEquals("counters", changes.get(0).getPath());
+        assertNull(changes.get(1).getPrevious());
+        assertEquals(999, changes.get(1).getValue());
+
+        ChangeDispatcher synchronous = ChangeDispatcher.attach(dataNode);
+        List<List<ChangeDispatcher.Change>> transaction = new ArrayList<>();
+        synchronous.subscribe("counters", transaction::add);
+
+        synchronous.batch(() -> {
+            dataNode.putInt("counters.value", 1);
+            dataNode.put("counters.other", "b");
+
+            assertTrue(transaction.isEmpty());
+        });
+
+        assertEquals(1, transaction.size());
+        assertEquals(2, transaction.get(0).size());
+    }
+
+    @Test
+    public void testChangedValueCopies() {
+        DataNode dataNode = new DataNode();
+        dataNode.put("player.stats.health", 10);
+
+        ChangeDispatcher dispatcher = ChangeDispatcher.attach(dataNode);
+        dispatcher.subscribe("player", changes -> changes.forEach(change -> {
+            ((DataNode) change.getPrevious()).put("stats.health", -1);
+            ((DataNode) change.getValue()).put("stats.health", -1);
+        }));
+
+        DataNode player = new DataNode();
+        player.put("stats.health", 20);
+        dataNode.put("player", player);
+
+        assertEquals(20, dataNode.clone().get("player.stats.health"));
+        assertEquals(20, player.get("stats.health"));
+        dispatcher.detach();
+
+        List<Runnable> tasks = new ArrayList<>();
+        ChangeDispatcher deferred = ChangeDispatcher.attach(dataNode, tasks::add);
+        List<ChangeDispatcher.Change> received = new ArrayList<>();
+        deferred.subscribe("player", received::addAll);
+
+        DataNode stats = new DataNode();
+        stats.putInt("mana", 5);
+        dataNode.put("player.stats", stats);
+        tasks.forEach(Runnable::run);
+
+        DataNode delivered = (DataNode) received.get(0).getValue();
+        delivered.putInt("mana", -1);
+
+        assertEquals(5, dataNode.clone().get("player.stats.mana"));
+        assertEquals(-1, delivered.get("mana"));
+    }
+
+    @Test
+    public void testUnmatchedChanges() {
+        DataNode dataNode = new DataNode();
+        dataNode.putInt("players.steve.level", 0);
+
+        List<Runnable> tasks = new ArrayList<>();
+        ChangeDispatcher dispatcher = ChangeDispatcher.attach(dataNode, tasks::add);
+        List<ChangeDispatcher.Change> received = new ArrayList<>();
+        dispatcher.subscribe("players.*.name", received::addAll);
+
+        for (int i = 0; i < 100; i++) {
+            dataNode.putInt("world.chunks.c" + i + ".seed", i);
+            dataNode.putInt("players.steve.level", i);
+        }
+
+        assertTrue(tasks.isEmpty());
+
+        dataNode.put("players.steve.name", "Steve");
+        dataNode.put("players", null);
+        tasks.forEach(Runnable::run);
+
+        assertEquals(1, tasks.size());
+        assertEquals(2, received.size());
+        assertEquals("players", received.get(1).getPath());
+    }
+}
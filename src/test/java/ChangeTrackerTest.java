@@ -0,0 +1,61 @@
+import com.github.ynverxe.data.ChangeTracker;
+import com.github.ynverxe.data.DataNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChangeTrackerTest {
+
+    @Test
+    public void testTrackedPaths() {
+        DataNode dataNode = new DataNode();
+        dataNode.put("player.stats.health", 10);
+        dataNode.put("player.name", "Steve");
+
+        ChangeTracker tracker = ChangeTracker.track(dataNode);
+        assertFalse(tracker.hasChanges());
+
+        dataNode.put("player.stats.health", 5);
+        dataNode.getNode("player").putInt("stats.mana", 3);
+        dataNode.addToList("player.items", true, "sword");
+        dataNode.getNode("player.stats").clear();
+
+        assertEquals(new HashSet<>(Arrays.asList("player.items")), tracker.modifiedPaths());
+        assertEquals(new HashSet<>(Arrays.asList("player.stats.health", "player.stats.mana")), tracker.removedPaths());
+
+        tracker.checkpoint();
+        assertFalse(tracker.hasChanges());
+
+        tracker.stop();
+        dataNode.put("player.name", "Alex");
+        assertFalse(tracker.hasChanges());
+    }
+
+    @Test
+    public void testDelta() {
+        DataNode source = new DataNode();
+        source.put("a.b", 1);
+        source.put("c", 2);
+        source.put("list", Collections.singletonList(Collections.singletonMap("value", 1)));
+
+        DataNode replica = source.clone();
+        ChangeTracker tracker = ChangeTracker.track(source);
+
+        source.put("a.b", 3);
+        source.put("d.e.f", "new");
+        source.put("c", null);
+        ((DataNode) source.getList("list").get(0)).put("value", 2);
+
+        DataNode delta = tracker.exportDeltaAndCheckpoint();
+        assertEquals(4, delta.getList(ChangeTracker.SET_KEY).size() + delta.getList(ChangeTracker.REMOVED_KEY).size());
+
+        ChangeTracker.applyDelta(replica, delta);
+
+        assertEquals(source.simplify(), replica.simplify());
+        assertFalse(tracker.hasChanges());
+    }
+}
@@ -0,0 +1,90 @@
+import com.github.ynverxe.data.ConcurrentDataNode;
+import com.github.ynverxe.data.DataNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentDataNodeTest {
+
+    @Test
+    public void testAtomicOperations() throws Exception {
+        ConcurrentDataNode dataNode = new ConcurrentDataNode();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        Set<Object> merged = ConcurrentHashMap.newKeySet();
+
+        for (int thread = 0; thread < 8; thread++) {
+            int id = thread;
+
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    // every merge must return the value it stored
+                    merged.add(dataNode.merge("stats.counter", 1, (current, value) -> (Integer) current + (Integer) value));
+                    dataNode.put("threads.thread" + id + ".value" + i, i);
+                }
+            }));
+        }
+
+        for (Future<?> future : futures) future.get();
+        executor.shutdown();
+
+        assertEquals(8000, dataNode.getInt("stats.counter"));
+        assertEquals(8000, merged.size());
+
+        for (int thread = 0; thread < 8; thread++) {
+            assertEquals(1000, dataNode.getChild("threads.thread" + thread).simplify().size());
+        }
+    }
+
+    @Test
+    public void testPutIfAbsentAndCompute() {
+        ConcurrentDataNode dataNode = new ConcurrentDataNode();
+
+        assertTrue(dataNode.putIfAbsent("node.value", 1));
+        assertFalse(dataNode.putIfAbsent("node.value", 2));
+        assertEquals(3, dataNode.compute("node.value", current -> (Integer) current + 2));
+        assertTrue(dataNode.has("node.value"));
+        assertFalse(dataNode.has("node.missing"));
+    }
+
+    @Test
+    public void testProtectedValue() {
+        ConcurrentDataNode dataNode = new ProtectedNode();
+
+        assertFalse(dataNode.put("protected-int", "text"));
+        assertFalse(dataNode.put("protected-int", null));
+        assertEquals(1, dataNode.compute("protected-int", current -> "text"));
+        assertTrue(dataNode.put("protected-int", 2));
+        assertEquals(2, dataNode.get("protected-int"));
+    }
+
+    @Test
+    public void testConversion() {
+        DataNode source = new DataNode();
+        source.put("node.value", 1);
+
+        ConcurrentDataNode dataNode = new ConcurrentDataNode(source);
+        dataNode.put("node.other", "text");
+
+        DataNode converted = dataNode.getNode("node");
+
+        assertNotNull(converted);
+        assertEquals("text", converted.get("other"));
+        assertEquals(source.simplify().get("node"), new ConcurrentDataNode(source).simplify().get("node"));
+        assertThrows(IllegalArgumentException.class, () -> dataNode.put("value", new StringBuilder()));
+    }
+
+    private static class ProtectedNode extends ConcurrentDataNode {
+        public ProtectedNode() {
+            protectValue("protected-int", Integer.class, 1, false);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+import com.github.ynverxe.data.DataBinding;
+import com.github.ynverxe.data.DataNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class DataBindingTest {
+
+    @Test
+    public void testBinding() {
+        Player player = new Player();
+        player.setName("Steve");
+        player.setLevel(3);
+        player.setHealth(19.5);
+        player.setOnline(true);
+        player.setRank(Rank.ADMIN);
+        player.setStats(new Stats());
+        player.getStats().kills = 7;
+        player.setTags(new LinkedHashSet<>(Arrays.asList("builder", "miner")));
+        player.setFriends(Arrays.asList(new Player(), null));
+        player.getFriends().get(0).setName("Alex");
+
+        DataBinding<Player> binding = DataBinding.of(Player.class);
+        assertSame(binding, DataBinding.of(Player.class));
+
+        DataNode dataNode = binding.toNode(player);
+        assertEquals(3, dataNode.get("level"));
+        assertEquals("ADMIN", dataNode.get("rank"));
+        assertEquals(7, dataNode.get("stats.kills"));
+        assertEquals(Arrays.asList("builder", "miner"), dataNode.getList("tags"));
+        assertEquals("Alex", ((DataNode) dataNode.getList("friends").get(0)).get("name"));
+
+        dataNode.putLong("level", 4L);
+        Player read = binding.fromNode(dataNode);
+
+        assertEquals("Steve", read.getName());
+        assertEquals(4, read.getLevel());
+        assertEquals(19.5, read.getHealth());
+        assertTrue(read.isOnline());
+        assertEquals(Rank.ADMIN, read.getRank());
+        assertEquals(7, read.getStats().kills);
+        assertEquals(player.getTags(), read.getTags());
+        assertEquals("Alex", read.getFriends().get(0).getName());
+        assertNull(read.getFriends().get(1));
+    }
+
+    @Test
+    public void testConstraints() {
+        DataBinding<Player> binding = DataBinding.of(Player.class);
+
+        assertThrows(IllegalArgumentException.class, () -> binding.toNode(new Player()));
+
+        DataNode dataNode = new DataNode();
+        dataNode.put("level", 1);
+        assertThrows(IllegalArgumentException.class, () -> binding.fromNode(dataNode));
+
+        dataNode.put("name", "Steve");
+        dataNode.put("level", "high");
+        assertThrows(IllegalArgumentException.class, () -> binding.fromNode(dataNode));
+
+        Player player = new Player();
+        player.setName("Steve");
+        assertFalse(binding.write(player, new ProtectedNode()));
+
+        assertThrows(IllegalArgumentException.class, () -> DataBinding.of(Runnable.class));
+    }
+
+    @Test
+    public void testRecords(@TempDir Path directory) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assumeTrue(compiler != null && hasRecords());
+
+        Path source = directory.resolve("Point.java");
+        Files.write(source, "public record Point(int x, long y, String label) {}".getBytes(StandardCharsets.UTF_8));
+        assertEquals(0, compiler.run(null, null, null, source.toString()));
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{directory.toUri().toURL()})) {
+            Class<Object> type = (Class<Object>) classLoader.loadClass("Point");
+            Object point = type.getConstructor(int.class, long.class, String.class).newInstance(1, 2L, "spawn");
+
+            DataBinding<Object> binding = DataBinding.of(type);
+            DataNode dataNode = binding.toNode(point);
+            assertEquals(2L, dataNode.get("y"));
+            assertEquals(point, binding.fromNode(dataNode));
+
+            dataNode.put("x", null);
+            assertThrows(IllegalArgumentException.class, () -> binding.fromNode(dataNode));
+        }
+    }
+
+    private static boolean hasRecords() {
+        try {
+            Class.class.getMethod("isRecord");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface NotNull {
+    }
+
+    public enum Rank {
+        MEMBER, ADMIN
+    }
+
+    public static class Stats {
+        public int kills;
+    }
+
+    public static class Player {
+        @NotNull
+        private String name;
+        private int level;
+        private double health;
+        private boolean online;
+        private Rank rank;
+        private Stats stats;
+        private Set<String> tags;
+        private List<Player> friends;
+        private transient int cache;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public void setLevel(int level) {
+            this.level = level;
+        }
+
+        public double getHealth() {
+            return health;
+        }
+
+        public void setHealth(double health) {
+            this.health = health;
+        }
+
+        public boolean isOnline() {
+            return online;
+        }
+
+        public void setOnline(boolean online) {
+            this.online = online;
+        }
+
+        public Rank getRank() {
+            return rank;
+        }
+
+        public void setRank(Rank rank) {
+            this.rank = rank;
+        }
+
+        public Stats getStats() {
+            return stats;
+        }
+
+        public void setStats(Stats stats) {
+            this.stats = stats;
+        }
+
+        public Set<String> getTags() {
+            return tags;
+        }
+
+        public void setTags(Set<String> tags) {
+            this.tags = tags;
+        }
+
+        public List<Player> getFriends() {
+            return friends;
+        }
+
+        public void setFriends(List<Player> friends) {
+            this.friends = friends;
+        }
+    }
+
+    private static class ProtectedNode extends DataNode {
+        public ProtectedNode() {
+            protectValue("level", String.class, "none", false);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+import com.github.ynverxe.data.DataJournal;
+import com.github.ynverxe.data.DataNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DataJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRecovery() throws IOException {
+        DataNode dataNode = new DataNode();
+        dataNode.put("player.name", "Steve");
+
+        DataJournal journal = DataJournal.attach(dataNode, directory);
+
+        dataNode.putInt("player.level", 3);
+        dataNode.put("player.items", Arrays.asList("sword", "shield"));
+        dataNode.addToList("player.items", true, "bow");
+        dataNode.put("world", Collections.singletonMap("seed", 42L));
+        dataNode.getNode("world").put("time", 1.5);
+        dataNode.getNode("player").clear();
+        dataNode.put("player.name", "Alex");
+        journal.flush();
+
+        assertEquals(dataNode.simplify(), DataJournal.recover(directory).simplify());
+
+        dataNode.put("world.seed", 7L);
+        journal.close();
+        dataNode.put("world.seed", 8L);
+
+        assertEquals(7L, DataJournal.recover(directory).get("world.seed"));
+        assertThrows(IOException.class, journal::flush);
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        DataNode dataNode = new DataNode();
+        DataJournal journal = DataJournal.attach(dataNode, directory, 1024);
+
+        for (int i = 0; i < 1000; i++) {
+            dataNode.putInt("counter", i);
+            dataNode.put("entries.entry" + (i % 10), "value" + i);
+        }
+
+        journal.compact();
+        dataNode.putInt("counter", -1);
+        journal.flush();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.count() <= 4);
+        }
+
+        assertEquals(dataNode.simplify(), DataJournal.recover(directory).simplify());
+        journal.close();
+    }
+
+    @Test
+    public void testCompactionFailure() throws IOException, InterruptedException {
+        DataNode dataNode = new DataNode();
+        DataJournal journal = DataJournal.attach(dataNode, directory, 1024);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path snapshot : (Iterable<Path>) files.filter(file -> file.toString().endsWith(".dat"))::iterator) {
+                Files.write(snapshot, new byte[]{1, 2, 3});
+            }
+        }
+
+        IOException failure = null;
+
+        for (int i = 0; failure == null && i < 500; i++) {
+            dataNode.put("entries.entry" + (i % 10), "value" + i);
+
+            try {
+                journal.flush();
+            } catch (IOException e) {
+                failure = e;
+            }
+
+            Thread.sleep(10);
+        }
+
+        assertNotNull(failure);
+        assertEquals("The journal failed to compact", failure.getMessage());
+
+        dataNode.put("entries.entry0", "last");
+        journal.close();
+    }
+
+    @Test
+    public void testPartialWrite() throws IOException {
+        DataNode dataNode = new DataNode();
+        DataJournal journal = DataJournal.attach(dataNode, directory);
+
+        dataNode.put("a", 1);
+        dataNode.put("b", "text");
+        journal.close();
+
+        Path log;
+
+        try (Stream<Path> files = Files.list(directory)) {
+            log = files.filter(file -> file.toString().endsWith(".log")).findFirst().orElseThrow(AssertionError::new);
+        }
+
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 2);
+        }
+
+        DataNode recovered = DataJournal.recover(directory);
+        assertEquals(1, recovered.get("a"));
+        assertNull(recovered.get("b"));
+
+        // attaching starts from the current content, past the discarded change
+        DataJournal.attach(recovered, directory).close();
+        assertEquals(recovered.simplify(), DataJournal.recover(directory).simplify());
+    }
+}
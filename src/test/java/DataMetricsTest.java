@@ -0,0 +1,80 @@
+import com.github.ynverxe.data.DataMetrics;
+import com.github.ynverxe.data.DataNode;
+import com.github.ynverxe.data.DataPath;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DataMetricsTest {
+
+    @Test
+    public void testMetrics() {
+        DataNode dataNode = new ProtectedNode();
+        DataMetrics.reset();
+        DataMetrics.enable();
+
+        try {
+            dataNode.put("player.name", "Steve");
+            dataNode.putInt("player.level", 1);
+            dataNode.putInt("player.level", 2);
+            assertFalse(dataNode.put("id", "text"));
+
+            dataNode.get("player.name");
+            dataNode.get(DataPath.of("player.stats.kills"));
+            dataNode.get("id");
+
+            dataNode.clone();
+            dataNode.simplify();
+            dataNode.put("player.stats", Collections.singletonMap("kills", 1));
+        } finally {
+            DataMetrics.disable();
+        }
+
+        assertEquals(1, DataMetrics.getRejections());
+        assertTrue(DataMetrics.getWrites() >= 4);
+        assertTrue(DataMetrics.getRejectionRate() > 0 && DataMetrics.getRejectionRate() < 1);
+
+        long[] depths = DataMetrics.getDepthHistogram();
+        assertTrue(depths[1] >= 1);
+        assertTrue(depths[2] >= 1);
+        assertTrue(depths[3] >= 1);
+        assertEquals(DataMetrics.getLookups(), sum(depths));
+
+        assertEquals(1, DataMetrics.getCloneLatency().getCount());
+        assertEquals(1, DataMetrics.getSimplifyLatency().getCount());
+        assertTrue(DataMetrics.getNormalizeLatency().getCount() >= 2);
+
+        DataMetrics.Histogram latency = DataMetrics.getSimplifyLatency();
+        assertTrue(latency.getPercentileNanos(50) >= latency.getMeanNanos());
+        assertThrows(IllegalArgumentException.class, () -> latency.getPercentileNanos(101));
+
+        long lookups = DataMetrics.getLookups();
+        dataNode.get("player.name");
+        dataNode.clone();
+        assertEquals(lookups, DataMetrics.getLookups());
+        assertEquals(1, DataMetrics.getCloneLatency().getCount());
+
+        DataMetrics.reset();
+        assertEquals(0, DataMetrics.getLookups());
+        assertEquals(0, DataMetrics.getSimplifyLatency().getCount());
+        assertEquals(0, DataMetrics.getRejectionRate());
+    }
+
+    private static long sum(long[] values) {
+        long sum = 0;
+
+        for (long value : values) {
+            sum += value;
+        }
+
+        return sum;
+    }
+
+    private static class ProtectedNode extends DataNode {
+        public ProtectedNode() {
+            protectValue("id", Integer.class, 1, false);
+        }
+    }
+}
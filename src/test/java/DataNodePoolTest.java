@@ -0,0 +1,88 @@
+import com.github.ynverxe.data.ChangeTracker;
+import com.github.ynverxe.data.DataNode;
+import com.github.ynverxe.data.DataNodePool;
+import com.github.ynverxe.data.NodeQuota;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DataNodePoolTest {
+
+    @Test
+    public void testReset() {
+        DataNode dataNode = new DataNode();
+        dataNode.put("a", 1);
+        dataNode.put("b.c", "value");
+        long empty = new DataNode().getEstimatedBytes();
+
+        DataNode nested = dataNode.getNode("b");
+        ChangeTracker tracker = ChangeTracker.track(dataNode);
+
+        dataNode.reset();
+        assertNull(dataNode.get("a"));
+        assertTrue(dataNode.simplify().containsKey("a"));
+        assertEquals(0, dataNode.getEntryCount());
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")), tracker.removedPaths());
+
+        // the detached node is no longer reported
+        nested.put("c", "other");
+        assertFalse(tracker.modifiedPaths().contains("b.c"));
+        tracker.stop();
+
+        dataNode.put("c", 2);
+        dataNode.reset(true);
+        assertTrue(dataNode.simplify().isEmpty());
+        assertEquals(empty, dataNode.getEstimatedBytes());
+
+        DataNode protectedNode = new ProtectedNode();
+        protectedNode.put("level", "high");
+        protectedNode.put("other", 1);
+        protectedNode.reset(true);
+        assertEquals("high", protectedNode.get("level"));
+        assertEquals(1, protectedNode.simplify().size());
+    }
+
+    @Test
+    public void testPool() {
+        DataNodePool pool = new DataNodePool(1);
+
+        DataNode dataNode = pool.acquire();
+        dataNode.put("a.b", 1);
+        dataNode.setQuota(NodeQuota.unlimited().withMaxEntries(2));
+
+        DataNode nested = dataNode.getNode("a");
+        assertThrows(IllegalArgumentException.class, () -> pool.release(nested));
+
+        DataNode clone = dataNode.clone();
+        assertTrue(pool.release(dataNode));
+        assertFalse(pool.release(new DataNode()));
+        assertEquals(1, pool.size());
+
+        assertEquals(1, clone.get("a.b"));
+        assertNull(nested.get("a.b"));
+
+        DataNode acquired = pool.acquire();
+        assertSame(dataNode, acquired);
+        assertTrue(acquired.simplify().isEmpty());
+        assertNull(acquired.getQuota());
+        assertEquals(0, acquired.getEntryCount());
+        assertEquals(0, pool.size());
+
+        acquired.put("x", 1);
+        assertEquals(1, acquired.get("x"));
+
+        ChangeTracker.track(acquired);
+        assertThrows(IllegalArgumentException.class, () -> pool.release(acquired));
+        assertThrows(IllegalArgumentException.class, () -> pool.release(new ProtectedNode()));
+        assertThrows(IllegalArgumentException.class, () -> pool.release(DataNode.EMPTY));
+    }
+
+    private static class ProtectedNode extends DataNode {
+        public ProtectedNode() {
+            protectValue("level", String.class, "none", false);
+        }
+    }
+}
@@ -1,9 +1,23 @@
+import com.github.ynverxe.data.DataContainer;
 import com.github.ynverxe.data.DataNode;
+import com.github.ynverxe.data.DataPath;
+import com.github.ynverxe.data.DataQuery;
+import com.github.ynverxe.data.DataSnapshot;
+import com.github.ynverxe.data.Fragmented;
+import com.github.ynverxe.data.SerializableTypes;
 import org.junit.jupiter.api.Test;
 
+import java.io.Serializable;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -59,6 +73,518 @@ public class DataNodeTest {
         assertFalse(dataNode.put("custom-node.protected-int", DataNode.EMPTY));
     }
 
+    @Test
+    public void testCompiledPath() {
+        DataNode dataNode = new DataNode();
+        DataPath path = DataPath.of("node1.node2.value");
+
+        assertTrue(dataNode.put(path, 5));
+        assertEquals(5, dataNode.get("node1.node2.value"));
+        assertEquals(5, dataNode.getInt(path));
+        assertTrue(dataNode.has(DataPath.of("node1.node2")));
+        assertFalse(dataNode.has(DataPath.of("node3.value")));
+
+        assertThrows(IllegalArgumentException.class, () -> DataPath.of(".value"));
+        assertThrows(IllegalArgumentException.class, () -> DataPath.of("node."));
+        assertThrows(IllegalArgumentException.class, () -> DataPath.of("node..value"));
+        assertThrows(IllegalArgumentException.class, () -> DataPath.of(""));
+
+        Map<String, Object> entries = Collections.singletonMap("node1", dataNode.getNode("node1"));
+        DataContainer<String> container = new DataContainer<String>() {
+            @Override
+            public Object get(String key) {
+                return entries.get(key);
+            }
+
+            @Override
+            public boolean has(String key) {
+                return entries.containsKey(key);
+            }
+
+            @Override
+            public boolean identify(String key, Class<?> expectedType) {
+                return expectedType.isInstance(get(key));
+            }
+        };
+
+        assertEquals(5, container.getInt(path));
+        assertTrue(container.has(path));
+        assertTrue(container.has(DataPath.of("node1")));
+        assertFalse(container.has(DataPath.of("node1.value.other")));
+        assertNull(container.get(DataPath.of("node3.value")));
+    }
+
+    @Test
+    public void testListUpdate() {
+        DataNode dataNode = new DataNode();
+
+        assertTrue(dataNode.addToList("list", true, 1, 2));
+        assertTrue(dataNode.addToList("list", false, 3));
+        assertTrue(dataNode.removeFromList("list", false, 1));
+        assertFalse(dataNode.addToList("missing", false, 1));
+
+        assertEquals(Arrays.asList(2, 3), dataNode.getList("list"));
+    }
+
+    @Test
+    public void testListStorage() {
+        DataNode dataNode = new DataNode();
+        dataNode.put("list", Arrays.asList(1, 2, 3));
+
+        List<Object> handedOut = dataNode.getList("list");
+
+        assertSame(handedOut, dataNode.getList("list"));
+        assertThrows(UnsupportedOperationException.class, () -> handedOut.add(4));
+
+        assertTrue(dataNode.addToList("list", false, 4, 5));
+        assertTrue(dataNode.addToList("list", false, 6L));
+        assertTrue(dataNode.removeFromList("list", false, 2, 5, 9));
+
+        assertEquals(Arrays.asList(1, 2, 3), handedOut);
+        assertEquals(Arrays.asList(1, 3, 4, 6L), dataNode.getList("list"));
+
+        DataNode other = new DataNode();
+        other.put("list", handedOut);
+        other.addToList("list", false, 10);
+        dataNode.addToList("list", false, "text");
+
+        assertEquals(Arrays.asList(1, 2, 3, 10), other.getList("list"));
+        assertEquals(Arrays.asList(1, 3, 4, 6L, "text"), dataNode.getList("list"));
+
+        dataNode.put("doubles", Arrays.asList(1.5, Double.NaN));
+        dataNode.removeFromList("doubles", false, Double.NaN);
+
+        assertEquals(Collections.singletonList(1.5), dataNode.getList("doubles"));
+    }
+
+    @Test
+    public void testCloneIsolation() {
+        DataNode original = new DataNode();
+        original.put("node1.node2.value", 1);
+        original.put("list", Collections.singletonList(Collections.singletonMap("value", 1)));
+
+        DataNode clone = original.clone();
+        clone.put("node1.node2.value", 2);
+        original.put("node1.other", 3);
+
+        assertEquals(1, original.get("node1.node2.value"));
+        assertEquals(2, clone.get("node1.node2.value"));
+        assertFalse(clone.has("node1.other.value"));
+        assertNull(clone.get("node1.other"));
+
+        DataNode node2 = clone.getNode("node1.node2");
+        node2.put("value", 4);
+        assertEquals(4, clone.get("node1.node2.value"));
+        assertEquals(1, original.get("node1.node2.value"));
+
+        DataNode secondClone = clone.clone();
+        node2.put("value", 5);
+        assertEquals(4, secondClone.get("node1.node2.value"));
+
+        DataNode listElement = (DataNode) clone.getList("list").get(0);
+        listElement.put("value", 2);
+        assertEquals(1, ((DataNode) original.getList("list").get(0)).get("value"));
+
+        DataNode template = new DataNode();
+        template.put("node1.node2.value", 1);
+        template.get("node1.node2.value");
+        assertEquals(template.simplify(), template.clone().simplify());
+
+        DataNode.EMPTY.clone().put("value", 1);
+        assertNull(DataNode.EMPTY.get("value"));
+    }
+
+    @Test
+    public void testSharedNodeExposure() {
+        DataNode root = new DataNode();
+        root.put("a.x", 1);
+        root.clone();
+
+        DataNode a = root.getNode("a");
+        DataNode clone = root.clone();
+        a.put("x", 99);
+
+        assertEquals(1, clone.get("a.x"));
+        assertEquals(99, root.get("a.x"));
+
+        DataNode compiled = new DataNode();
+        compiled.put("a.x", 1);
+        compiled.clone();
+
+        DataNode b = compiled.getNode(DataPath.of("a"));
+        DataNode compiledClone = compiled.clone();
+        b.put("x", 99);
+
+        assertEquals(1, compiledClone.get("a.x"));
+    }
+
+    @Test
+    public void testProtectedValueClone() {
+        DataNode dataNode = new CustomDataNode();
+        DataNode clone = dataNode.clone();
+
+        assertTrue(clone.put("protected-int", 2));
+        assertFalse(clone.put("protected-int", "text"));
+        assertEquals(1, dataNode.get("protected-int"));
+    }
+
+    @Test
+    public void testUnboxedValues() {
+        DataNode dataNode = new DataNode();
+        DataPath path = DataPath.of("stats.health");
+
+        assertTrue(dataNode.putInt(path, 10));
+        assertTrue(dataNode.putInt(path, 20));
+        assertEquals(20, dataNode.getIntValue(path, 0));
+        assertEquals(20, dataNode.get("stats.health"));
+        assertEquals(20.0, dataNode.getDoubleValue("stats.health", 0));
+        assertEquals(5L, dataNode.getLongValue("stats.missing", 5L));
+
+        dataNode.putDouble("stats.speed", 1.5);
+        assertEquals(1.5, dataNode.get("stats.speed"));
+        assertEquals(1, dataNode.getIntValue("stats.speed", 0));
+        assertTrue(dataNode.getNode("stats").identify("speed", Double.class));
+
+        DataNode clone = dataNode.clone();
+        clone.putInt(path, 30);
+        assertEquals(20, dataNode.getIntValue(path, 0));
+        assertEquals(30, clone.getIntValue(path, 0));
+        assertEquals(20, ((Map<?, ?>) dataNode.simplify().get("stats")).get("health"));
+
+        Map<String, Object> cleared = dataNode.getNode("stats").clear();
+        assertEquals(20, cleared.get("health"));
+        assertEquals(1.5, cleared.get("speed"));
+    }
+
+    @Test
+    public void testUnboxedProtectedValue() {
+        DataNode dataNode = new CustomDataNode();
+
+        assertTrue(dataNode.putInt("protected-int", 7));
+        assertFalse(dataNode.putInt("protected-text", 7));
+        assertEquals(7, dataNode.getIntValue("protected-int", 0));
+    }
+
+    @Test
+    public void testLazyFragmented() {
+        int[] defragmentations = new int[1];
+        Fragmented fragmented = () -> {
+            defragmentations[0]++;
+
+            DataNode dataNode = new DataNode();
+            dataNode.put("name", "Steve");
+
+            return dataNode;
+        };
+
+        DataNode dataNode = new DataNode();
+        dataNode.putLazy("players.steve", fragmented);
+        dataNode.putLazy("players.alex", fragmented);
+        assertEquals(0, defragmentations[0]);
+
+        assertEquals("Steve", dataNode.getString("players.steve.name"));
+        assertEquals(1, defragmentations[0]);
+
+        dataNode.put("players.steve.health", 20);
+        assertEquals(20, dataNode.getNode("players.steve").getInt("health"));
+        assertEquals(1, defragmentations[0]);
+
+        assertEquals("Steve", ((Map<?, ?>) ((Map<?, ?>) dataNode.simplify().get("players")).get("alex")).get("name"));
+        assertEquals(2, defragmentations[0]);
+
+        DataNode lazy = new DataNode();
+        lazy.putLazy("steve", fragmented);
+        lazy.putLazy("alex", fragmented);
+        assertEquals("Steve", lazy.getString("alex.name"));
+
+        DataNode consumer = new DataNode();
+        consumer.consume(lazy);
+        assertEquals(3, defragmentations[0]);
+        assertEquals("Steve", consumer.getString("steve.name"));
+        assertEquals("Steve", consumer.getString("alex.name"));
+        assertEquals(4, defragmentations[0]);
+
+        Map<String, Object> cleared = lazy.clear();
+        assertSame(fragmented, cleared.get("steve"));
+        assertEquals("Steve", ((DataNode) cleared.get("alex")).getString("name"));
+        assertTrue(new DataNode().put("steve", cleared.get("steve")));
+    }
+
+    @Test
+    public void testBulkPut() {
+        Map<String, Object> values = new HashMap<>();
+        values.put("player.stats.health", 20);
+        values.put("player.stats.mana", 10);
+        values.put("player.name", "Steve");
+        values.put("world", "overworld");
+
+        DataNode dataNode = new DataNode();
+        assertTrue(dataNode.putAll(values));
+        assertEquals(20, dataNode.getInt("player.stats.health"));
+        assertEquals("Steve", dataNode.getString("player.name"));
+        assertEquals("overworld", dataNode.getString("world"));
+
+        DataNode protectedNode = new CustomDataNode();
+        Map<String, Object> before = protectedNode.simplify();
+
+        values.put("protected-int", 2);
+        values.put("protected-text", 3);
+
+        assertFalse(protectedNode.putAll(values));
+        assertEquals(before, protectedNode.simplify());
+
+        assertThrows(IllegalArgumentException.class, () -> protectedNode.putAll(Collections.singletonMap("value", new Object())));
+    }
+
+    @Test
+    public void testSharedShapes() {
+        DataNode first = new DataNode();
+        DataNode second = new DataNode();
+
+        for (int i = 0; i < 64; i++) {
+            first.put("key" + i, i);
+
+            if (i % 2 == 0) second.put("key" + i, null);
+        }
+
+        for (int i = 0; i < 64; i++) {
+            assertEquals(i, first.getInt("key" + i));
+            assertEquals(i % 2 == 0, second.simplify().containsKey("key" + i));
+        }
+
+        DataNode clone = first.clone();
+        clone.put("key0", "modified");
+        assertEquals(0, first.getInt("key0"));
+        assertEquals(64, clone.simplify().size());
+
+        first.clear();
+        assertNull(first.get("key63"));
+    }
+
+    @Test
+    public void testParallelOperations() {
+        Map<String, Object> map = new HashMap<>();
+
+        for (int i = 0; i < 300; i++) {
+            Map<String, Object> player = new HashMap<>();
+            player.put("level", i);
+            player.put("name", "player" + i);
+            player.put("items", Arrays.asList(i, i + 1, Collections.singletonMap("slot", i)));
+
+            map.put("players.p" + i, player);
+        }
+
+        map.put("scores", Collections.nCopies(5000, 7));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        DataNode dataNode = DataNode.fromMap(map);
+        DataNode parallelNode = DataNode.fromMap(map, pool);
+
+        assertEquals(dataNode.simplify(), parallelNode.simplify());
+        assertEquals(dataNode.simplify(), dataNode.simplify(pool));
+
+        DataNode copy = dataNode.deepClone(pool);
+        assertEquals(dataNode.simplify(), copy.simplify());
+        assertEquals(dataNode.simplify(), dataNode.deepClone().simplify());
+
+        copy.put("players.p1.level", -1);
+        ((DataNode) copy.getList("players.p2.items").get(2)).put("slot", -1);
+        assertEquals(1, dataNode.get("players.p1.level"));
+        assertEquals(2, ((DataNode) dataNode.getList("players.p2.items").get(2)).get("slot"));
+
+        DataNode protectedCopy = new CustomDataNode().deepClone(pool);
+        assertFalse(protectedCopy.put("protected-int", "text"));
+        assertFalse(protectedCopy.put("node1.node2.protected-value", "text"));
+        assertEquals("Im Protected!", protectedCopy.get("protected-text"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> DataNode.fromMap(Collections.singletonMap("value", Collections.nCopies(5000, new StringBuilder())), pool));
+
+        pool.shutdown();
+    }
+
+    @Test
+    public void testSnapshots() throws InterruptedException {
+        DataNode dataNode = new DataNode();
+
+        for (int i = 0; i < 100; i++) {
+            dataNode.putInt("players.p" + i + ".level", i);
+        }
+
+        dataNode.put("tags", Arrays.asList("a", "b"));
+
+        DataNode exposed = dataNode.getNode("players.p0");
+        DataSnapshot snapshot = dataNode.snapshot();
+        Map<String, Object> expected = dataNode.simplify();
+
+        exposed.putInt("level", -1);
+        dataNode.addToList("tags", false, "c");
+        assertEquals(0, snapshot.get("players.p0.level"));
+        assertEquals(Arrays.asList("a", "b"), snapshot.get("tags"));
+
+        DataNode copy = snapshot.getNode("players.p1");
+        copy.putInt("level", -1);
+        assertEquals(1, snapshot.get("players.p1.level"));
+        assertTrue(snapshot.has(DataPath.of("players.p1.level")));
+
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 100_000; i++) {
+                dataNode.putInt("players.p" + (i % 100) + ".level", -i);
+            }
+        });
+        writer.start();
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(expected, snapshot.simplify());
+        }
+
+        writer.join();
+        assertEquals(expected, snapshot.toDataNode().simplify());
+        assertEquals(-99_999, dataNode.get("players.p99.level"));
+    }
+
+    @Test
+    public void testSnapshotReaders() throws InterruptedException {
+        AtomicInteger defragmentations = new AtomicInteger();
+        Fragmented fragmented = () -> {
+            defragmentations.incrementAndGet();
+
+            DataNode dataNode = new DataNode();
+            dataNode.putInt("level", 1);
+
+            return dataNode;
+        };
+
+        DataNode dataNode = new DataNode();
+
+        for (int i = 0; i < 50; i++) {
+            dataNode.putInt("players.p" + i + ".level", i);
+            dataNode.putLazy("guilds.g" + i, fragmented);
+        }
+
+        DataSnapshot snapshot = dataNode.snapshot();
+        Map<String, Object> expected = snapshot.simplify();
+        assertEquals(50, defragmentations.get());
+
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 100_000; i++) {
+                dataNode.putInt("players.p" + (i % 50) + ".level", -i);
+                dataNode.getNode("guilds.g" + (i % 50)).putInt("level", -i);
+            }
+        });
+
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> readers = new ArrayList<>();
+
+        for (int r = 0; r < 4; r++) {
+            readers.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < 2_000; i++) {
+                        String player = "players.p" + (i % 50);
+                        String guild = "guilds.g" + (i % 50);
+
+                        assertEquals(i % 50, snapshot.get(player + ".level"));
+                        assertEquals(1, snapshot.get(guild + ".level"));
+                        assertTrue(snapshot.has(guild + ".level"));
+                        assertTrue(snapshot.identify(guild, DataNode.class));
+                        assertEquals(i % 50, snapshot.getSnapshot(player).get("level"));
+
+                        snapshot.getNode(guild).putInt("level", -1);
+                    }
+
+                    assertEquals(expected, snapshot.simplify());
+                } catch (Throwable throwable) {
+                    failures.add(throwable);
+                }
+            }));
+        }
+
+        writer.start();
+        readers.forEach(Thread::start);
+        writer.join();
+
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertEquals(Collections.emptyList(), failures);
+        assertEquals(expected, snapshot.toDataNode().simplify());
+        assertEquals(-99_999, dataNode.get("players.p49.level"));
+    }
+
+    @Test
+    public void testRegisteredTypes() {
+        assertFalse(SerializableTypes.isSupported(Point.class));
+        assertFalse(SerializableTypes.isSupported(Version.class));
+
+        SerializableTypes.register(Point.class);
+        SerializableTypes.register(Version.class, version -> version.major + "." + version.minor);
+        assertThrows(IllegalArgumentException.class, () -> SerializableTypes.register(String.class));
+        assertThrows(IllegalArgumentException.class, () -> SerializableTypes.register(Object.class));
+        assertThrows(IllegalArgumentException.class, () -> SerializableTypes.register(Serializable.class));
+        assertThrows(IllegalArgumentException.class, () -> SerializableTypes.register(Iterable.class));
+        assertThrows(IllegalArgumentException.class, () -> SerializableTypes.register(Cloneable.class));
+        assertThrows(IllegalArgumentException.class, () -> SerializableTypes.register(AbstractMap.class));
+        assertThrows(IllegalArgumentException.class, () -> SerializableTypes.register(Number.class, Number::intValue));
+        assertFalse(SerializableTypes.isSupported(StringBuilder.class));
+
+        DataNode dataNode = new DataNode();
+        Point point = new Point();
+
+        dataNode.put("point", point);
+        dataNode.put("versions", Arrays.asList(Arrays.asList(new Version(1, 2)), new Version(2, 0)));
+
+        assertSame(point, dataNode.get("point"));
+        assertEquals(Arrays.asList(Arrays.asList("1.2"), "2.0"), dataNode.getList("versions"));
+        assertTrue(new CustomDataNode().put("protected-text", new Version(3, 1)));
+    }
+
+    private static final class Point {
+    }
+
+    private static final class Version {
+        private final int major;
+        private final int minor;
+
+        private Version(int major, int minor) {
+            this.major = major;
+            this.minor = minor;
+        }
+    }
+
+    @Test
+    public void testShapeOrder() {
+        List<DataNode> nodes = new ArrayList<>();
+
+        for (int i = 0; i < 1000; i++) {
+            DataNode dataNode = new DataNode();
+            dataNode.put("id" + i, i);
+            dataNode.put("b", 2);
+            dataNode.put("a", 1);
+            nodes.add(dataNode);
+        }
+
+        DataNode wide = new DataNode();
+
+        for (int i = 0; i < 40; i++) {
+            wide.put("key" + i, i);
+        }
+
+        wide.put("key0", null);
+
+        DataQuery values = DataQuery.compile("*");
+
+        for (int i = 0; i < nodes.size(); i++) {
+            assertEquals(Arrays.asList(i, 2, 1), values.stream(nodes.get(i)).collect(Collectors.toList()));
+        }
+
+        List<Object> wideValues = values.stream(wide).collect(Collectors.toList());
+        assertEquals(40, wideValues.size());
+        assertNull(wideValues.get(0));
+        assertEquals(1, wideValues.get(1));
+        assertEquals(39, wideValues.get(39));
+    }
+
     @Test
     public void testMapInfiltration() {
         DataNode dataNode = new DataNode();
@@ -0,0 +1,136 @@
+import com.github.ynverxe.data.BinaryCodec;
+import com.github.ynverxe.data.DataNode;
+import com.github.ynverxe.data.DataPatch;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DataPatchTest {
+
+    @Test
+    public void testDiffAndApply() {
+        DataNode source = new DataNode();
+        source.put("player.name", "Steve");
+        source.putInt("player.level", 3);
+        source.put("player.stats.kills", 10);
+        source.put("player.inventory", Arrays.asList("sword", "apple", "bow"));
+        source.put("world.seed", 42L);
+        source.put("world.spawn.x", 0);
+
+        DataNode target = source.clone();
+        target.putInt("player.level", 4);
+        target.put("player.stats.deaths", 1);
+        target.addToList("player.inventory", false, "arrow");
+        target.put("player.name", null);
+        target.put("world.spawn.y", 64);
+
+        DataPatch patch = DataPatch.diff(source, target);
+        assertEquals(5, patch.getOperations().size(), patch.toString());
+
+        DataPatch.Operation splice = patch.getOperations().stream()
+                .filter(operation -> operation.getType() == DataPatch.Type.SPLICE)
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+        assertEquals("player.inventory", splice.getPath().toString());
+        assertEquals(3, splice.getIndex());
+        assertEquals(0, splice.getDeleted());
+        assertEquals(Arrays.asList("arrow"), splice.getInserted());
+
+        DataNode patched = source.clone();
+        assertTrue(patch.apply(patched));
+        assertEquals(target.simplify(), patched.simplify());
+
+        assertTrue(DataPatch.diff(target, target.clone()).isEmpty());
+        assertTrue(DataPatch.diff(patched, target).isEmpty());
+
+        DataNode reverted = target.clone();
+        assertTrue(DataPatch.diff(target, source).apply(reverted));
+        assertTrue(DataPatch.diff(source, reverted).isEmpty());
+        assertNull(reverted.get("world.spawn.y"));
+
+        // the patch is not affected by later changes of the nodes
+        target.put("world.spawn.y", 70);
+        DataNode repatched = source.clone();
+        patch.apply(repatched);
+        assertEquals(64, repatched.get("world.spawn.y"));
+    }
+
+    @Test
+    public void testListSplices() {
+        DataNode source = new DataNode();
+        source.put("numbers", Arrays.asList(1, 2, 3, 4, 5));
+
+        DataNode target = new DataNode();
+        target.put("numbers", Arrays.asList(1, 2, 9, 9, 5));
+
+        DataPatch patch = DataPatch.diff(source, target);
+        DataPatch.Operation splice = patch.getOperations().get(0);
+        assertEquals(DataPatch.Type.SPLICE, splice.getType());
+        assertEquals(2, splice.getIndex());
+        assertEquals(2, splice.getDeleted());
+        assertEquals(Arrays.asList(9, 9), splice.getInserted());
+
+        assertTrue(patch.apply(source));
+        assertEquals(Arrays.asList(1, 2, 9, 9, 5), source.get("numbers"));
+
+        target.put("numbers", Arrays.asList(7, 8));
+        assertEquals(DataPatch.Type.SET, DataPatch.diff(source, target).getOperations().get(0).getType());
+
+        DataNode missing = new DataNode();
+        assertFalse(patch.apply(missing));
+        assertNull(missing.get("numbers"));
+    }
+
+    @Test
+    public void testProtectedValues() {
+        DataNode source = new DataNode();
+        source.put("level", 1);
+        source.put("name", "Steve");
+
+        DataNode target = new DataNode();
+        target.put("level", "high");
+        target.put("name", "Alex");
+
+        ProtectedNode protectedNode = new ProtectedNode();
+        assertFalse(DataPatch.diff(source, target).apply(protectedNode));
+        assertEquals(1, protectedNode.get("level"));
+        assertEquals("Alex", protectedNode.get("name"));
+
+        assertFalse(DataPatch.diff(target, new DataNode()).apply(protectedNode));
+        assertEquals(1, protectedNode.get("level"));
+        assertNull(protectedNode.get("name"));
+    }
+
+    @Test
+    public void testExportedPatch() {
+        DataNode source = new DataNode();
+        source.put("guild.members", Arrays.asList("steve"));
+        source.put("guild.name", "Red");
+        source.put("guild.tag", "R");
+
+        DataNode target = source.clone();
+        target.addToList("guild.members", false, "alex");
+        target.put("guild.name", "Blue");
+        target.put("guild.tag", null);
+        target.put("guild.bank.gold", 100);
+
+        DataPatch patch = DataPatch.diff(source, target);
+        BinaryCodec codec = new BinaryCodec();
+        DataPatch decoded = DataPatch.fromNode(codec.read(codec.toByteArray(patch.toNode())));
+
+        DataNode patched = source.clone();
+        assertTrue(decoded.apply(patched));
+        assertEquals(target.simplify(), patched.simplify());
+
+        assertThrows(IllegalArgumentException.class, () -> DataPatch.fromNode(new DataNode()));
+    }
+
+    private static class ProtectedNode extends DataNode {
+        public ProtectedNode() {
+            protectValue("level", Integer.class, 1, false);
+            protectValue("name", String.class, "Steve", true);
+        }
+    }
+}
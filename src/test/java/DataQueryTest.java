@@ -0,0 +1,69 @@
+import com.github.ynverxe.data.DataNode;
+import com.github.ynverxe.data.DataQuery;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DataQueryTest {
+
+    @Test
+    public void testQueries() {
+        DataNode dataNode = new DataNode();
+        dataNode.put("guilds.red.members.steve.rank", 3);
+        dataNode.put("guilds.red.members.steve.name", "Steve");
+        dataNode.put("guilds.red.members.alex.rank", 1);
+        dataNode.put("guilds.blue.members.notch.rank", 5);
+        dataNode.put("guilds.blue.members.notch.name", "Notch");
+        dataNode.put("guilds.blue.tags", Arrays.asList("old", "big"));
+
+        assertEquals(Arrays.asList(3, 1, 5), query("guilds.*.members.*.rank", dataNode));
+        assertEquals(Arrays.asList("old", "big"), query("guilds.blue.tags.*", dataNode));
+        assertEquals(Arrays.asList(3, 1, 5), query("**.rank", dataNode));
+        assertEquals(Arrays.asList(3, 5), query("**.rank[@ >= 3]", dataNode));
+        assertEquals(Arrays.asList("Notch"), query("guilds.*.members.*[rank > 3].name", dataNode));
+        assertEquals(Arrays.asList("Steve"), query("guilds.*.members.*[name == 'Steve'].name", dataNode));
+        assertEquals(Arrays.asList("big"), query("guilds.blue.tags.*[@ != \"old\"]", dataNode));
+        assertEquals(2, query("guilds.*.members.*[name]", dataNode).size());
+
+        List<Object> projected = query("guilds.*.members.*[rank >= 3]{name}", dataNode);
+        assertEquals(2, projected.size());
+        assertEquals("Steve", ((DataNode) projected.get(0)).get("name"));
+        assertEquals(1, ((DataNode) projected.get(0)).simplify().size());
+
+        DataNode member = (DataNode) query("guilds.red.members.steve", dataNode).get(0);
+        member.put("rank", 10);
+        assertEquals(3, dataNode.get("guilds.red.members.steve.rank"));
+
+        assertThrows(IllegalArgumentException.class, () -> DataQuery.compile(""));
+        assertThrows(IllegalArgumentException.class, () -> DataQuery.compile("guilds..members"));
+        assertThrows(IllegalArgumentException.class, () -> DataQuery.compile("guilds.re*"));
+        assertThrows(IllegalArgumentException.class, () -> DataQuery.compile("guilds.*[rank >]"));
+        assertThrows(IllegalArgumentException.class, () -> DataQuery.compile("guilds.*{name"));
+    }
+
+    @Test
+    public void testParallelQueries() {
+        DataNode dataNode = new DataNode();
+
+        for (int i = 0; i < 1000; i++) {
+            dataNode.put("players.p" + i + ".level", i % 100);
+        }
+
+        DataQuery query = DataQuery.compile("players.*[level >= 50].level");
+        List<Object> sequential = query.stream(dataNode).collect(Collectors.toList());
+
+        assertEquals(500, sequential.size());
+        assertEquals(sequential, query.parallelStream(dataNode).collect(Collectors.toList()));
+        assertEquals(sequential, query.collect(dataNode, ForkJoinPool.commonPool()));
+        assertEquals(1, query.stream(dataNode).limit(1).count());
+    }
+
+    private static List<Object> query(String query, DataNode dataNode) {
+        return DataQuery.compile(query).stream(dataNode).collect(Collectors.toList());
+    }
+}
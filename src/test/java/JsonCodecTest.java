@@ -0,0 +1,93 @@
+import com.github.ynverxe.data.DataNode;
+import com.github.ynverxe.data.JsonCodec;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonCodecTest {
+
+    private final JsonCodec codec = new JsonCodec();
+
+    @Test
+    public void testRead() {
+        DataNode dataNode = codec.fromJson("{\"text\": \"a\\\"b\\u0041\", \"int\": -5, \"long\": 10000000000,"
+                + " \"double\": 1.5e2, \"flag\": true, \"nothing\": null, \"node\": {\"list\": [1, [2], {\"x\": 3}]},"
+                + " \"dotted.key\": 1}");
+
+        assertEquals("a\"bA", dataNode.getString("text"));
+        assertEquals(-5, dataNode.get("int"));
+        assertEquals(10000000000L, dataNode.get("long"));
+        assertEquals(150.0, dataNode.get("double"));
+        assertEquals(true, dataNode.get("flag"));
+        assertNull(dataNode.get("nothing"));
+        assertEquals(3, dataNode.getList("node.list").size());
+        assertEquals(1, dataNode.get("dotted.key"));
+    }
+
+    @Test
+    public void testRoundTrip() {
+        DataNode dataNode = new DataNode();
+        dataNode.put("text", "line\nbreak \u0001");
+        dataNode.put("node.value", 1.25);
+        dataNode.put("node.list", Arrays.asList(1, "two", null));
+        dataNode.put("char", 'c');
+
+        DataNode read = codec.fromJson(codec.toJson(dataNode));
+
+        assertEquals("line\nbreak \u0001", read.getString("text"));
+        assertEquals(dataNode.simplify().get("node"), read.simplify().get("node"));
+        assertEquals("c", read.get("char"));
+    }
+
+    @Test
+    public void testReadEach() throws IOException {
+        List<DataNode> nodes = new ArrayList<>();
+
+        codec.readEach(new StringReader("[{\"id\": 1}, {\"id\": 2}]"), nodes::add);
+
+        assertEquals(2, nodes.size());
+        assertEquals(2, nodes.get(1).getInt("id"));
+    }
+
+    @Test
+    public void testMalformedJson() {
+        assertThrows(IllegalArgumentException.class, () -> codec.fromJson("{\"a\": }"));
+        assertThrows(IllegalArgumentException.class, () -> codec.fromJson("{\"a\": 1"));
+        assertThrows(IllegalArgumentException.class, () -> codec.fromJson("{\"a\": 1} 2"));
+        assertThrows(IllegalArgumentException.class, () -> codec.fromJson("[1]"));
+        assertThrows(IllegalArgumentException.class, () -> codec.toJson(nanNode()));
+
+        for (String number : new String[]{"01", "1.", ".5", "-", "1e", "1e+", "+1", "1.5.2", "--1", "1-2"}) {
+            assertThrows(IllegalArgumentException.class, () -> codec.fromJson("{\"a\": " + number + "}"), number);
+        }
+
+        assertEquals(-0.5e-3, codec.fromJson("{\"a\": -0.5E-3}").get("a"));
+        assertEquals(0, codec.fromJson("{\"a\": -0}").get("a"));
+
+        assertThrows(IOException.class, () -> codec.read(new StringReader("{\"\": 1}")));
+        assertThrows(IOException.class, () -> codec.read(new StringReader("{\"a..b\": 1}")));
+
+        StringBuilder deep = new StringBuilder("{\"a\": ");
+
+        for (int i = 0; i < 100_000; i++) {
+            deep.append('[');
+        }
+
+        assertThrows(IOException.class, () -> codec.read(new StringReader(deep.toString())));
+        assertThrows(IOException.class, () -> new JsonCodec(2).read(new StringReader("{\"a\": {\"b\": {}}}")));
+        assertEquals(1, new JsonCodec(2).fromJson("{\"a\": {\"b\": 1}}").get("a.b"));
+    }
+
+    private static DataNode nanNode() {
+        DataNode dataNode = new DataNode();
+        dataNode.put("value", Double.NaN);
+
+        return dataNode;
+    }
+}
@@ -0,0 +1,66 @@
+import com.github.ynverxe.data.DataNode;
+import com.github.ynverxe.data.DataPath;
+import com.github.ynverxe.data.MappedDataNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedDataNodeTest {
+
+    @Test
+    public void testMappedFile() throws IOException {
+        DataNode dataNode = new DataNode();
+        dataNode.put("player.name", "Steve");
+        dataNode.put("player.stats.health", 20);
+        dataNode.put("player.stats.speed", 0.5);
+        dataNode.put("player.flying", true);
+        dataNode.put("player.items", Arrays.asList("sword", Collections.singletonMap("name", "bow")));
+        dataNode.put("player.nothing", null);
+        dataNode.put("world", "overworld");
+        dataNode.putLong("seed", Long.MIN_VALUE);
+
+        Path file = Files.createTempFile("data-node", ".bin");
+
+        try {
+            MappedDataNode.write(dataNode, file);
+            MappedDataNode mapped = MappedDataNode.open(file);
+
+            assertEquals("Steve", mapped.getString("player.name"));
+            assertEquals(20, mapped.getIntValue(DataPath.of("player.stats.health"), 0));
+            assertEquals(0.5, mapped.getDouble("player.stats.speed"));
+            assertTrue(mapped.getBoolean("player.flying"));
+            assertEquals(Long.MIN_VALUE, mapped.getLongValue("seed", 0));
+            assertTrue(mapped.has("player.nothing"));
+            assertNull(mapped.get("player.nothing"));
+            assertFalse(mapped.has("player.missing"));
+            assertFalse(mapped.has("world.missing"));
+
+            List<Object> items = mapped.getList("player.items");
+            assertEquals("sword", items.get(0));
+            assertEquals("bow", ((MappedDataNode) items.get(1)).getString("name"));
+            assertThrows(UnsupportedOperationException.class, () -> items.add("axe"));
+
+            assertEquals(dataNode.getNode("player").simplify(), mapped.getNode("player").simplify());
+            assertEquals(dataNode.simplify(), mapped.simplify());
+            assertEquals(3, mapped.size());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testMalformedData() {
+        assertThrows(IllegalArgumentException.class, () -> MappedDataNode.wrap(ByteBuffer.wrap(new byte[]{'D', 'N', 1, 0})));
+
+        byte[] bytes = MappedDataNode.toByteArray(new DataNode());
+        assertEquals(0, MappedDataNode.wrap(ByteBuffer.wrap(bytes)).size());
+    }
+}
@@ -0,0 +1,93 @@
+import com.github.ynverxe.data.DataNode;
+import com.github.ynverxe.data.NodeIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NodeIndexTest {
+
+    @Test
+    public void testHashIndex() {
+        DataNode houses = new DataNode();
+        houses.put("h1.owner", "steve");
+        houses.put("h2.owner", "alex");
+        houses.put("h3.owner", "steve");
+        houses.put("h4.size", 10);
+
+        NodeIndex index = NodeIndex.hash(houses, "owner");
+        assertEquals(3, index.size());
+        assertEquals(Arrays.asList("h1", "h3"), Arrays.asList(index.find("steve").toArray()));
+        assertEquals("h2", index.findAny("alex"));
+        assertNull(index.findAny("notch"));
+
+        houses.put("h2.owner", "steve");
+        houses.put("h4.owner", "notch");
+        houses.put("h3", null);
+        assertEquals(Arrays.asList("h1", "h2"), Arrays.asList(index.find("steve").toArray()));
+        assertEquals(Collections.emptySet(), index.find("alex"));
+        assertEquals("h4", index.findAny("notch"));
+
+        DataNode house = new DataNode();
+        house.put("owner", "alex");
+        houses.put("h5", house);
+        ((DataNode) houses.get("h1")).put("owner", "alex");
+        assertEquals(Arrays.asList("h5", "h1"), Arrays.asList(index.find("alex").toArray()));
+
+        houses.clear();
+        assertEquals(0, index.size());
+
+        index.detach();
+        houses.put("h6.owner", "steve");
+        assertTrue(index.find("steve").isEmpty());
+        assertThrows(IllegalStateException.class, () -> index.range(null, true, null, true));
+    }
+
+    @Test
+    public void testSortedIndex() {
+        DataNode players = new DataNode();
+
+        for (int i = 0; i < 10; i++) {
+            players.put("p" + i + ".stats.level", i);
+        }
+
+        NodeIndex index = NodeIndex.sorted(players, "stats.level");
+        assertEquals(Arrays.asList("p3", "p4", "p5"), index.range(3, true, 5L, true));
+        assertEquals(Arrays.asList("p8", "p9"), index.range(7.5, false, null, true));
+        assertEquals(Collections.singleton("p2"), index.find(2L));
+
+        players.putInt("p2.stats.level", 20);
+        players.put("p4.stats", Collections.singletonMap("level", 30));
+        players.put("p5.stats.level", "max");
+        assertEquals(Arrays.asList("p8", "p9", "p2", "p4"), index.range(8, true, 1000, true));
+        assertEquals(Arrays.asList("p8", "p9", "p2", "p4", "p5"), index.range(8, true, null, true));
+        assertEquals(Collections.singleton("p5"), index.find("max"));
+        assertThrows(IllegalArgumentException.class, () -> index.range(true, true, null, true));
+    }
+
+    @Test
+    public void testNumericValues() {
+        DataNode items = new DataNode();
+        long large = (1L << 53) + 1;
+
+        items.putLong("a.id", 5L);
+        items.putDouble("b.id", 5.0);
+        items.putLong("c.id", large);
+        items.putLong("d.id", large + 1);
+        items.putDouble("e.id", 5.5);
+
+        NodeIndex hash = NodeIndex.hash(items, "id");
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")), hash.find(5));
+        assertEquals(Collections.singleton("e"), hash.find(5.5f));
+
+        NodeIndex sorted = NodeIndex.sorted(items, "id");
+        assertEquals(Arrays.asList("a", "b"), sorted.range(5.0, true, 5L, true));
+        assertEquals(Arrays.asList("e"), sorted.range(5, false, 6, false));
+        assertEquals(Collections.singleton("c"), sorted.find(large));
+        assertEquals(Arrays.asList("d"), sorted.range(large, false, null, true));
+        assertEquals(Arrays.asList("c", "d"), sorted.range((double) (1L << 53), false, Double.POSITIVE_INFINITY, true));
+    }
+}
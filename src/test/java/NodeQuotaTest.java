@@ -0,0 +1,151 @@
+import com.github.ynverxe.data.DataMetrics;
+import com.github.ynverxe.data.DataNode;
+import com.github.ynverxe.data.NodeQuota;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NodeQuotaTest {
+
+    @Test
+    public void testFootprint() {
+        DataNode dataNode = new DataNode();
+        assertTrue(dataNode.getEstimatedBytes() > 0);
+
+        dataNode.put("a.b.c", "value");
+        dataNode.putInt("a.number", 5);
+        dataNode.put("a.list", Arrays.asList("x", "y", "z"));
+        assertEquals(8, dataNode.getEntryCount());
+
+        DataNode nested = dataNode.getNode("a");
+        long nestedBytes = nested.getEstimatedBytes();
+        long bytes = dataNode.getEstimatedBytes();
+        assertTrue(bytes > nestedBytes);
+
+        nested.put("b.d", "other");
+        assertEquals(nested.getEstimatedBytes() - nestedBytes, dataNode.getEstimatedBytes() - bytes);
+        assertEquals(9, dataNode.getEntryCount());
+
+        DataNode clone = dataNode.clone();
+        assertEquals(dataNode.getEstimatedBytes(), clone.getEstimatedBytes());
+        assertEquals(dataNode.getEntryCount(), clone.getEntryCount());
+
+        clone.put("a.b", null);
+        assertEquals(6, clone.getEntryCount());
+        assertEquals(5, clone.getNode("a").getEntryCount());
+        assertEquals(9, dataNode.getEntryCount());
+
+        dataNode.put("temporary", "value");
+        dataNode.put("temporary", null);
+        bytes = dataNode.getEstimatedBytes();
+
+        dataNode.putLong("temporary", 4L);
+        dataNode.putLong("temporary", 5L);
+        dataNode.put("temporary", null);
+        assertEquals(bytes, dataNode.getEstimatedBytes());
+
+        dataNode.clear();
+        assertEquals(0, dataNode.getEntryCount());
+    }
+
+    @Test
+    public void testRollback() {
+        DataNode dataNode = new ProtectedNode();
+        long bytes = dataNode.getEstimatedBytes();
+        int entries = dataNode.getEntryCount();
+
+        Map<String, Object> values = new HashMap<>();
+        values.put("a.b", "value");
+        values.put("level", 2);
+
+        assertFalse(dataNode.putAll(values));
+        assertEquals(bytes, dataNode.getEstimatedBytes());
+        assertEquals(entries, dataNode.getEntryCount());
+    }
+
+    @Test
+    public void testQuota() {
+        DataMetrics.reset();
+        DataMetrics.enable();
+
+        try {
+            DataNode dataNode = new DataNode();
+            dataNode.setQuota(NodeQuota.unlimited().withMaxEntries(3).withMaxDepth(2));
+
+            assertTrue(dataNode.put("a.b", 1));
+            assertFalse(dataNode.put("a.b.c", 1));
+            assertTrue(dataNode.put("c", 1));
+            assertFalse(dataNode.put("d", 1));
+            assertFalse(dataNode.getNode("a").put("e", 1));
+            assertEquals(3, dataNode.getEntryCount());
+            assertEquals(3, DataMetrics.getRejections());
+
+            // releasing data is always allowed
+            assertTrue(dataNode.put("c", null));
+            assertTrue(dataNode.put("d", 1));
+
+            DataNode limited = new DataNode();
+            limited.setQuota(NodeQuota.unlimited().withMaxBytes(limited.getEstimatedBytes() + 200));
+            assertTrue(limited.put("name", "short"));
+
+            char[] chars = new char[256];
+            Arrays.fill(chars, 'x');
+            assertFalse(limited.put("name", new String(chars)));
+            assertEquals("short", limited.get("name"));
+
+            DataNode listNode = new DataNode();
+            listNode.setQuota(NodeQuota.unlimited().withMaxEntries(3));
+            assertTrue(listNode.addToList("list", true, 1, 2));
+            assertFalse(listNode.addToList("list", true, 3));
+            assertEquals(Arrays.asList(1, 2), listNode.getList("list"));
+
+            DataNode deepClone = dataNode.deepClone();
+            assertSame(dataNode.getQuota(), deepClone.getQuota());
+            assertFalse(deepClone.put("f", 1));
+            assertSame(listNode.getQuota(), listNode.deepClone(ForkJoinPool.commonPool()).getQuota());
+            assertSame(dataNode.getQuota(), dataNode.snapshot().toDataNode().getQuota());
+
+            assertThrows(IllegalArgumentException.class, () -> NodeQuota.unlimited().withMaxDepth(0));
+        } finally {
+            DataMetrics.disable();
+        }
+    }
+
+    @Test
+    public void testHotSpots() {
+        DataNode dataNode = new DataNode();
+        dataNode.put("small.value", 1);
+
+        List<Object> items = Arrays.asList(new DataNode(), new DataNode());
+        dataNode.put("items", items);
+
+        for (int i = 0; i < 50; i++) {
+            dataNode.put("large.value" + i, "value" + i);
+        }
+
+        List<DataMetrics.HotSpot> hotSpots = DataMetrics.getHotSpots(dataNode, 2);
+        assertEquals(2, hotSpots.size());
+        assertEquals("large", hotSpots.get(0).getPath());
+        assertEquals(50, hotSpots.get(0).getEntryCount());
+
+        long total = 0;
+
+        for (DataMetrics.HotSpot hotSpot : DataMetrics.getHotSpots(dataNode, Integer.MAX_VALUE)) {
+            total += hotSpot.getOwnBytes();
+        }
+
+        assertEquals(dataNode.getEstimatedBytes(), total);
+    }
+
+    private static class ProtectedNode extends DataNode {
+        public ProtectedNode() {
+            protectValue("level", String.class, "none", false);
+        }
+    }
+}